@@ -2,11 +2,14 @@ package com.taskmanager.ai.controller;
 
 import com.taskmanager.ai.dto.AIBreakdownRequest;
 import com.taskmanager.ai.dto.AIDescriptionRequest;
+import com.taskmanager.ai.dto.AIStreamChunk;
 import com.taskmanager.ai.dto.AIStatusRequest;
 import com.taskmanager.ai.dto.ChatRequest;
 import com.taskmanager.ai.dto.ChatResponse;
 import com.taskmanager.ai.dto.ImportDocumentResponse;
+import com.taskmanager.ai.dto.ImportJobResponse;
 import com.taskmanager.ai.service.AITaskService;
+import com.taskmanager.ai.service.DocumentImportJobService;
 import com.taskmanager.ai.service.DocumentTaskImportService;
 import com.taskmanager.api.dto.GetTaskResponse;
 import com.taskmanager.exception.BadRequest;
@@ -19,17 +22,24 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * AI Task Controller — exposes AI-powered endpoints for task management.
@@ -72,8 +82,16 @@ import java.util.Set;
  *   <li>ADMIN uploads a PDF or Word document (sprint plan, requirements, meeting notes).</li>
  *   <li>Spring AI extracts text; LLM parses tasks as structured JSON.</li>
  *   <li>Tasks are persisted to PostgreSQL; saved IDs are returned.</li>
+ *   <li>POST /ai/task/import-jobs does the same in the background: 202 with a job id, then
+ *       GET /ai/task/import-jobs/{jobId} for the result.</li>
  * </ul>
  *
+ * <p><b>Streaming:</b> Features 1, 3, 4 and 5 also answer {@code Accept: text/event-stream} on
+ * the same path. The reply then arrives as Server-Sent Events while the model generates it:
+ * {@code token} events carrying {@link AIStreamChunk} JSON, then one {@code done} event (or an
+ * {@code error} event if the model fails mid-stream). Streamed chat reports the number of tasks
+ * analysed in the {@value #TASKS_ANALYZED_HEADER} header.
+ *
  * <p>Security: Bearer JWT required. Accessible by USER and ADMIN roles.
  */
 @RestController
@@ -87,6 +105,9 @@ public class AITaskController {
     private final AITaskService aiTaskService;
     private final TaskService taskService;
     private final DocumentTaskImportService documentTaskImportService;
+    private final DocumentImportJobService documentImportJobService;
+
+    public static final String TASKS_ANALYZED_HEADER = "X-Tasks-Analyzed";
 
     /** File extensions accepted by the document-import endpoint. */
     private static final Set<String> ALLOWED_EXTENSIONS =
@@ -122,6 +143,28 @@ public class AITaskController {
         return ResponseEntity.ok(description);
     }
 
+    /**
+     * Feature 1, streamed: the description is sent as Server-Sent Events while it is generated.
+     *
+     * @param request contains the task title
+     * @return {@code token} events followed by a {@code done} event
+     */
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @PostMapping(
+            path = "/generate-description",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "AI: Stream a task description as it is generated (SSE)",
+            description = "Same as generate-description, requested with Accept: text/event-stream. "
+                    + "Emits 'token' events with {\"text\": \"...\"} and a final 'done' event.")
+    public Flux<ServerSentEvent<Object>> streamDescription(
+            @Valid @RequestBody AIDescriptionRequest request) {
+
+        log.info("POST /ai/task/generate-description (stream) — title: {}", request.getTitle());
+        return toEvents(aiTaskService.streamDescription(request.getTitle()));
+    }
+
     /**
      * Feature 2: AI Status Suggester.
      *
@@ -190,6 +233,26 @@ public class AITaskController {
         return ResponseEntity.ok(summary);
     }
 
+    /**
+     * Feature 3, streamed: the executive summary is sent as Server-Sent Events while it is generated.
+     *
+     * @return {@code token} events followed by a {@code done} event
+     */
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @GetMapping(
+            path = "/summarize",
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "AI: Stream the executive summary of all tasks as it is generated (SSE)",
+            description = "Same as summarize, requested with Accept: text/event-stream. "
+                    + "Emits 'token' events with {\"text\": \"...\"} and a final 'done' event.")
+    public Flux<ServerSentEvent<Object>> streamSummary() {
+        log.info("GET /ai/task/summarize (stream) — fetching all tasks for AI summarization");
+        // Tasks are read before the stream starts, so no connection is held while the model runs
+        List<GetTaskResponse> allTasks = taskService.getAllTasks();
+        return toEvents(aiTaskService.streamSummary(allTasks));
+    }
+
     /**
      * Feature 4: AI Task Breakdown — Chain-of-Thought Prompting.
      *
@@ -224,6 +287,28 @@ public class AITaskController {
         return ResponseEntity.ok(breakdown);
     }
 
+    /**
+     * Feature 4, streamed: the subtask list is sent as Server-Sent Events while it is generated.
+     *
+     * @param request contains the complex task title and description
+     * @return {@code token} events followed by a {@code done} event
+     */
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @PostMapping(
+            path = "/breakdown",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "AI: Stream a task breakdown as it is generated (SSE)",
+            description = "Same as breakdown, requested with Accept: text/event-stream. "
+                    + "Emits 'token' events with {\"text\": \"...\"} and a final 'done' event.")
+    public Flux<ServerSentEvent<Object>> streamBreakdown(
+            @Valid @RequestBody AIBreakdownRequest request) {
+
+        log.info("POST /ai/task/breakdown (stream) — title: {}", request.getTitle());
+        return toEvents(aiTaskService.streamBreakdown(request.getTitle(), request.getDescription()));
+    }
+
     /**
      * Feature 5: AI Conversational Chatbot — RAG + Conversational AI.
      *
@@ -260,6 +345,33 @@ public class AITaskController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Feature 5, streamed: the reply is sent as Server-Sent Events while it is generated.
+     *
+     * @param request contains the user's natural-language question
+     * @return {@code token} events followed by a {@code done} event; tasks analysed in
+     *         the {@value #TASKS_ANALYZED_HEADER} header
+     */
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+    @PostMapping(
+            path = "/chat",
+            consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "AI: Stream the assistant's reply as it is generated (SSE)",
+            description = "Same as chat, requested with Accept: text/event-stream. Emits 'token' events "
+                    + "with {\"text\": \"...\"} and a final 'done' event; the number of tasks analysed "
+                    + "is returned in the X-Tasks-Analyzed header.")
+    public ResponseEntity<Flux<ServerSentEvent<Object>>> streamChat(
+            @Valid @RequestBody ChatRequest request) {
+
+        log.info("POST /ai/task/chat (stream) — message: {}", request.getMessage());
+        List<GetTaskResponse> allTasks = taskService.getAllTasks();
+        return ResponseEntity.ok()
+                .header(TASKS_ANALYZED_HEADER, String.valueOf(allTasks.size()))
+                .body(toEvents(aiTaskService.streamChat(request.getMessage(), allTasks)));
+    }
+
     /**
      * Feature 6: Document Ingestion — PDF / Word → Tasks (ADMIN only).
      *
@@ -290,11 +402,73 @@ public class AITaskController {
     public ResponseEntity<ImportDocumentResponse> importDocument(
             @RequestParam("file") MultipartFile file) throws Exception {
 
+        validateDocument(file);
+        log.info("POST /ai/task/import-document — file: {}, size: {} bytes",
+                file.getOriginalFilename(), file.getSize());
+        DocumentTaskImportService.ImportResult result = documentTaskImportService.importTasksFromDocument(file);
+        String skipped = result.skippedTitles().isEmpty() ? ""
+                : " (" + result.skippedTitles().size() + " skipped, title already exists)";
+        return ResponseEntity.ok(ImportDocumentResponse.builder()
+                .message("Successfully imported " + result.taskIds().size() + " tasks from document" + skipped)
+                .taskIds(result.taskIds())
+                .skippedTitles(result.skippedTitles())
+                .build());
+    }
+
+    /**
+     * Feature 6 (asynchronous): queue a document import (ADMIN only).
+     *
+     * <p>Same input as {@code /import-document}, but the request returns {@code 202 Accepted}
+     * as soon as the file is stored, with the job in the body and its status URL in the
+     * {@code Location} header. Poll {@code GET /ai/task/import-jobs/{jobId}} for the created task IDs.
+     *
+     * @param file the uploaded PDF or Word document
+     * @return the queued job
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(
+            path = "/import-jobs",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "AI: Queue a task import from a PDF or Word document (ADMIN only)",
+            description = "Stores the file and returns 202 with a job id at once; the tasks are extracted "
+                    + "in the background. Poll the job for its status and the created task IDs.")
+    public ResponseEntity<ImportJobResponse> submitImportJob(
+            @RequestParam("file") MultipartFile file) throws IOException {
+
+        validateDocument(file);
+        log.info("POST /ai/task/import-jobs — file: {}, size: {} bytes",
+                file.getOriginalFilename(), file.getSize());
+        UUID jobId = documentImportJobService.submit(file);
+        return ResponseEntity.accepted()
+                .location(URI.create("/ai/task/import-jobs/" + jobId))
+                .body(documentImportJobService.getJob(jobId));
+    }
+
+    /**
+     * Status of an asynchronous document import, with the created task IDs once it has succeeded.
+     *
+     * @param jobId id returned by {@code POST /ai/task/import-jobs}
+     * @return the job
+     */
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(
+            path = "/import-jobs/{jobId}",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+            summary = "AI: Status and result of a queued document import (ADMIN only)",
+            description = "Returns QUEUED, RUNNING, SUCCEEDED (with taskIds) or FAILED (with error).")
+    public ResponseEntity<ImportJobResponse> getImportJob(@PathVariable UUID jobId) {
+        return ResponseEntity.ok(documentImportJobService.getJob(jobId));
+    }
+
+    /** Rejects empty uploads and anything that is not PDF, Word, or Excel. */
+    private void validateDocument(MultipartFile file) {
         if (file.isEmpty()) {
             throw new BadRequest("Uploaded file is empty");
         }
 
-        // Validate file extension — reject anything that is not PDF, Word, or Excel
         String filename = file.getOriginalFilename() != null
                 ? file.getOriginalFilename().toLowerCase() : "";
         boolean validExtension = ALLOWED_EXTENSIONS.stream().anyMatch(filename::endsWith);
@@ -302,14 +476,25 @@ public class AITaskController {
             throw new BadRequest(
                     "Unsupported file format. Accepted formats: PDF (.pdf), Word (.docx/.doc), Excel (.xlsx/.xls)");
         }
+    }
 
-        log.info("POST /ai/task/import-document — file: {}, size: {} bytes",
-                file.getOriginalFilename(), file.getSize());
-        List<Long> savedIds = documentTaskImportService.importTasksFromDocument(file);
-        return ResponseEntity.ok(ImportDocumentResponse.builder()
-                .message("Successfully imported " + savedIds.size() + " tasks from document")
-                .taskIds(savedIds)
-                .build());
+    /**
+     * Wraps model output as SSE: one {@code token} event per chunk and a closing {@code done}
+     * event, so clients can tell a finished reply from a dropped connection. A failure after
+     * the response has started can no longer change the status code, so it becomes an
+     * {@code error} event instead.
+     */
+    private Flux<ServerSentEvent<Object>> toEvents(Flux<String> tokens) {
+        return tokens
+                .map(token -> ServerSentEvent.<Object>builder(AIStreamChunk.builder().text(token).build())
+                        .event("token")
+                        .build())
+                .concatWith(Mono.just(ServerSentEvent.<Object>builder("[DONE]").event("done").build()))
+                .onErrorResume(e -> {
+                    log.error("AI stream failed: {}", e.getMessage(), e);
+                    return Mono.just(ServerSentEvent.<Object>builder("AI service unavailable, please retry")
+                            .event("error")
+                            .build());
+                });
     }
 }
-
@@ -0,0 +1,18 @@
+package com.taskmanager.ai.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Data of a {@code token} event on the streaming (SSE) variants of the AI endpoints.
+ *
+ * <p>Text is sent as JSON rather than raw SSE data because model tokens usually begin with a
+ * space, and SSE clients strip one leading space from every {@code data:} line.
+ */
+@Getter
+@Builder
+public class AIStreamChunk {
+
+    /** The next piece of generated text, to be appended as-is. */
+    private String text;
+}
@@ -20,5 +20,8 @@ public class ImportDocumentResponse {
 
     /** Database IDs of the tasks that were created from the document. */
     private List<Long> taskIds;
+
+    /** Extracted titles that were not saved because a task with that title already exists. */
+    private List<String> skippedTitles;
 }
 
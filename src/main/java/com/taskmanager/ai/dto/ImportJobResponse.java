@@ -0,0 +1,40 @@
+package com.taskmanager.ai.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for asynchronous document imports ({@code /ai/task/import-jobs}).
+ *
+ * <p>{@code taskIds} is filled once the job has {@code SUCCEEDED}; {@code error} once it has
+ * {@code FAILED}.
+ */
+@Getter
+@Builder
+public class ImportJobResponse {
+
+    private UUID jobId;
+
+    /** QUEUED, RUNNING, SUCCEEDED or FAILED. */
+    private String status;
+
+    private String filename;
+
+    /** Database IDs of the tasks that were created from the document. */
+    private List<Long> taskIds;
+
+    /** Extracted titles that were not saved because a task with that title already exists. */
+    private List<String> skippedTitles;
+
+    private String error;
+
+    private LocalDateTime submittedDate;
+
+    private LocalDateTime startedDate;
+
+    private LocalDateTime finishedDate;
+}
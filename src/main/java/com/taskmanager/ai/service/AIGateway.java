@@ -0,0 +1,259 @@
+package com.taskmanager.ai.service;
+
+import com.taskmanager.exception.ServiceUnavailable;
+import com.taskmanager.exception.TooManyRequests;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of the single Ollama instance: every model call goes through
+ * {@link #call} or {@link #stream}.
+ *
+ * <p>At most {@code ai.gateway.max-concurrent} calls reach the model at once. Further calls
+ * wait in FIFO order (a fair semaphore) for up to {@code queue-timeout-ms}. Callers are shed
+ * fast rather than left piling up:
+ * <ul>
+ *   <li>a user who already has {@code per-user-limit} calls queued or running gets
+ *       {@link TooManyRequests} (429), so one client cannot fill the queue for everyone;</li>
+ *   <li>when {@code queue-capacity} calls are already waiting, or the wait times out, the
+ *       caller gets {@link ServiceUnavailable} (503).</li>
+ * </ul>
+ *
+ * <p>Work that makes several model calls for one request, such as the chunks of a document
+ * import, takes an {@link Admission} instead: it holds a single per-user slot for all of its
+ * calls, however many run in parallel, and each call still waits for a model slot. Background
+ * jobs use {@link #admitBackground}: nobody waits on their response, so they are neither
+ * charged to a user nor shed, and simply wait their turn for a model slot.
+ *
+ * <p>Metrics: gauges {@code ai.gateway.active} and {@code ai.gateway.queued}, timer
+ * {@code ai.gateway.queue.wait} (tag {@code feature}) and counter {@code ai.gateway.rejected}
+ * (tags {@code feature}, {@code reason=user_quota|queue_full|timeout}).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AIGateway {
+
+    private static final String BUSY = "The AI service is busy, please retry shortly";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ai.gateway.max-concurrent:4}")
+    private int maxConcurrent;
+
+    @Value("${ai.gateway.queue-capacity:100}")
+    private int queueCapacity;
+
+    // Calls one user may have queued or running at the same time
+    @Value("${ai.gateway.per-user-limit:3}")
+    private int perUserLimit;
+
+    @Value("${ai.gateway.queue-timeout-ms:30000}")
+    private long queueTimeoutMs;
+
+    /** Model calls admitted together; see {@link #admit}. Must be closed when the work is done. */
+    public interface Admission extends AutoCloseable {
+
+        /** Runs one blocking model call once a model slot is free. */
+        <T> T call(Supplier<T> call);
+
+        @Override
+        void close();
+    }
+
+    private Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<String, Integer> pendingPerUser = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    private void init() {
+        this.permits = new Semaphore(maxConcurrent, true);
+        Gauge.builder("ai.gateway.active", this, gateway -> gateway.maxConcurrent - gateway.permits.availablePermits())
+                .description("AI calls currently running against the model")
+                .register(meterRegistry);
+        Gauge.builder("ai.gateway.queued", queued, AtomicInteger::get)
+                .description("AI calls waiting for a free model slot")
+                .register(meterRegistry);
+        log.debug("AI gateway initialized (maxConcurrent={}, queueCapacity={}, perUserLimit={}, queueTimeoutMs={})",
+                maxConcurrent, queueCapacity, perUserLimit, queueTimeoutMs);
+    }
+
+    /** Runs a blocking model call on behalf of the authenticated user. */
+    public <T> T call(String feature, Supplier<T> call) {
+        return call(currentUser(), feature, call);
+    }
+
+    /** Runs a blocking model call on behalf of {@code user}, for work without a security context. */
+    public <T> T call(String user, String feature, Supplier<T> call) {
+        Runnable release = acquire(user, feature);
+        try {
+            return call.get();
+        } finally {
+            release.run();
+        }
+    }
+
+    /**
+     * Charges the authenticated user one per-user slot for a series of model calls, which may
+     * run on any thread until the admission is closed.
+     *
+     * @throws TooManyRequests if the user already has {@code per-user-limit} calls in progress
+     */
+    public Admission admit(String feature) {
+        return admission(feature, chargeUser(currentUser(), feature), false);
+    }
+
+    /**
+     * Admits the model calls of a background job: no per-user slot is taken, and each call
+     * waits for a model slot as long as it takes instead of being shed with a 503. The number
+     * of background workers bounds how many such calls can wait.
+     */
+    public Admission admitBackground(String feature) {
+        return admission(feature, () -> { }, true);
+    }
+
+    private Admission admission(String feature, Runnable releaseUser, boolean background) {
+        return new Admission() {
+            @Override
+            public <T> T call(Supplier<T> call) {
+                if (background) {
+                    awaitSlot(feature);
+                } else {
+                    waitForSlot(feature);
+                }
+                try {
+                    return call.get();
+                } finally {
+                    permits.release();
+                }
+            }
+
+            @Override
+            public void close() {
+                releaseUser.run();
+            }
+        };
+    }
+
+    /**
+     * Admits a streaming model call before returning, so shedding surfaces as a 429/503 status
+     * rather than inside an already started stream. The slot is held until the stream
+     * completes, fails or is cancelled; the returned {@link Flux} must be subscribed.
+     */
+    public Flux<String> stream(String feature, Supplier<Flux<String>> stream) {
+        Runnable release = acquire(currentUser(), feature);
+        return Flux.defer(stream).doFinally(signal -> release.run());
+    }
+
+    private Runnable acquire(String user, String feature) {
+        Runnable releaseUser = chargeUser(user, feature);
+        try {
+            waitForSlot(feature);
+        } catch (RuntimeException e) {
+            releaseUser.run();
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+                releaseUser.run();
+            }
+        };
+    }
+
+    // Takes one of the user's per-user-limit slots; the returned action gives it back once
+    private Runnable chargeUser(String user, String feature) {
+        if (pendingPerUser.merge(user, 1, Integer::sum) > perUserLimit) {
+            releaseUser(user);
+            reject(feature, "user_quota");
+            throw new TooManyRequests("Too many AI requests in progress, wait for one to finish");
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                releaseUser(user);
+            }
+        };
+    }
+
+    private void waitForSlot(String feature) {
+        Timer.Sample wait = Timer.start(meterRegistry);
+        Timer waitTimer = meterRegistry.timer("ai.gateway.queue.wait", "feature", feature);
+        try {
+            // tryAcquire(0, unit) honours fairness: a free slot is not taken ahead of waiting callers
+            if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                wait.stop(waitTimer);
+                return;
+            }
+            if (queued.incrementAndGet() > queueCapacity) {
+                queued.decrementAndGet();
+                reject(feature, "queue_full");
+                throw new ServiceUnavailable(BUSY);
+            }
+            try {
+                if (!permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                    reject(feature, "timeout");
+                    throw new ServiceUnavailable(BUSY);
+                }
+            } finally {
+                queued.decrementAndGet();
+            }
+            wait.stop(waitTimer);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailable(BUSY);
+        }
+    }
+
+    // Background calls: no queue capacity or timeout, only interruption (shutdown) gives up
+    private void awaitSlot(String feature) {
+        Timer.Sample wait = Timer.start(meterRegistry);
+        queued.incrementAndGet();
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailable(BUSY);
+        } finally {
+            queued.decrementAndGet();
+        }
+        wait.stop(meterRegistry.timer("ai.gateway.queue.wait", "feature", feature));
+    }
+
+    private void releaseUser(String user) {
+        pendingPerUser.computeIfPresent(user, (key, pending) -> pending == 1 ? null : pending - 1);
+    }
+
+    private void reject(String feature, String reason) {
+        Counter.builder("ai.gateway.rejected")
+                .tag("feature", feature)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        log.warn("AI call rejected: feature={}, reason={}, queued={}", feature, reason, queued.get());
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+}
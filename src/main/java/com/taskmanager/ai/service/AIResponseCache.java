@@ -0,0 +1,173 @@
+package com.taskmanager.ai.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.taskmanager.domain.repository.AIResponseCacheRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Response cache for the deterministic AI features, keyed by the SHA-256 of model, feature
+ * and the exact prompt sent to {@code ChatClient}. A repeated title costs a map lookup
+ * instead of a model call.
+ *
+ * <p>Entries live in a bounded in-memory cache for {@code ai.cache.ttl-seconds}. With
+ * {@code ai.cache.backend=postgresql} they are also written to {@code ai_response_cache}
+ * (migration V11), so answers survive restarts and are shared by every replica. The table is
+ * only an optimisation: database errors are logged and the model is called as if it missed.
+ * Blank responses are never cached.
+ *
+ * <p>Metrics: counter {@code ai.cache.requests} tagged {@code feature} and
+ * {@code result=hit|miss} (hit ratio per feature), and {@code cache.*} with tag
+ * {@code cache=ai-responses}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AIResponseCache {
+
+    private final AIResponseCacheRepository repository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ai.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ai.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${ai.cache.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    // local (per pod) | postgresql (shared by all replicas, table ai_response_cache)
+    @Value("${ai.cache.backend:local}")
+    private String backend;
+
+    // Part of the key, so switching models never serves answers of the previous one
+    @Value("${spring.ai.ollama.chat.options.model:llama3.2:1b}")
+    private String model;
+
+    private Cache<String, String> cache;
+
+    @PostConstruct
+    private void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ai-responses");
+        log.debug("AI response cache initialized (enabled={}, backend={}, maxSize={}, ttlSeconds={})",
+                enabled, backend, maxSize, ttlSeconds);
+    }
+
+    /**
+     * Returns the cached response for this prompt, or calls {@code generator} and caches its result.
+     *
+     * @param feature the {@code feature} tag of the calling AI feature
+     * @param prompt  everything sent to the model (system and user prompt)
+     */
+    public String getOrGenerate(String feature, String prompt, Supplier<String> generator) {
+        return getOrGenerate(feature, prompt, generator, response -> true);
+    }
+
+    /**
+     * Like {@link #getOrGenerate(String, String, Supplier)}, but only caches a response that
+     * {@code cacheable} accepts; anything else is returned once and generated again next time.
+     */
+    public String getOrGenerate(String feature, String prompt, Supplier<String> generator, Predicate<String> cacheable) {
+        Optional<String> cached = find(feature, prompt);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        String response = generator.get();
+        if (response != null && cacheable.test(response)) {
+            put(feature, prompt, response);
+        }
+        return response;
+    }
+
+    /**
+     * Looks the prompt up without generating; counts a hit or a miss. Used directly by the
+     * streaming variants, which store the reply themselves once the stream completes.
+     */
+    public Optional<String> find(String feature, String prompt) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String key = key(feature, prompt);
+        String response = cache.getIfPresent(key);
+        if (response == null && isShared()) {
+            response = findShared(key);
+            if (response != null) {
+                cache.put(key, response);
+            }
+        }
+        meterRegistry.counter("ai.cache.requests", "feature", feature, "result", response != null ? "hit" : "miss")
+                .increment();
+        return Optional.ofNullable(response);
+    }
+
+    public void put(String feature, String prompt, String response) {
+        if (!enabled || response == null || response.isBlank()) {
+            return;
+        }
+        String key = key(feature, prompt);
+        cache.put(key, response);
+        if (isShared()) {
+            try {
+                repository.upsert(key, feature, response, LocalDateTime.now().plusSeconds(ttlSeconds));
+            } catch (DataAccessException e) {
+                log.warn("Could not store AI response for feature={} in the shared cache: {}", feature, e.getMessage());
+            }
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+        log.info("Cleared AI response cache");
+    }
+
+    private boolean isShared() {
+        return "postgresql".equals(backend);
+    }
+
+    private String findShared(String key) {
+        try {
+            return repository.findLiveResponse(key, LocalDateTime.now()).orElse(null);
+        } catch (DataAccessException e) {
+            log.warn("Shared AI response cache unavailable, treating as miss: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private String key(String feature, String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // NUL separators: no model/feature/prompt combination can collide with another
+            digest.update((model + '\0' + feature + '\0').getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(prompt.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.taskmanager.ai.service;
+
+import com.taskmanager.domain.repository.AIResponseCacheRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes shared AI responses past their expiry. Expired rows are never read, so this only
+ * keeps {@code ai_response_cache} from growing by one row per prompt ever answered.
+ */
+@Component
+@ConditionalOnProperty(name = "ai.cache.backend", havingValue = "postgresql")
+@RequiredArgsConstructor
+@Slf4j
+public class AIResponseCachePurger {
+
+    private final AIResponseCacheRepository repository;
+
+    @Scheduled(cron = "${ai.cache.purge-cron:0 45 3 * * *}")
+    public void purgeExpiredResponses() {
+        int purged = repository.purgeExpiredBefore(LocalDateTime.now());
+        log.info("Purged {} expired AI responses", purged);
+    }
+}
@@ -1,5 +1,8 @@
 package com.taskmanager.ai.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taskmanager.api.dto.GetTaskResponse;
 import com.taskmanager.ai.dto.ChatResponse;
 import io.micrometer.core.instrument.MeterRegistry;
@@ -9,8 +12,15 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.stereotype.Service;
 
+import reactor.core.publisher.Flux;
+
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -26,14 +36,34 @@ import java.util.stream.Collectors;
  *
  * <p>Every LLM call is wrapped with a Micrometer {@link Timer} so AI response
  * latency is exported to Prometheus and visible in Grafana dashboards.
+ *
+ * <p>Features 1, 3, 4 and 5 also have {@code stream*} variants built on
+ * {@code ChatClient.stream()}: the returned {@link Flux} emits text as the model produces it,
+ * so the first words reach the user long before the full completion exists.
+ *
+ * <p>Features 1, 2 and 4 depend only on their input, so their answers go through
+ * {@link AIResponseCache}: a title seen before is answered without calling the model.
+ * Only replies of the expected shape are cached, so one bad completion is not replayed.
+ * Every model call is admitted by {@link AIGateway}, which caps concurrency and sheds load.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AITaskService {
 
+    private static final String STATUS_SYSTEM_PROMPT = "You are a JSON API. You ONLY output a single valid JSON object. "
+            + "Never write any text, explanation, or markdown before or after the JSON.";
+
+    private static final Set<String> STATUSES = Set.of("TODO", "IN_PROGRESS", "DONE", "BLOCKED");
+
+    // A numbered breakdown item: "1. Design the API" or "2) Write tests"
+    private static final Pattern BREAKDOWN_ITEM = Pattern.compile("^\\s*\\d+[.)]\\s+\\S", Pattern.MULTILINE);
+
     private final ChatClient chatClient;
     private final MeterRegistry meterRegistry;
+    private final AIResponseCache responseCache;
+    private final AIGateway gateway;
+    private final ObjectMapper objectMapper;
 
     /**
      * Feature 1: Generate a professional task description from a title.
@@ -53,16 +83,41 @@ public class AITaskService {
                 "model", "llama3.2:1b",
                 "feature", "description_generator");
 
-        return timer.record((Supplier<String>) () -> {
-            String prompt = """
-                    You are a senior project management assistant.
-                    Generate a clear, concise task description (3-4 sentences) for a task titled: "%s"
-                    Cover: what needs to be done, why it matters, and Acceptance Criteria.
-                    Be professional and specific. Do not include the title in the response.
-                    """.formatted(title);
+        // Hits skip the timer, so it keeps measuring model latency only
+        String prompt = descriptionPrompt(title);
+        return responseCache.getOrGenerate("description_generator", prompt, () -> gateway.call("description_generator",
+                () -> timer.record((Supplier<String>) () -> chatClient.prompt().user(prompt).call().content())),
+                this::isDescription);
+    }
 
-            return chatClient.prompt().user(prompt).call().content();
-        });
+    /**
+     * Feature 1, streamed: emits the description token by token as the model generates it.
+     *
+     * @param title the task title provided by the user
+     * @return the description in the chunks produced by the model
+     */
+    public Flux<String> streamDescription(String title) {
+        log.info("AI streaming description for title: {}", title);
+        String prompt = descriptionPrompt(title);
+        return cachedStream("description_generator", prompt, this::isDescription,
+                () -> chatClient.prompt().user(prompt).stream().content());
+    }
+
+    // A few sentences of prose: enough words to describe a task, not a runaway reply, not JSON
+    // or a list; a refusal or an echoed title would otherwise be served for the whole TTL
+    private boolean isDescription(String reply) {
+        String text = reply.strip();
+        return text.length() >= 40 && text.length() <= 2000 && text.split("\\s+").length >= 8
+                && !text.startsWith("{") && !text.startsWith("[");
+    }
+
+    private String descriptionPrompt(String title) {
+        return """
+                You are a senior project management assistant.
+                Generate a clear, concise task description (3-4 sentences) for a task titled: "%s"
+                Cover: what needs to be done, why it matters, and Acceptance Criteria.
+                Be professional and specific. Do not include the title in the response.
+                """.formatted(title);
     }
 
     /**
@@ -87,35 +142,53 @@ public class AITaskService {
                 "model", "llama3.2:1b",
                 "feature", "status_suggester");
 
-        return timer.record((Supplier<String>) () -> {
-            String prompt = """
-                    Analyze this software task and pick the correct status.
-
-                    STATUS RULES (pick exactly one):
-                    - TODO       : No work started yet.
-                    - IN_PROGRESS: Work is actively in progress by the developer.
-                    - DONE       : Work is fully completed and verified.
-                    - BLOCKED    : Cannot proceed. Use BLOCKED if ANY of these apply:
-                                   * Developer says "not able to", "cannot proceed", "waiting for"
-                                   * Internet, network, or environment is unavailable
-                                   * Missing access, credentials, approval, or external dependency
-
-                    Title: %s
-                    Description: %s
-
-                    Fill in STATUS and REASON and respond with ONLY this JSON, nothing else:
-                    {"status": "<STATUS>", "reason": "<REASON>"}
-                    """.formatted(title, description);
-
-            String raw = chatClient.prompt()
-                    .system("You are a JSON API. You ONLY output a single valid JSON object. "
-                            + "Never write any text, explanation, or markdown before or after the JSON.")
-                    .user(prompt)
-                    .call()
-                    .content();
-
-            return extractJson(raw);
-        });
+        String prompt = """
+                Analyze this software task and pick the correct status.
+
+                STATUS RULES (pick exactly one):
+                - TODO       : No work started yet.
+                - IN_PROGRESS: Work is actively in progress by the developer.
+                - DONE       : Work is fully completed and verified.
+                - BLOCKED    : Cannot proceed. Use BLOCKED if ANY of these apply:
+                               * Developer says "not able to", "cannot proceed", "waiting for"
+                               * Internet, network, or environment is unavailable
+                               * Missing access, credentials, approval, or external dependency
+
+                Title: %s
+                Description: %s
+
+                Fill in STATUS and REASON and respond with ONLY this JSON, nothing else:
+                {"status": "<STATUS>", "reason": "<REASON>"}
+                """.formatted(title, description);
+
+        // The cleaned-up JSON is cached, so a hit needs no post-processing either
+        String cachePrompt = STATUS_SYSTEM_PROMPT + "\n\n" + prompt;
+        Optional<String> cached = responseCache.find("status_suggester", cachePrompt);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        String raw = gateway.call("status_suggester", () -> timer.record((Supplier<String>) () -> chatClient.prompt()
+                .system(STATUS_SYSTEM_PROMPT)
+                .user(prompt)
+                .call()
+                .content()));
+        String json = extractJson(raw);
+        // A blank reply (fallback JSON) or prose would otherwise be served for the whole TTL
+        if (raw != null && !raw.isBlank() && isStatusJson(json)) {
+            responseCache.put("status_suggester", cachePrompt, json);
+        }
+        return json;
+    }
+
+    // A JSON object with one of the valid statuses and a reason
+    private boolean isStatusJson(String json) {
+        try {
+            JsonNode node = objectMapper.readTree(json);
+            return node.isObject() && STATUSES.contains(node.path("status").asText())
+                    && node.path("reason").isTextual();
+        } catch (JsonProcessingException e) {
+            return false;
+        }
     }
 
     /**
@@ -144,27 +217,44 @@ public class AITaskService {
                 "model", "llama3.2:1b",
                 "feature", "task_summarizer");
 
-        return timer.record((Supplier<String>) () -> {
-            String taskList = tasks.stream()
-                    .map(t -> "- [%s] %s: %s".formatted(t.getStatus(), t.getTitle(), t.getDescription()))
-                    .collect(Collectors.joining("\n"));
+        return gateway.call("task_summarizer", () -> timer.record((Supplier<String>) () ->
+                chatClient.prompt().user(summaryPrompt(tasks)).call().content()));
+    }
 
-            String prompt = """
-                    You are a senior project manager. Analyze the following task list and provide:
-                    1. Overall project health (1-2 sentences)
-                    2. Completed work summary
-                    3. Work in progress
-                    4. Potential blockers or risks
-                    5. Recommended next actions
+    /**
+     * Feature 3, streamed: emits the executive summary as the model generates it.
+     *
+     * @param tasks list of all tasks retrieved from the database
+     * @return the summary in the chunks produced by the model
+     */
+    public Flux<String> streamSummary(List<GetTaskResponse> tasks) {
+        log.info("AI streaming summary of {} tasks", tasks.size());
 
-                    Tasks:
-                    %s
+        if (tasks.isEmpty()) {
+            return Flux.just("No tasks found in the system.");
+        }
+        return timedStream("task_summarizer",
+                () -> chatClient.prompt().user(summaryPrompt(tasks)).stream().content());
+    }
 
-                    Be concise and professional.
-                    """.formatted(taskList);
+    private String summaryPrompt(List<GetTaskResponse> tasks) {
+        String taskList = tasks.stream()
+                .map(t -> "- [%s] %s: %s".formatted(t.getStatus(), t.getTitle(), t.getDescription()))
+                .collect(Collectors.joining("\n"));
 
-            return chatClient.prompt().user(prompt).call().content();
-        });
+        return """
+                You are a senior project manager. Analyze the following task list and provide:
+                1. Overall project health (1-2 sentences)
+                2. Completed work summary
+                3. Work in progress
+                4. Potential blockers or risks
+                5. Recommended next actions
+
+                Tasks:
+                %s
+
+                Be concise and professional.
+                """.formatted(taskList);
     }
 
     /**
@@ -187,21 +277,44 @@ public class AITaskService {
                 "model", "llama3.2:1b",
                 "feature", "task_breakdown");
 
-        return timer.record((Supplier<String>) () -> {
-            String prompt = """
-                    You are a senior software engineer and scrum master.
-                    Break down this task into 5-7 specific, actionable subtasks.
-                    Each subtask must be independently completable in 1-2 hours.
-                    Each subtask should have a clear action verb and specific deliverable.
+        String prompt = breakdownPrompt(title, description);
+        return responseCache.getOrGenerate("task_breakdown", prompt, () -> gateway.call("task_breakdown",
+                () -> timer.record((Supplier<String>) () -> chatClient.prompt().user(prompt).call().content())),
+                this::isBreakdown);
+    }
 
-                    Task Title: %s
-                    Task Description: %s
+    /**
+     * Feature 4, streamed: emits the numbered subtask list as the model generates it.
+     *
+     * @param title       the complex task title
+     * @param description the full task description
+     * @return the subtask list in the chunks produced by the model
+     */
+    public Flux<String> streamBreakdown(String title, String description) {
+        log.info("AI streaming breakdown of task: {}", title);
+        String prompt = breakdownPrompt(title, description);
+        return cachedStream("task_breakdown", prompt, this::isBreakdown,
+                () -> chatClient.prompt().user(prompt).stream().content());
+    }
 
-                    Format your response as a numbered list only. No introduction or conclusion text.
-                    """.formatted(title, description);
+    // The numbered list the prompt asks for: 5-7 items, with some slack for small models
+    private boolean isBreakdown(String reply) {
+        long items = BREAKDOWN_ITEM.matcher(reply).results().count();
+        return items >= 3 && items <= 10;
+    }
 
-            return chatClient.prompt().user(prompt).call().content();
-        });
+    private String breakdownPrompt(String title, String description) {
+        return """
+                You are a senior software engineer and scrum master.
+                Break down this task into 5-7 specific, actionable subtasks.
+                Each subtask must be independently completable in 1-2 hours.
+                Each subtask should have a clear action verb and specific deliverable.
+
+                Task Title: %s
+                Task Description: %s
+
+                Format your response as a numbered list only. No introduction or conclusion text.
+                """.formatted(title, description);
     }
 
     /**
@@ -226,30 +339,89 @@ public class AITaskService {
                 "model", "llama3.2:1b",
                 "feature", "conversational_chatbot");
 
-        return timer.record((Supplier<ChatResponse>) () -> {
-            String context = tasks.stream()
-                    .map(t -> "ID:%d | Status:%s | Title:%s | Description:%s"
-                            .formatted(t.getId(), t.getStatus(), t.getTitle(), t.getDescription()))
-                    .collect(Collectors.joining("\n"));
-
-            String prompt = """
-                    You are a helpful task management assistant. You have access to the following task data.
-                    Answer the user's question using ONLY the data provided below.
-                    If the answer is not in the data, say "I don't have enough information to answer that."
-                    Be concise, friendly, and professional.
-
-                    === CURRENT TASK DATA ===
-                    %s
-                    ========================
-
-                    User Question: %s
-                    """.formatted(context, userMessage);
-
-            String reply = chatClient.prompt().user(prompt).call().content();
+        return gateway.call("conversational_chatbot", () -> timer.record((Supplier<ChatResponse>) () -> {
+            String reply = chatClient.prompt().user(chatPrompt(userMessage, tasks)).call().content();
             return ChatResponse.builder()
                     .reply(reply)
                     .tasksAnalyzed(tasks.size())
                     .build();
+        }));
+    }
+
+    /**
+     * Feature 5, streamed: emits the reply as the model generates it. The caller already
+     * knows how many tasks were injected, so only the reply text is streamed.
+     *
+     * @param userMessage the natural-language question from the user
+     * @param tasks       all current tasks fetched from the database
+     * @return the reply in the chunks produced by the model
+     */
+    public Flux<String> streamChat(String userMessage, List<GetTaskResponse> tasks) {
+        log.info("AI streaming chat reply for message: {}", userMessage);
+        return timedStream("conversational_chatbot",
+                () -> chatClient.prompt().user(chatPrompt(userMessage, tasks)).stream().content());
+    }
+
+    private String chatPrompt(String userMessage, List<GetTaskResponse> tasks) {
+        String context = tasks.stream()
+                .map(t -> "ID:%d | Status:%s | Title:%s | Description:%s"
+                        .formatted(t.getId(), t.getStatus(), t.getTitle(), t.getDescription()))
+                .collect(Collectors.joining("\n"));
+
+        return """
+                You are a helpful task management assistant. You have access to the following task data.
+                Answer the user's question using ONLY the data provided below.
+                If the answer is not in the data, say "I don't have enough information to answer that."
+                Be concise, friendly, and professional.
+
+                === CURRENT TASK DATA ===
+                %s
+                ========================
+
+                User Question: %s
+                """.formatted(context, userMessage);
+    }
+
+    /**
+     * {@link #timedStream} behind the response cache: a hit is emitted as a single chunk, and
+     * a stream that completes normally is cached whole if {@code cacheable} accepts it.
+     * Cancelled or failed streams are not.
+     */
+    private Flux<String> cachedStream(String feature, String prompt, Predicate<String> cacheable,
+                                      Supplier<Flux<String>> stream) {
+        Optional<String> cached = responseCache.find(feature, prompt);
+        if (cached.isPresent()) {
+            return Flux.just(cached.get());
+        }
+        StringBuilder reply = new StringBuilder();
+        return timedStream(feature, stream)
+                .doOnNext(reply::append)
+                .doOnComplete(() -> {
+                    if (cacheable.test(reply.toString())) {
+                        responseCache.put(feature, prompt, reply.toString());
+                    }
+                });
+    }
+
+    /**
+     * Admits the call through {@link AIGateway} right away (so shedding is a plain 429/503),
+     * defers the model call until the client subscribes, and records two timers per stream:
+     * {@code ai.task.stream.first_token} (what the user waits for before text appears) and
+     * {@code ai.task.stream.duration} (until the model finishes, fails or the client leaves).
+     */
+    private Flux<String> timedStream(String feature, Supplier<Flux<String>> stream) {
+        Timer firstToken = meterRegistry.timer("ai.task.stream.first_token", "model", "llama3.2:1b", "feature", feature);
+        Timer duration = meterRegistry.timer("ai.task.stream.duration", "model", "llama3.2:1b", "feature", feature);
+        return gateway.stream(feature, () -> {
+            Timer.Sample sample = Timer.start();
+            AtomicBoolean first = new AtomicBoolean(true);
+            return stream.get()
+                    .doOnNext(token -> {
+                        if (first.compareAndSet(true, false)) {
+                            sample.stop(firstToken);
+                        }
+                    })
+                    .doFinally(signal -> sample.stop(duration));
         });
     }
 
@@ -0,0 +1,107 @@
+package com.taskmanager.ai.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Splits extracted document text into chunks that fit the model's context window.
+ *
+ * <p>Pages and paragraphs are separated by blank lines (pages are joined that way by
+ * {@link DocumentTaskImportService#extractText}), so chunks are cut at section boundaries. A
+ * section larger than the budget is cut at line breaks, then at spaces. Each chunk repeats the
+ * trailing sections of the previous one, up to {@code overlapTokens}, so a task that straddles
+ * a boundary is seen whole by at least one chunk.
+ *
+ * <p>Tokens are estimated at {@value #CHARS_PER_TOKEN} characters each, which is close for
+ * English text with the Llama 3 tokenizer and errs on the side of smaller chunks.
+ */
+final class DocumentChunker {
+
+    static final int CHARS_PER_TOKEN = 4;
+
+    private static final String SECTION_SEPARATOR = "\n\n";
+
+    private DocumentChunker() {
+    }
+
+    static List<String> split(String text, int chunkTokens, int overlapTokens) {
+        if (chunkTokens <= 0) {
+            throw new IllegalArgumentException("chunkTokens must be positive, was " + chunkTokens);
+        }
+        List<String> sections = Arrays.stream(text.split("\\n\\s*\\n"))
+                .map(String::strip)
+                .filter(section -> !section.isEmpty())
+                .flatMap(section -> fit(section, chunkTokens).stream())
+                .toList();
+
+        List<String> chunks = new ArrayList<>();
+        Deque<String> current = new ArrayDeque<>();
+        int tokens = 0;
+        for (String section : sections) {
+            int sectionTokens = estimateTokens(section);
+            if (!current.isEmpty() && tokens + sectionTokens > chunkTokens) {
+                chunks.add(String.join(SECTION_SEPARATOR, current));
+                current = overlap(current, overlapTokens);
+                tokens = current.stream().mapToInt(DocumentChunker::estimateTokens).sum();
+                // Drop overlap rather than exceed the budget
+                while (!current.isEmpty() && tokens + sectionTokens > chunkTokens) {
+                    tokens -= estimateTokens(current.removeFirst());
+                }
+            }
+            current.addLast(section);
+            tokens += sectionTokens;
+        }
+        if (!current.isEmpty()) {
+            chunks.add(String.join(SECTION_SEPARATOR, current));
+        }
+        return chunks;
+    }
+
+    static int estimateTokens(String text) {
+        return (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+
+    // Trailing sections of the flushed chunk, up to overlapTokens
+    private static Deque<String> overlap(Deque<String> flushed, int overlapTokens) {
+        Deque<String> overlap = new ArrayDeque<>();
+        int tokens = 0;
+        for (Iterator<String> sections = flushed.descendingIterator(); sections.hasNext(); ) {
+            String section = sections.next();
+            tokens += estimateTokens(section);
+            if (tokens > overlapTokens) {
+                break;
+            }
+            overlap.addFirst(section);
+        }
+        return overlap;
+    }
+
+    // Cuts a section larger than the budget at line breaks, then spaces, then anywhere
+    private static List<String> fit(String section, int maxTokens) {
+        int maxChars = maxTokens * CHARS_PER_TOKEN;
+        List<String> pieces = new ArrayList<>();
+        String rest = section;
+        while (rest.length() > maxChars) {
+            int cut = rest.lastIndexOf('\n', maxChars);
+            if (cut <= 0) {
+                cut = rest.lastIndexOf(' ', maxChars);
+            }
+            if (cut <= 0) {
+                cut = maxChars;
+            }
+            String piece = rest.substring(0, cut).strip();
+            if (!piece.isEmpty()) {
+                pieces.add(piece);
+            }
+            rest = rest.substring(cut).strip();
+        }
+        if (!rest.isEmpty()) {
+            pieces.add(rest);
+        }
+        return pieces;
+    }
+}
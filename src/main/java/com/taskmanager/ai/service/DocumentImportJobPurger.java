@@ -0,0 +1,31 @@
+package com.taskmanager.ai.service;
+
+import com.taskmanager.domain.repository.DocumentImportJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes finished document import jobs once clients have had {@code ai.import.retention-days}
+ * to read their result. The uploaded bytes are already dropped when a job finishes.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentImportJobPurger {
+
+    private final DocumentImportJobRepository repository;
+
+    @Value("${ai.import.retention-days:7}")
+    private int retentionDays;
+
+    @Scheduled(cron = "${ai.import.purge-cron:0 50 3 * * *}")
+    public void purgeFinishedJobs() {
+        int purged = repository.purgeFinishedBefore(LocalDateTime.now().minusDays(retentionDays));
+        log.info("Purged {} document import jobs finished more than {} days ago", purged, retentionDays);
+    }
+}
@@ -0,0 +1,259 @@
+package com.taskmanager.ai.service;
+
+import com.taskmanager.ai.dto.ImportJobResponse;
+import com.taskmanager.domain.model.DocumentImportJob;
+import com.taskmanager.domain.repository.DocumentImportJobRepository;
+import com.taskmanager.exception.NotFound;
+import com.taskmanager.exception.ServiceUnavailable;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous document import: {@link #submit} stores the upload in {@code document_import_jobs}
+ * (migration V12) and returns at once; a pool of {@code ai.import.workers} threads runs
+ * {@link DocumentTaskImportService} for each job and records the created task IDs.
+ *
+ * <p>Reading the document and the model call take seconds to minutes and run without a database
+ * connection; one is only held for the job status updates and the final {@code saveAll}.
+ *
+ * <p>Jobs are claimed with a conditional {@code UPDATE}, so a job runs once even when several
+ * replicas poll the same table. Workers take a background admission from {@link AIGateway}:
+ * they wait for a model slot rather than count against the submitter's per-user limit. A job
+ * whose worker was interrupted before saving (shutdown) goes back to the queue, at most
+ * {@code ai.import.max-attempts} times in all.
+ *
+ * <p>Each poll renews the lease ({@code heartbeat_date}) of the jobs running in this pod. A
+ * {@code RUNNING} job whose lease is older than {@code ai.import.stale-after-minutes} lost its
+ * worker (pod restart) and is failed rather than re-run, so its tasks can never be saved twice.
+ * The worker renews the lease again right before saving and only finishes a job that is still
+ * {@code RUNNING}, so a job failed as stale is never saved or turned back into a success.
+ *
+ * <p>Metrics: gauge {@code ai.import.jobs.queued} (jobs waiting for a worker in this pod) and
+ * timer {@code ai.import.job.duration} tagged {@code outcome=succeeded|failed|requeued}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentImportJobService {
+
+    private static final String STALE_ERROR = "Import was interrupted, please submit the document again";
+
+    private final DocumentImportJobRepository repository;
+    private final DocumentTaskImportService documentTaskImportService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ai.import.workers:2}")
+    private int workers;
+
+    @Value("${ai.import.stale-after-minutes:5}")
+    private int staleAfterMinutes;
+
+    // Runs of one job, counted at claim time, before a requeue fails it instead
+    @Value("${ai.import.max-attempts:3}")
+    private int maxAttempts;
+
+    private ThreadPoolExecutor executor;
+
+    // Jobs claimed by this pod's workers, whose leases the poll renews
+    private final Set<UUID> running = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    private void init() {
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                Thread.ofVirtual().name("document-import-", 0).factory());
+        Gauge.builder("ai.import.jobs.queued", executor, pool -> pool.getQueue().size())
+                .description("Document import jobs waiting for a worker in this pod")
+                .register(meterRegistry);
+        log.debug("Document import workers initialized (workers={}, staleAfterMinutes={}, maxAttempts={})",
+                workers, staleAfterMinutes, maxAttempts);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Queued jobs stay QUEUED in the table and are picked up by the next pod
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues an import of {@code file} on behalf of the authenticated user.
+     *
+     * @return the id of the new job
+     * @throws IOException if the upload cannot be read
+     */
+    public UUID submit(MultipartFile file) throws IOException {
+        DocumentImportJob job = repository.save(DocumentImportJob.builder()
+                .id(UUID.randomUUID())
+                .status(DocumentImportJob.Status.QUEUED)
+                .filename(file.getOriginalFilename())
+                .contentType(file.getContentType())
+                .document(file.getBytes())
+                .submittedBy(currentUser())
+                .createdDate(LocalDateTime.now())
+                .build());
+        log.info("Queued document import job {} for '{}' ({} bytes)",
+                job.getId(), job.getFilename(), file.getSize());
+        dispatch(job.getId());
+        return job.getId();
+    }
+
+    public ImportJobResponse getJob(UUID id) {
+        return repository.findStatusById(id)
+                .map(DocumentImportJobService::toResponse)
+                .orElseThrow(() -> new NotFound("Import job not found: " + id));
+    }
+
+    /**
+     * Picks up jobs no worker is running: those left queued by a restarted pod, requeued after
+     * an interrupted run, or submitted to a replica whose pool is busy. Also renews the leases
+     * of this pod's running jobs and fails jobs whose worker died.
+     */
+    @Scheduled(fixedDelayString = "${ai.import.poll-interval-ms:10000}")
+    public void pollQueuedJobs() {
+        if (!running.isEmpty()) {
+            repository.heartbeat(Set.copyOf(running));
+        }
+        int stale = repository.failStale(staleAfterMinutes, STALE_ERROR, LocalDateTime.now());
+        if (stale > 0) {
+            log.warn("Failed {} document import jobs without a heartbeat for {} minutes", stale, staleAfterMinutes);
+        }
+        // Only take more work when this pod has idle workers
+        int idle = workers - executor.getActiveCount() - executor.getQueue().size();
+        if (idle > 0) {
+            repository.findQueuedIds(idle).forEach(this::dispatch);
+        }
+    }
+
+    private void dispatch(UUID id) {
+        try {
+            executor.execute(() -> process(id));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the job stays QUEUED for another pod
+            log.debug("Document import job {} left queued: {}", id, e.getMessage());
+        }
+    }
+
+    void process(UUID id) {
+        if (repository.claim(id, LocalDateTime.now()) == 0) {
+            return; // Claimed by another worker or replica
+        }
+        running.add(id);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failed";
+        try {
+            DocumentImportJob job = repository.findById(id)
+                    .orElseThrow(() -> new NotFound("Import job not found: " + id));
+            // Run as the submitter, so the tasks are audited as theirs
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(job.getSubmittedBy(), null, List.of()));
+            SecurityContextHolder.setContext(context);
+
+            DocumentTaskImportService.ImportResult result = documentTaskImportService.importTasksFromDocument(
+                    new ByteArrayResource(job.getDocument()), job.getFilename(), job.getContentType(),
+                    () -> renewLeaseBeforeSave(id));
+            String taskIds = result.taskIds().stream().map(String::valueOf).collect(Collectors.joining(","));
+            if (uninterrupted(() -> repository.markSucceeded(id, taskIds,
+                    String.join("\n", result.skippedTitles()), LocalDateTime.now())) == 0) {
+                log.warn("Document import job {} was failed elsewhere after saving tasks {}", id, result.taskIds());
+                return;
+            }
+            outcome = "succeeded";
+            log.info("Document import job {} created {} tasks, skipped {} existing titles",
+                    id, result.taskIds().size(), result.skippedTitles().size());
+        } catch (ServiceUnavailable | InterruptedException e) {
+            // Gave up waiting for the model (shutdown) before anything was saved; retried on a
+            // later poll unless it already ran max-attempts times
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            if (uninterrupted(() -> repository.requeue(id, maxAttempts)) > 0) {
+                outcome = "requeued";
+                log.info("Document import job {} requeued: {}", id, e.getMessage());
+            } else {
+                uninterrupted(() -> repository.markFailed(id, "The AI service stayed unavailable after " + maxAttempts
+                        + " attempts, please submit the document again", LocalDateTime.now()));
+                log.warn("Document import job {} failed after {} attempts: {}", id, maxAttempts, e.getMessage());
+            }
+        } catch (Exception e) {
+            log.error("Document import job {} failed: {}", id, e.getMessage(), e);
+            uninterrupted(() -> repository.markFailed(id,
+                    e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), LocalDateTime.now()));
+        } finally {
+            running.remove(id);
+            SecurityContextHolder.clearContext();
+            sample.stop(meterRegistry.timer("ai.import.job.duration", "outcome", outcome));
+        }
+    }
+
+    // shutdownNow() interrupts the worker, and JDBC on a virtual thread whose interrupt flag is
+    // set can fail to get a connection or talk to the socket. The final status write runs with
+    // the flag cleared, so the job does not stay RUNNING until the stale sweep; it is restored after
+    private static int uninterrupted(IntSupplier write) {
+        boolean interrupted = Thread.interrupted();
+        try {
+            return write.getAsInt();
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // A fresh lease covers the save by stale-after-minutes; a job already failed as stale must
+    // not create its tasks now that its client was told to submit the document again
+    private void renewLeaseBeforeSave(UUID id) {
+        if (repository.heartbeat(List.of(id)) == 0) {
+            throw new IllegalStateException("Import job " + id + " is no longer running");
+        }
+    }
+
+    private static ImportJobResponse toResponse(DocumentImportJobRepository.StatusView job) {
+        List<Long> taskIds = job.getTaskIds() == null || job.getTaskIds().isBlank() ? List.of()
+                : Arrays.stream(job.getTaskIds().split(",")).map(Long::valueOf).toList();
+        return ImportJobResponse.builder()
+                .jobId(job.getId())
+                .status(job.getStatus().name())
+                .filename(job.getFilename())
+                .taskIds(taskIds)
+                .skippedTitles(job.getSkippedTitles() == null || job.getSkippedTitles().isEmpty() ? List.of()
+                        : List.of(job.getSkippedTitles().split("\n")))
+                .error(job.getError())
+                .submittedDate(job.getCreatedDate())
+                .startedDate(job.getStartedDate())
+                .finishedDate(job.getFinishedDate())
+                .build();
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+}
@@ -2,21 +2,35 @@ package com.taskmanager.ai.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.api.dto.GetTaskResponse;
 import com.taskmanager.api.dto.SaveTaskRequest;
 import com.taskmanager.domain.model.Tasks;
 import com.taskmanager.domain.repository.TaskRepository;
+import com.taskmanager.exception.BadRequest;
+import com.taskmanager.service.TaskCache;
+import com.taskmanager.service.TaskEventPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.document.Document;
 import org.springframework.ai.reader.pdf.PagePdfDocumentReader;
 import org.springframework.ai.reader.tika.TikaDocumentReader;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
@@ -30,12 +44,18 @@ import java.util.stream.Collectors;
  * Spring AI DocumentReader   ← PagePdfDocumentReader / TikaDocumentReader
  *      │  (extracts plain text)
  *      ▼
- * Ollama Llama 3.2:1b        ← Structured JSON extraction prompt
+ * DocumentChunker            ← Page/section chunks that fit the context window, with overlap
+ *      │
+ *      ▼
+ * Ollama Llama 3.2:1b        ← Structured JSON extraction prompt, one call per chunk in parallel
  *      │  (returns JSON task list)
  *      ▼
  * Jackson JSON Parser        ← Deserialise into List&lt;SaveTaskRequest&gt;
  *      │
  *      ▼
+ * Merge by normalised title  ← Drops tasks repeated by overlapping chunks
+ *      │
+ *      ▼
  * TaskRepository.saveAll()   ← Regular PostgreSQL
  *      │
  *      ▼
@@ -56,28 +76,199 @@ import java.util.stream.Collectors;
 @Slf4j
 public class DocumentTaskImportService {
 
+    // An insert that loses a title race is retried once without the raced titles
+    private static final int MAX_SAVE_ATTEMPTS = 2;
+
     private final ChatClient chatClient;
     private final TaskRepository taskRepository;
     private final ObjectMapper objectMapper;
+    private final TaskCache taskCache;
+    private final TaskEventPublisher taskEventPublisher;
+    private final AIGateway gateway;
+
+    /**
+     * Outcome of an import.
+     *
+     * @param taskIds       database IDs of the saved tasks
+     * @param skippedTitles extracted titles not saved because a task with that title already exists,
+     *                      including titles created by another request while the import ran
+     */
+    public record ImportResult(List<Long> taskIds, List<String> skippedTitles) {
+    }
+
+    // Document text per model call; llama3.2:1b runs with a 2048-token context by default and
+    // the instructions below take about 700 of it, leaving room for the JSON answer
+    @Value("${ai.import.chunk-tokens:800}")
+    private int chunkTokens;
+
+    // Text repeated from the end of the previous chunk
+    @Value("${ai.import.chunk-overlap-tokens:100}")
+    private int chunkOverlapTokens;
+
+    // Chunks of one document extracted at once; together they take one ai.gateway.per-user-limit slot
+    @Value("${ai.import.chunk-concurrency:2}")
+    private int chunkConcurrency;
 
     /**
      * Extracts tasks from an uploaded PDF or Word document and persists them to PostgreSQL.
      *
      * @param file uploaded PDF or Word (.docx) file
-     * @return list of database IDs of the saved tasks
+     * @return IDs of the saved tasks and the titles skipped because they already exist
      * @throws Exception if document reading or JSON parsing fails
      */
-    @Transactional
-    public List<Long> importTasksFromDocument(MultipartFile file) throws Exception {
+    public ImportResult importTasksFromDocument(MultipartFile file) throws Exception {
         log.info("Importing tasks from document: {} ({})",
                 file.getOriginalFilename(), file.getContentType());
+        return importTasks(extractText(file), false, () -> { });
+    }
 
-        // Step 1 — Extract plain text from the uploaded document
-        String rawText = extractText(file);
+    /**
+     * Same as {@link #importTasksFromDocument(MultipartFile)} for a document that is no longer
+     * an upload, e.g. the bytes of a queued {@code DocumentImportJob}. Runs as background work:
+     * the model calls wait for the AI gateway instead of being shed by the per-user limit.
+     *
+     * @param document    the document content
+     * @param filename    original file name, used to pick the reader
+     * @param contentType original content type, used to pick the reader
+     * @param beforeSave  runs right before the tasks are saved; throwing aborts the import
+     * @return IDs of the saved tasks and the titles skipped because they already exist
+     * @throws Exception if document reading or JSON parsing fails
+     */
+    public ImportResult importTasksFromDocument(Resource document, String filename, String contentType,
+                                                Runnable beforeSave) throws Exception {
+        log.info("Importing tasks from document: {} ({})", filename, contentType);
+        return importTasks(extractText(document, filename, contentType), true, beforeSave);
+    }
+
+    // Not @Transactional: reading the document and the model call take seconds to minutes and
+    // must not pin a pooled connection; saveAll opens its own short transaction for the insert
+    private ImportResult importTasks(String rawText, boolean background, Runnable beforeSave) throws Exception {
+        // Step 1 — Plain text has already been extracted from the document
         log.debug("Extracted {} characters from document", rawText.length());
 
-        // Step 2 — Ask Ollama to extract tasks as structured JSON
-        //
+        // Step 2 — Split it into chunks that fit the model's context window
+        List<String> chunks = DocumentChunker.split(rawText, chunkTokens, chunkOverlapTokens);
+        log.info("Split document into {} chunk(s) of at most {} tokens", chunks.size(), chunkTokens);
+
+        // Step 3 — Extract tasks from every chunk; overlapping chunks repeat tasks, so merge by title.
+        //   The chunk calls are admitted as one, so a long document cannot be shed by the
+        //   per-user limit halfway through
+        List<SaveTaskRequest> extractedTasks;
+        try (AIGateway.Admission admission = background
+                ? gateway.admitBackground("document_import") : gateway.admit("document_import")) {
+            extractedTasks = deduplicate(extractAll(chunks, admission));
+        }
+        log.info("LLM extracted {} tasks from document", extractedTasks.size());
+
+        // Step 4 — Persist each extracted task to PostgreSQL
+        //   Three code-level safety nets run here, independent of prompt compliance:
+        //   • stripLeadingTags(title)       — removes "<Task 1>" / "<Task N>" prefix the LLM
+        //                                     often prepends to the real title value
+        //   • stripLeadingTags(description) — removes "<Acceptance Criteria>" and similar
+        //                                     sub-section labels the LLM includes verbatim
+        //   • normalizeStatus(status)       — maps "To Do", "In Progress", "complete", etc.
+        //                                     to the four canonical values
+        List<Tasks> tasksToSave = extractedTasks.stream()
+                .map(req -> Tasks.builder()
+                        .title(stripLeadingTags(req.getTitle()))
+                        .description(stripLeadingTags(req.getDescription()))
+                        .status(normalizeStatus(req.getStatus()))
+                        .build())
+                .toList();
+
+        // Titles are unique (ux_tasks_title): skip tasks that already exist rather than fail the
+        // whole import on the index, the same way batch creation reports DUPLICATE_TITLE
+        Set<String> existingTitles = existingTitles(tasksToSave);
+        List<String> skippedTitles = tasksToSave.stream().map(Tasks::getTitle).filter(existingTitles::contains)
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (!skippedTitles.isEmpty()) {
+            log.info("Skipping {} tasks whose titles already exist: {}", skippedTitles.size(), skippedTitles);
+            tasksToSave = tasksToSave.stream().filter(task -> !existingTitles.contains(task.getTitle())).toList();
+        }
+
+        List<Tasks> saved = null;
+        for (int attempt = 1; saved == null; attempt++) {
+            beforeSave.run();
+            try {
+                saved = taskRepository.saveAll(tasksToSave);
+            } catch (DataIntegrityViolationException e) {
+                // A task with one of these titles was created between the check and the insert:
+                // skip those like any other existing title and insert the rest once more, rather
+                // than throw away every chunk's output
+                Set<String> raced = existingTitles(tasksToSave);
+                if (raced.isEmpty()) {
+                    throw e;
+                }
+                if (attempt >= MAX_SAVE_ATTEMPTS) {
+                    log.warn("Import lost a title race {} times, giving up", attempt);
+                    throw new BadRequest("Titles in the document were created concurrently, please retry");
+                }
+                log.warn("Skipping {} tasks whose titles were created during the import: {}", raced.size(), raced);
+                skippedTitles.addAll(raced);
+                // The failed insert may have assigned ids; retry with fresh, unsaved entities
+                tasksToSave = tasksToSave.stream()
+                        .filter(task -> !raced.contains(task.getTitle()))
+                        .map(task -> Tasks.builder().title(task.getTitle())
+                                .description(task.getDescription()).status(task.getStatus()).build())
+                        .toList();
+            }
+        }
+        // Write-through so freshly imported tasks are served from the cache on first read
+        saved.forEach(task -> {
+            GetTaskResponse created = GetTaskResponse.builder()
+                    .id(task.getTaskId()).title(task.getTitle())
+                    .description(task.getDescription()).status(task.getStatus())
+                    .version(task.getVersion())
+                    .build();
+            taskCache.put(created);
+            taskEventPublisher.publishCreated(created);
+        });
+        List<Long> savedIds = saved.stream().map(Tasks::getTaskId).toList();
+        log.info("Saved {} tasks from document. IDs: {}", savedIds.size(), savedIds);
+        return new ImportResult(savedIds, skippedTitles);
+    }
+
+    private Set<String> existingTitles(List<Tasks> tasks) {
+        Set<String> titles = tasks.stream().map(Tasks::getTitle).filter(Objects::nonNull).collect(Collectors.toSet());
+        if (titles.isEmpty()) {
+            return Set.of();
+        }
+        return taskRepository.findByTitleIn(titles).stream().map(Tasks::getTitle).collect(Collectors.toSet());
+    }
+
+    /**
+     * Runs {@link #extractChunk} for every chunk, at most {@code ai.import.chunk-concurrency} at a
+     * time, and returns the tasks in document order. A single chunk runs on the caller's thread.
+     * If any chunk fails the import fails, rather than silently saving part of the document.
+     */
+    private List<SaveTaskRequest> extractAll(List<String> chunks, AIGateway.Admission admission) throws Exception {
+        if (chunks.size() <= 1) {
+            return chunks.isEmpty() ? List.of() : extractChunk(chunks.getFirst(), admission);
+        }
+        try (ExecutorService pool = Executors.newFixedThreadPool(Math.min(chunkConcurrency, chunks.size()),
+                Thread.ofVirtual().name("document-chunk-", 0).factory())) {
+            List<Future<List<SaveTaskRequest>>> results = new ArrayList<>();
+            for (String chunk : chunks) {
+                results.add(pool.submit(() -> extractChunk(chunk, admission)));
+            }
+            List<SaveTaskRequest> tasks = new ArrayList<>();
+            for (Future<List<SaveTaskRequest>> result : results) {
+                try {
+                    tasks.addAll(result.get());
+                } catch (ExecutionException e) {
+                    results.forEach(other -> other.cancel(true));
+                    if (e.getCause() instanceof Exception cause) {
+                        throw cause;
+                    }
+                    throw e;
+                }
+            }
+            return tasks;
+        }
+    }
+
+    /** Asks Ollama to extract the tasks of one chunk as structured JSON. */
+    private List<SaveTaskRequest> extractChunk(String chunk, AIGateway.Admission admission) throws Exception {
         // Prompt-engineering notes for Llama 3.2 1B (small model):
         //   • System prompt primes the model to never copy examples
         //   • Document text is wrapped in <document> tags so the model treats it as DATA
@@ -128,46 +319,62 @@ public class DocumentTaskImportService {
                 <document>
                 %s
                 </document>
-                """.formatted(rawText);
+                """.formatted(chunk);
 
-        String jsonResponse = chatClient.prompt()
+        String jsonResponse = admission.call(() -> chatClient.prompt()
                 .system("You are a task extraction API. You output ONLY a raw JSON array of tasks "
                         + "extracted from the user-provided document. "
                         + "You NEVER copy examples or instructions into your output. "
                         + "You NEVER add explanation text. You output ONLY the JSON array.")
                 .user(userPrompt)
                 .call()
-                .content();
+                .content());
         log.debug("LLM extracted tasks JSON: {}", jsonResponse);
 
-        // Step 3 — Safely extract the JSON array (strips any narrative prose the model adds)
+        // Safely extract the JSON array (strips any narrative prose the model adds)
         String jsonArray = extractJsonArray(jsonResponse);
 
-        // Step 4 — Deserialise JSON into SaveTaskRequest objects
-        List<SaveTaskRequest> extractedTasks = objectMapper.readValue(
-                jsonArray, new TypeReference<>() {});
-        log.info("LLM extracted {} tasks from document", extractedTasks.size());
+        // Deserialise JSON into SaveTaskRequest objects
+        return objectMapper.readValue(jsonArray, new TypeReference<>() {});
+    }
 
-        // Step 5 — Persist each extracted task to PostgreSQL
-        //   Three code-level safety nets run here, independent of prompt compliance:
-        //   • stripLeadingTags(title)       — removes "<Task 1>" / "<Task N>" prefix the LLM
-        //                                     often prepends to the real title value
-        //   • stripLeadingTags(description) — removes "<Acceptance Criteria>" and similar
-        //                                     sub-section labels the LLM includes verbatim
-        //   • normalizeStatus(status)       — maps "To Do", "In Progress", "complete", etc.
-        //                                     to the four canonical values
-        List<Tasks> tasksToSave = extractedTasks.stream()
-                .map(req -> Tasks.builder()
-                        .title(stripLeadingTags(req.getTitle()))
-                        .description(stripLeadingTags(req.getDescription()))
-                        .status(normalizeStatus(req.getStatus()))
-                        .build())
-                .toList();
+    /**
+     * Merges tasks whose titles match after {@link #normalizeTitle}: the first occurrence is
+     * kept, with the longest description seen for that title (a task cut off at the end of one
+     * chunk is usually complete in the next). Untitled tasks are kept as they are.
+     */
+    private List<SaveTaskRequest> deduplicate(List<SaveTaskRequest> tasks) {
+        Map<String, SaveTaskRequest> byTitle = new LinkedHashMap<>();
+        for (SaveTaskRequest task : tasks) {
+            String key = normalizeTitle(task.getTitle());
+            if (key.isEmpty()) {
+                key = "#" + byTitle.size();
+            }
+            SaveTaskRequest first = byTitle.putIfAbsent(key, task);
+            if (first != null && length(task.getDescription()) > length(first.getDescription())) {
+                first.setDescription(task.getDescription());
+            }
+        }
+        if (byTitle.size() < tasks.size()) {
+            log.debug("Merged {} duplicate tasks across chunks", tasks.size() - byTitle.size());
+        }
+        return new ArrayList<>(byTitle.values());
+    }
 
-        List<Tasks> saved = taskRepository.saveAll(tasksToSave);
-        List<Long> savedIds = saved.stream().map(Tasks::getTaskId).toList();
-        log.info("Saved {} tasks from document. IDs: {}", savedIds.size(), savedIds);
-        return savedIds;
+    /**
+     * Title key for deduplication: section markers stripped, lower-cased, and every run of
+     * punctuation or whitespace collapsed, so {@code "<Task 2> Fix Login-Bug."} and
+     * {@code "fix login bug"} match.
+     */
+    private String normalizeTitle(String title) {
+        if (title == null || title.isBlank()) {
+            return "";
+        }
+        return stripLeadingTags(title).toLowerCase().replaceAll("[^\\p{L}\\p{N}]+", " ").strip();
+    }
+
+    private static int length(String text) {
+        return text != null ? text.length() : 0;
     }
 
     /**
@@ -181,9 +388,21 @@ public class DocumentTaskImportService {
      * @throws Exception if the document cannot be read
      */
     protected String extractText(MultipartFile file) throws Exception {
-        Resource resource  = file.getResource();
-        String contentType = file.getContentType() != null ? file.getContentType().toLowerCase() : "";
-        String filename    = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase() : "";
+        return extractText(file.getResource(), file.getOriginalFilename(), file.getContentType());
+    }
+
+    /**
+     * Extracts plain text from a PDF or Word document held in {@code resource}.
+     *
+     * @param resource         the document content
+     * @param originalFilename original file name (may be {@code null})
+     * @param originalType     original content type (may be {@code null})
+     * @return concatenated plain text of all document pages/sections
+     * @throws Exception if the document cannot be read
+     */
+    protected String extractText(Resource resource, String originalFilename, String originalType) throws Exception {
+        String contentType = originalType != null ? originalType.toLowerCase() : "";
+        String filename    = originalFilename != null ? originalFilename.toLowerCase() : "";
         List<Document> documents;
 
         // Route to the right reader using BOTH content-type AND file extension.
@@ -194,12 +413,12 @@ public class DocumentTaskImportService {
         if (isPdf) {
             // PagePdfDocumentReader — Spring AI native, no Tika overhead
             log.debug("Using PagePdfDocumentReader for '{}' (contentType: {})",
-                    file.getOriginalFilename(), contentType);
+                    originalFilename, contentType);
             documents = new PagePdfDocumentReader(resource).get();
         } else {
             // TikaDocumentReader — handles .docx, .doc, .xlsx, .xls, .txt, and many more
             log.debug("Using TikaDocumentReader for '{}' (contentType: {})",
-                    file.getOriginalFilename(), contentType);
+                    originalFilename, contentType);
             documents = new TikaDocumentReader(resource).get();
         }
 
@@ -1,23 +1,32 @@
 package com.taskmanager.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taskmanager.api.dto.*;
 
-import com.taskmanager.domain.model.Tasks;
 import com.taskmanager.exception.BadRequest;
 import com.taskmanager.exception.InternalServerError;
 import com.taskmanager.exception.NotFound;
+import com.taskmanager.service.TaskEventPublisher;
 import com.taskmanager.service.TaskService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -28,28 +37,43 @@ import java.util.List;
 @Tag(name = "Task Services")
 public class TaskManagementController{
 
+	/** Response header carrying the keyset cursor for the next page of {@code GET /task/}. */
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+	private static final int MAX_PAGE_LIMIT = 1000;
+
+	// Lets browsers keep authenticated task reads but revalidate them with If-None-Match every time
+	private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
 	private final TaskService taskService;
+	private final TaskEventPublisher taskEventPublisher;
+	private final ObjectMapper objectMapper;
 
 	@PreAuthorize("hasAnyRole('USER', 'ADMIN')")
 	@GetMapping(path = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<GetTaskResponse> getTask(@PathVariable("id") Integer id) {
+	public ResponseEntity<GetTaskResponse> getTask(@PathVariable("id") Integer id,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Get request received for taskId = {}", id);
 		GetTaskResponse getResponse = taskService.getTask(id);
 		if (getResponse == null) {
 			log.info("No records found for taskId = {}", id);
 			throw new NotFound("No records found for taskId = " + id);
 		}
-		return new ResponseEntity<>(getResponse, HttpStatus.OK);
+		if (getResponse.getVersion() == null) {
+			return new ResponseEntity<>(getResponse, HttpStatus.OK);
+		}
+		// Cached entries are evicted on every replica when the task changes, so the tag is current
+		String eTag = "\"" + getResponse.getId() + "-" + getResponse.getVersion() + "\"";
+		if (matchesETag(ifNoneMatch, eTag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).build();
+		}
+		return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).body(getResponse);
 	}
 
 	@PreAuthorize("hasRole('ADMIN')")
 	@PostMapping(path = "/", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
 	public ResponseEntity<String> saveTask(@Valid @RequestBody SaveTaskRequest saveRequest) {
-		Tasks tasks = taskService.findByTitle(saveRequest.getTitle());
-		if (tasks != null) {
-			log.warn("Title already exists: {}", saveRequest.getTitle());
-			throw new BadRequest("Title already exists");
-		}
+		// Title uniqueness is enforced by the database; a duplicate surfaces as BadRequest from the service
 		Long taskId = taskService.saveTask(saveRequest);
 		if (taskId == 0) {
 			log.error("Failed to saveTask {}", saveRequest.getTitle());
@@ -63,11 +87,6 @@ public class TaskManagementController{
 	@PutMapping(path = "/", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
 	public ResponseEntity<String> updateTask(@Valid @RequestBody UpdateTaskRequest updateRequest) {
 		log.info("Update request received for taskId = {}", updateRequest.getId());
-		Tasks tasks = taskService.findByTitle(updateRequest.getTitle());
-		if (tasks != null && (tasks.getTaskId().intValue() != updateRequest.getId().intValue())) {
-			log.warn("Title already exists: {}", updateRequest.getTitle());
-			throw new BadRequest("Title already exists: " + updateRequest.getTitle());
-		}
 		boolean response = taskService.updateTask(updateRequest);
 		if (response) {
 			log.info("Succesfully Updated: {}", updateRequest.getTitle());
@@ -90,15 +109,151 @@ public class TaskManagementController{
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
 	}
 
+	@PreAuthorize("hasRole('ADMIN')")
+	@PostMapping(path = "/batch", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<List<BatchItemResult>> saveTasks(@Valid @RequestBody BatchSaveTaskRequest batchRequest) {
+		log.info("Batch save request received for {} tasks", batchRequest.getTasks().size());
+		return new ResponseEntity<>(taskService.saveTasks(batchRequest.getTasks()), HttpStatus.OK);
+	}
+
+	@PreAuthorize("hasRole('ADMIN')")
+	@PutMapping(path = "/batch", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<List<BatchItemResult>> updateTasks(@Valid @RequestBody BatchUpdateTaskRequest batchRequest) {
+		log.info("Batch update request received for {} tasks", batchRequest.getTasks().size());
+		return new ResponseEntity<>(taskService.updateTasks(batchRequest.getTasks()), HttpStatus.OK);
+	}
+
+	@PreAuthorize("hasRole('ADMIN')")
+	@DeleteMapping(path = "/batch", produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<List<BatchItemResult>> deleteTasks(@Valid @RequestBody BatchDeleteTaskRequest batchRequest) {
+		log.info("Batch delete request received for {} tasks", batchRequest.getIds().size());
+		return new ResponseEntity<>(taskService.deleteTasks(batchRequest.getIds()), HttpStatus.OK);
+	}
+
 	@PreAuthorize("hasAnyRole('USER', 'ADMIN')")
 	@GetMapping(path = "/" , produces = MediaType.APPLICATION_JSON_VALUE)
-	public ResponseEntity<List<GetTaskResponse>> getAllTasks() {
-        log.info("Get all tasks request received");
-		List<GetTaskResponse> responseList = taskService.getAllTasks();
+	public ResponseEntity<List<GetTaskResponse>> getAllTasks(
+			@RequestParam(name = "limit", defaultValue = "100") int limit,
+			@RequestParam(name = "after", required = false) Long after,
+			@RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Get all tasks request received after={} limit={}", after, limit);
+		if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+			throw new BadRequest("limit must be between 1 and " + MAX_PAGE_LIMIT);
+		}
+		// Read the counter before the page: a write landing in between then yields a newer
+		// page under an older tag, which only costs the client one extra full response
+		String eTag = "\"tasks-" + taskService.getChangeCount() + "\"";
+		if (matchesETag(ifNoneMatch, eTag)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(REVALIDATE).build();
+		}
+		List<GetTaskResponse> responseList = taskService.getTasksPage(after, limit);
 		if (responseList == null || responseList.isEmpty()) {
-			log.info("No records found");
-			throw new NotFound("No records found ");
+			if (after == null) {
+				log.info("No records found");
+				throw new NotFound("No records found ");
+			}
+			// Client paged past the last row — an empty page ends the iteration
+			return ResponseEntity.ok().eTag(eTag).cacheControl(REVALIDATE).body(List.of());
+		}
+		return ResponseEntity.ok().headers(nextCursorHeaders(responseList, limit))
+				.eTag(eTag).cacheControl(REVALIDATE).body(responseList);
+	}
+
+	@PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+	@GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter subscribeToTaskEvents() {
+		log.info("Task event subscription received");
+		return taskEventPublisher.subscribe();
+	}
+
+	@PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+	@GetMapping(path = "/changes", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<TaskChangesResponse> getChanges(@RequestParam(name = "since", required = false) String since) {
+		log.info("Task changes request received since={}", since);
+		return new ResponseEntity<>(taskService.getChangesSince(blankToNull(since)), HttpStatus.OK);
+	}
+
+	@PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+	@GetMapping(path = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<List<GetTaskResponse>> searchTasks(
+			@RequestParam(name = "q", required = false) String q,
+			@RequestParam(name = "status", required = false) String status,
+			@RequestParam(name = "titlePrefix", required = false) String titlePrefix,
+			@RequestParam(name = "createdBy", required = false) String createdBy,
+			@RequestParam(name = "createdFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+			@RequestParam(name = "createdTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+			@RequestParam(name = "modifiedFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime modifiedFrom,
+			@RequestParam(name = "modifiedTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime modifiedTo,
+			@RequestParam(name = "limit", defaultValue = "100") int limit,
+			@RequestParam(name = "after", required = false) Long after) {
+		if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+			throw new BadRequest("limit must be between 1 and " + MAX_PAGE_LIMIT);
+		}
+		String query = blankToNull(q);
+		if (query != null && after != null) {
+			throw new BadRequest("after cannot be combined with q; full-text results are ordered by relevance");
+		}
+		TaskSearchCriteria criteria = TaskSearchCriteria.builder()
+				.query(query)
+				.status(blankToNull(status))
+				.titlePrefix(blankToNull(titlePrefix))
+				.createdBy(blankToNull(createdBy))
+				.createdFrom(createdFrom).createdTo(createdTo)
+				.modifiedFrom(modifiedFrom).modifiedTo(modifiedTo)
+				.build();
+		log.info("Search tasks request received {} after={} limit={}", criteria, after, limit);
+		// No matches is a normal search outcome, so an empty list is returned rather than 404
+		List<GetTaskResponse> responseList = taskService.searchTasks(criteria, after, limit);
+		if (query != null) {
+			return new ResponseEntity<>(responseList, HttpStatus.OK);
 		}
-		return new ResponseEntity<>(responseList, HttpStatus.OK);
+		return new ResponseEntity<>(responseList, nextCursorHeaders(responseList, limit), HttpStatus.OK);
+	}
+
+	@PreAuthorize("hasAnyRole('USER', 'ADMIN')")
+	@GetMapping(path = "/" , produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> streamAllTasks() {
+        log.info("Stream all tasks request received");
+		StreamingResponseBody body = outputStream -> {
+			taskService.streamAllTasks(task -> {
+				try {
+					outputStream.write(objectMapper.writeValueAsBytes(task));
+					outputStream.write('\n');
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			outputStream.flush();
+		};
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+
+	private HttpHeaders nextCursorHeaders(List<GetTaskResponse> page, int limit) {
+		HttpHeaders headers = new HttpHeaders();
+		if (page.size() == limit) {
+			headers.set(NEXT_CURSOR_HEADER, String.valueOf(page.getLast().getId()));
+		}
+		return headers;
+	}
+
+	// If-None-Match uses the weak comparison (RFC 9110 13.1.2), so W/ prefixes are ignored
+	private boolean matchesETag(String ifNoneMatch, String eTag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (String candidate : ifNoneMatch.split(",")) {
+			String tag = candidate.trim();
+			if (tag.startsWith("W/")) {
+				tag = tag.substring(2);
+			}
+			if (tag.equals("*") || tag.equals(eTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private String blankToNull(String value) {
+		return value == null || value.isBlank() ? null : value;
 	}
-}
\ No newline at end of file
+}
@@ -4,8 +4,10 @@ import com.taskmanager.api.dto.AuthenticationRequest;
 import com.taskmanager.api.dto.UserRegistrationRequest;
 import com.taskmanager.domain.model.UserInfo;
 import com.taskmanager.mapper.UserMapper;
+import com.taskmanager.security.jwt.VerifiedClaims;
 import com.taskmanager.service.JWTService;
 import com.taskmanager.service.RegistrationService;
+import com.taskmanager.service.TokenVersionService;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -36,6 +38,7 @@ public class UserServicesController {
     private final JWTService jwtService;
     private final AuthenticationManager authenticationManager;
     private final UserMapper userMapper;
+    private final TokenVersionService tokenVersionService;
 
     @PostMapping(path = "/new-registration", produces = MediaType.APPLICATION_JSON_VALUE)
     public String addNewUser(@Valid @RequestBody UserRegistrationRequest userReq) {
@@ -60,7 +63,10 @@ public class UserServicesController {
          Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(authRequest.email(), authRequest.password()));
          // If authentication is successful, use roles from database, prepare claims and generate JWT token
          Set<String> roles = authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toSet());
-         Map<String,String> claims = Map.of("role", String.join(",", roles));
+         // The principal may come from the UserDetails cache, so its token version can be stale
+         long tokenVersion = tokenVersionService.issueVersion(authRequest.email());
+         Map<String,String> claims = Map.of("role", String.join(",", roles),
+                 JWTService.TOKEN_VERSION_CLAIM, String.valueOf(tokenVersion));
          String jwtToken = jwtService.generateToken(authRequest.email(),claims);
          if(jwtToken != null){
              HttpHeaders headers = new HttpHeaders();
@@ -84,9 +90,10 @@ public class UserServicesController {
 
             String token = authorizationHeader.substring(7); // Remove "Bearer " prefix
 
-            // Extract email and role from the existing token
-            String email = jwtService.extractEmail(token);
-            String role = jwtService.extractRole(token);
+            // Parse and verify the existing token once; email and role come from the verified claims
+            VerifiedClaims verified = jwtService.verify(token)
+                    .orElseThrow(() -> new com.taskmanager.exception.Unauthorized("Invalid or expired token"));
+            String email = verified.email();
 
             // Verify the user still exists in the database
             Optional<UserInfo> optUserInfo = registrationService.findByEmail(email);
@@ -95,13 +102,15 @@ public class UserServicesController {
                 throw new com.taskmanager.exception.Unauthorized("User not found");
             }
 
-            // Validate the token
-            if (!jwtService.validateToken(email, optUserInfo.get().getEmail(), token)) {
-                throw new com.taskmanager.exception.Unauthorized("Invalid or expired token");
+            // A revoked token cannot be exchanged for a fresh one
+            long tokenVersion = optUserInfo.get().getToken_version();
+            if (verified.tokenVersion() != tokenVersion) {
+                throw new com.taskmanager.exception.Unauthorized("Token has been revoked");
             }
 
             // Generate new token with the same claims
-            Map<String, String> claims = Map.of("role", role);
+            Map<String, String> claims = Map.of("role", verified.role(),
+                    JWTService.TOKEN_VERSION_CLAIM, String.valueOf(tokenVersion));
             String newJwtToken = jwtService.generateToken(email, claims);
 
             if (newJwtToken != null) {
@@ -119,5 +128,25 @@ public class UserServicesController {
         }
     }
 
+    @PostMapping(path = "/revoke-tokens", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> revokeTokens(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorizationHeader) {
+
+        log.info("Revoke tokens request received");
+
+        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
+            throw new com.taskmanager.exception.Unauthorized("Invalid Authorization header format. Expected: Bearer <token>");
+        }
+
+        // Signs the caller out everywhere: every token issued so far, including this one, stops working
+        VerifiedClaims verified = jwtService.verify(authorizationHeader.substring(7))
+                .filter(tokenVersionService::isCurrent)
+                .orElseThrow(() -> new com.taskmanager.exception.Unauthorized("Invalid or expired token"));
+
+        if (!tokenVersionService.revokeTokens(verified.email())) {
+            throw new com.taskmanager.exception.Unauthorized("User not found");
+        }
+        return new ResponseEntity<>(verified.email(), HttpStatus.OK);
+    }
+
 
 }
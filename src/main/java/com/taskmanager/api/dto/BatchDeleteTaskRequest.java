@@ -0,0 +1,18 @@
+package com.taskmanager.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter @Setter
+public class BatchDeleteTaskRequest {
+
+  @NotEmpty(message = "Ids are mandatory")
+  @Size(max = 1000, message = "At most 1000 ids per batch")
+  private List<@NotNull(message = "TaskId is mandatory") Long> ids;
+
+}
@@ -0,0 +1,19 @@
+package com.taskmanager.api.dto;
+
+import com.taskmanager.api.enums.BatchItemStatus;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter @Builder
+public class BatchItemResult {
+
+  /** Position of the item in the request array. */
+  private int index;
+
+  private Long id;
+
+  private BatchItemStatus status;
+
+  private String message;
+
+}
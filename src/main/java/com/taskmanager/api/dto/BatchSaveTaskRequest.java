@@ -0,0 +1,18 @@
+package com.taskmanager.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter @Setter
+public class BatchSaveTaskRequest {
+
+  @NotEmpty(message = "Tasks are mandatory")
+  @Size(max = 1000, message = "At most 1000 tasks per batch")
+  private List<@Valid SaveTaskRequest> tasks;
+
+}
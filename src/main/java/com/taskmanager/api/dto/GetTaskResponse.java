@@ -1,10 +1,14 @@
 package com.taskmanager.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
-@Getter @Setter @Builder
+// Public constructors are the JPQL constructor expression targets in TaskRepository
+@Getter @Setter @Builder @NoArgsConstructor @AllArgsConstructor
 public class GetTaskResponse {
 
   private Long id;
@@ -15,5 +19,11 @@ public class GetTaskResponse {
 
   private String status;
 
- 
+  // Optimistic-lock version of the row, used for the ETag of GET /task/{id}; not part of the body
+  @JsonIgnore
+  private Long version;
+
+  public GetTaskResponse(Long id, String title, String description, String status) {
+    this(id, title, description, status, null);
+  }
 }
@@ -0,0 +1,26 @@
+package com.taskmanager.api.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter @Builder
+public class TaskChangesResponse {
+
+  /** Tasks created or updated since the client's token, in modification order. */
+  private List<GetTaskResponse> upserts;
+
+  /** Ids of tasks deleted since the client's token. */
+  private List<Long> deletes;
+
+  /** Pass back as {@code since} on the next call. */
+  private String nextToken;
+
+  /**
+   * The changes cannot be expressed as a delta (no token, expired token, or too many changes):
+   * reload the full list with {@code GET /task/}, then continue from {@code nextToken}.
+   */
+  private boolean resyncRequired;
+
+}
@@ -0,0 +1,20 @@
+package com.taskmanager.api.dto;
+
+import com.taskmanager.api.enums.TaskEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// No-args constructor: events are read back from NOTIFY payloads by TaskEventListener
+@Getter @Builder @NoArgsConstructor @AllArgsConstructor
+public class TaskEvent {
+
+  private TaskEventType type;
+
+  private Long id;
+
+  /** Task state after the change; {@code null} for {@link TaskEventType#DELETED}. */
+  private GetTaskResponse task;
+
+}
@@ -0,0 +1,22 @@
+package com.taskmanager.api.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for {@code GET /task/search}. A {@code null} field means "do not filter on it";
+ * date ranges are inclusive of {@code from} and exclusive of {@code to}. When {@code query} is set
+ * the results are full-text matches ordered by relevance instead of by id.
+ */
+@Builder
+public record TaskSearchCriteria(
+        String query,
+        String status,
+        String titlePrefix,
+        String createdBy,
+        LocalDateTime createdFrom,
+        LocalDateTime createdTo,
+        LocalDateTime modifiedFrom,
+        LocalDateTime modifiedTo
+) {}
@@ -0,0 +1,5 @@
+package com.taskmanager.api.enums;
+
+public enum BatchItemStatus {
+    CREATED, UPDATED, DELETED, DUPLICATE_TITLE, NOT_FOUND
+}
@@ -0,0 +1,5 @@
+package com.taskmanager.api.enums;
+
+public enum TaskEventType {
+    CREATED, UPDATED, DELETED
+}
@@ -0,0 +1,44 @@
+package com.taskmanager.config;
+
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.jdbc.PrimaryKeyMapper;
+import io.github.bucket4j.postgresql.Bucket4jPostgreSQL;
+import io.github.bucket4j.postgresql.PostgreSQLSelectForUpdateBasedProxyManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Cluster-wide rate limiting: with {@code rate.limit.backend=postgresql} every replica reads
+ * and writes the same bucket rows (table {@code rate_limit_buckets}, migration V10), so a
+ * user's limit no longer multiplies with the pod count. {@code RateLimiterService} picks up
+ * the proxy manager when it exists and otherwise keeps buckets in local memory.
+ */
+@Configuration
+@ConditionalOnProperty(name = "rate.limit.backend", havingValue = "postgresql")
+@Slf4j
+public class RateLimitConfiguration {
+
+    // Rows are kept this long after their bucket would be full again, then purged
+    @Value("${rate.limit.distributed.keep-after-refill-seconds:60}")
+    private long keepAfterRefillSeconds;
+
+    @Bean
+    public PostgreSQLSelectForUpdateBasedProxyManager<String> rateLimitProxyManager(DataSource dataSource) {
+        log.info("Rate limit buckets are shared through PostgreSQL table rate_limit_buckets");
+        return Bucket4jPostgreSQL.selectForUpdateBasedBuilder(dataSource)
+                .table("rate_limit_buckets")
+                .idColumn("id")
+                .stateColumn("state")
+                .expiresAtColumn("expires_at")
+                .primaryKeyMapper(PrimaryKeyMapper.STRING)
+                .expirationAfterWrite(ExpirationAfterWriteStrategy
+                        .basedOnTimeForRefillingBucketUpToMax(Duration.ofSeconds(keepAfterRefillSeconds)))
+                .build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.taskmanager.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-route token costs and extra bandwidths for the per-user rate limiter
+ * ({@code rate.limit.routes} / {@code rate.limit.groups}). The remaining {@code rate.limit.*}
+ * settings describe the {@code default} group and stay plain {@code @Value}s in
+ * {@code RateLimiterService}.
+ */
+@Component
+@ConfigurationProperties(prefix = "rate.limit")
+@Getter
+@Setter
+public class RateLimitRouteProperties {
+
+    /** Checked in order; the first match decides cost and group. Unmatched requests cost tokens-per-request. */
+    private List<Route> routes = new ArrayList<>();
+
+    /** Bandwidths other than {@code default}, each with its own bucket per user. */
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Route {
+        /** HTTP method, or empty for any. */
+        private String method;
+        /** Spring path pattern, e.g. {@code /ai/**}. */
+        private String path;
+        private long cost = 1;
+        private String group = "default";
+    }
+
+    @Getter
+    @Setter
+    public static class Group {
+        private long capacity;
+        private long refillTokens;
+        private long refillSeconds;
+    }
+}
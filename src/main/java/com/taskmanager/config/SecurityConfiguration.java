@@ -1,7 +1,11 @@
 package com.taskmanager.config;
 
+import com.taskmanager.security.BoundedPasswordEncoder;
+import com.taskmanager.security.ClientIpRateLimitFilter;
 import com.taskmanager.security.jwt.JWTFilter;
 import com.taskmanager.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -15,8 +19,11 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -25,6 +32,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -33,7 +41,9 @@ import java.util.List;
 public class SecurityConfiguration {
 	
     private final JWTFilter authFilter;
+    private final ClientIpRateLimitFilter clientIpRateLimitFilter;
     private final UserDetailsServiceImpl userDetailsService;
+    private final MeterRegistry meterRegistry;
 
     @Value("${cors.allowed-origins}")
     private String corsAllowedOrigins;
@@ -41,11 +51,32 @@ public class SecurityConfiguration {
     @Value("${cors.allowed-methods}")
     private String corsAllowedMethods;
 
+    // Encoder for new hashes: bcrypt | argon2 | pbkdf2. Existing hashes keep verifying and are
+    // re-encoded with this one on the user's next successful login
+    @Value("${password.encoder:bcrypt}")
+    private String passwordEncoderId;
+
+    @Value("${password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
+    // 0 = half the available processors, leaving the rest for API traffic
+    @Value("${password.hashing.threads:0}")
+    private int hashingThreads;
+
+    @Value("${password.hashing.queue-capacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${password.hashing.timeout-ms:2000}")
+    private long hashingTimeoutMs;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http.csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
 				.authorizeHttpRequests(auth -> auth
+                        // The request was authorised on its REQUEST dispatch; JWTFilter does not run again
+                        // when a streaming response (NDJSON, SSE) resumes on an ASYNC or ERROR dispatch
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/user/**","/v3/api-docs/**", "/swagger-ui/**","/actuator/**").permitAll()
                         .requestMatchers("/task/**").authenticated()
                         .requestMatchers("/ai/**").authenticated()
@@ -53,6 +84,8 @@ public class SecurityConfiguration {
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider())
                 .addFilterBefore(authFilter, UsernamePasswordAuthenticationFilter.class)
+                // Per-IP limits run first, before the bearer token is parsed or a password hashed
+                .addFilterBefore(clientIpRateLimitFilter, JWTFilter.class)
                 .build();
     }
 
@@ -62,7 +95,7 @@ public class SecurityConfiguration {
         configuration.setAllowedOriginPatterns(List.of(corsAllowedOrigins.split(",")));
         configuration.setAllowedMethods(Arrays.asList(corsAllowedMethods.split(",")));
         configuration.setAllowedHeaders(Arrays.asList("*"));
-        configuration.setExposedHeaders(List.of("Authorization"));
+        configuration.setExposedHeaders(List.of("Authorization", "X-Next-Cursor", "ETag", "Retry-After", "X-RateLimit-Remaining", "X-Tasks-Analyzed", "Location"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
 
@@ -75,12 +108,27 @@ public class SecurityConfiguration {
     public AuthenticationProvider authenticationProvider(){
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider(userDetailsService);
         authenticationProvider.setPasswordEncoder(passwordEncoder());
+        // Stores the re-encoded hash when upgradeEncoding() reports an outdated one at login
+        authenticationProvider.setUserDetailsPasswordService(userDetailsService);
         return authenticationProvider;
     }
     
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8(),
+                "pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(passwordEncoderId)) {
+            throw new IllegalStateException("Unsupported password.encoder: " + passwordEncoderId);
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(passwordEncoderId, encoders);
+        // Hashes stored before the {id} prefix was introduced are plain BCrypt
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        int threads = hashingThreads > 0 ? hashingThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(delegating, threads, hashingQueueCapacity, hashingTimeoutMs, meterRegistry);
     }
 
     @Bean
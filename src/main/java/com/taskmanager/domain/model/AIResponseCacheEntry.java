@@ -0,0 +1,31 @@
+package com.taskmanager.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+// Row of the shared AI response cache (migration V11); written and read through native
+// queries in AIResponseCacheRepository
+@Entity
+@Table(name = "ai_response_cache")
+@Getter @Setter
+public class AIResponseCacheEntry {
+
+    @Id
+    @Column(name = "prompt_hash", length = 64)
+    private String promptHash;
+
+    @Column(nullable = false)
+    private String feature;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String response;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
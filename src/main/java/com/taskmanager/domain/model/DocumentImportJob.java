@@ -0,0 +1,71 @@
+package com.taskmanager.domain.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// An asynchronous document import (migration V12). Status transitions are single UPDATE
+// statements in DocumentImportJobRepository, so two workers can never both claim a job
+@Entity
+@Table(name = "document_import_jobs")
+@Getter @Setter @Builder @NoArgsConstructor @AllArgsConstructor
+public class DocumentImportJob {
+
+    public enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    @Id
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private String filename;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    // The uploaded file; cleared once the job has finished
+    private byte[] document;
+
+    @Column(name = "submitted_by", nullable = false)
+    private String submittedBy;
+
+    @Column(name = "task_ids", columnDefinition = "TEXT")
+    private String taskIds;
+
+    // Newline-separated: titles may contain commas
+    @Column(name = "skipped_titles", columnDefinition = "TEXT")
+    private String skippedTitles;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    // Times a worker claimed the job (migration V14)
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate;
+
+    @Column(name = "started_date")
+    private LocalDateTime startedDate;
+
+    // Renewed by the worker's pod while the job runs (migration V15)
+    @Column(name = "heartbeat_date")
+    private LocalDateTime heartbeatDate;
+
+    @Column(name = "finished_date")
+    private LocalDateTime finishedDate;
+}
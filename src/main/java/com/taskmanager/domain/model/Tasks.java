@@ -14,10 +14,13 @@ import java.time.LocalDateTime;
 
 @Entity @Data @Builder @NoArgsConstructor @AllArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
+@Table(indexes = @Index(name = "ux_tasks_title", columnList = "title", unique = true))
 public class Tasks implements Serializable {
 
+	// Pooled sequence: one nextval per 50 ids, so batched inserts don't need a round trip per row
 	@Id
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+	@SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
 	private Long taskId;
 
 	private String title;
@@ -40,4 +43,11 @@ public class Tasks implements Serializable {
     @Column(nullable = true)
     private String last_modified_by;
 
+    @Version
+    private Long version;
+
+    // Id of the transaction that last wrote the row, stamped by trigger (migration V16)
+    @Column(insertable = false, updatable = false)
+    private Long change_xid;
+
 }
\ No newline at end of file
@@ -29,6 +29,10 @@ public class UserInfo implements Serializable {
     private String firstname;
     private String lastname;
 
+    // Bumped to revoke every JWT issued to this user (see TokenVersionService)
+    @Column(nullable = false)
+    private long token_version;
+
     @CreatedDate
     @Column(updatable = false, nullable = false)
     private LocalDateTime created_date;
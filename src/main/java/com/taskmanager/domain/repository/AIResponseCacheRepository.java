@@ -0,0 +1,33 @@
+package com.taskmanager.domain.repository;
+
+import com.taskmanager.domain.model.AIResponseCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface AIResponseCacheRepository extends JpaRepository<AIResponseCacheEntry, String> {
+
+    @Query(value = "SELECT response FROM ai_response_cache WHERE prompt_hash = :hash AND expires_at > :now",
+            nativeQuery = true)
+    Optional<String> findLiveResponse(@Param("hash") String hash, @Param("now") LocalDateTime now);
+
+    // Pods racing on the same prompt simply overwrite each other with an equally valid answer
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO ai_response_cache (prompt_hash, feature, response, expires_at) "
+            + "VALUES (:hash, :feature, :response, :expiresAt) "
+            + "ON CONFLICT (prompt_hash) DO UPDATE SET response = EXCLUDED.response, expires_at = EXCLUDED.expires_at",
+            nativeQuery = true)
+    int upsert(@Param("hash") String hash, @Param("feature") String feature, @Param("response") String response,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM ai_response_cache WHERE expires_at <= :now", nativeQuery = true)
+    int purgeExpiredBefore(@Param("now") LocalDateTime now);
+}
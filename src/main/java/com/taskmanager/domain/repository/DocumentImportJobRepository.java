@@ -0,0 +1,93 @@
+package com.taskmanager.domain.repository;
+
+import com.taskmanager.domain.model.DocumentImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface DocumentImportJobRepository extends JpaRepository<DocumentImportJob, UUID> {
+
+    // Everything but the uploaded bytes, for status polling
+    interface StatusView {
+        UUID getId();
+        DocumentImportJob.Status getStatus();
+        String getFilename();
+        String getSubmittedBy();
+        String getTaskIds();
+        String getSkippedTitles();
+        String getError();
+        LocalDateTime getCreatedDate();
+        LocalDateTime getStartedDate();
+        LocalDateTime getFinishedDate();
+    }
+
+    Optional<StatusView> findStatusById(UUID id);
+
+    @Query(value = "SELECT id FROM document_import_jobs WHERE status = 'QUEUED' ORDER BY created_date LIMIT :limit",
+            nativeQuery = true)
+    List<UUID> findQueuedIds(@Param("limit") int limit);
+
+    // Returns 1 only for the worker that moved the job out of QUEUED; counts the attempt
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE document_import_jobs SET status = 'RUNNING', started_date = :now, "
+            + "heartbeat_date = LOCALTIMESTAMP, attempts = attempts + 1 WHERE id = :id AND status = 'QUEUED'",
+            nativeQuery = true)
+    int claim(@Param("id") UUID id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    // The finishing updates only apply to a job that is still RUNNING: one failed as stale
+    // keeps the error its client has already seen
+    @Query(value = "UPDATE document_import_jobs SET status = 'SUCCEEDED', task_ids = :taskIds, "
+            + "skipped_titles = :skippedTitles, document = NULL, finished_date = :now "
+            + "WHERE id = :id AND status = 'RUNNING'", nativeQuery = true)
+    int markSucceeded(@Param("id") UUID id, @Param("taskIds") String taskIds,
+                      @Param("skippedTitles") String skippedTitles, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE document_import_jobs SET status = 'FAILED', error = :error, document = NULL, "
+            + "finished_date = :now WHERE id = :id AND status = 'RUNNING'", nativeQuery = true)
+    int markFailed(@Param("id") UUID id, @Param("error") String error, @Param("now") LocalDateTime now);
+
+    // Hands an interrupted job back to the queue; nothing was saved yet. Returns 0 once it has
+    // been claimed maxAttempts times
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE document_import_jobs SET status = 'QUEUED', started_date = NULL "
+            + "WHERE id = :id AND status = 'RUNNING' AND attempts < :maxAttempts", nativeQuery = true)
+    int requeue(@Param("id") UUID id, @Param("maxAttempts") int maxAttempts);
+
+    // Renews the lease of jobs running in this pod. Database time on both sides, so clock skew
+    // between pods cannot make a live job look stale
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE document_import_jobs SET heartbeat_date = LOCALTIMESTAMP "
+            + "WHERE id IN (:ids) AND status = 'RUNNING'", nativeQuery = true)
+    int heartbeat(@Param("ids") Collection<UUID> ids);
+
+    // Jobs whose worker died with its pod (no heartbeat for staleAfterMinutes); they are failed
+    // rather than re-run, so a half-finished import is never saved twice
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE document_import_jobs SET status = 'FAILED', error = :error, document = NULL, "
+            + "finished_date = :now WHERE status = 'RUNNING' "
+            + "AND heartbeat_date < LOCALTIMESTAMP - make_interval(mins => :staleAfterMinutes)", nativeQuery = true)
+    int failStale(@Param("staleAfterMinutes") int staleAfterMinutes, @Param("error") String error,
+                  @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM document_import_jobs WHERE status IN ('SUCCEEDED', 'FAILED') AND finished_date < :cutoff",
+            nativeQuery = true)
+    int purgeFinishedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
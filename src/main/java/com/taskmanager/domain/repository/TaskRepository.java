@@ -1,21 +1,98 @@
 package com.taskmanager.domain.repository;
 
 
+import com.taskmanager.api.dto.GetTaskResponse;
 import com.taskmanager.domain.model.Tasks;
-import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Tasks, Long>{
+public interface TaskRepository extends JpaRepository<Tasks, Long>, TaskSearchRepository {
 
 	Optional<Tasks> findByTitle(String title);
 
+    // One IN query to check a whole batch of titles for duplicates
+    List<Tasks> findByTitleIn(Collection<String> titles);
+
     Tasks save(Tasks tasks);
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-	 Optional<Tasks> findById(Long id);
-}
\ No newline at end of file
+    // Plain read, no row lock: concurrent writers are serialised by the @Version column
+    // on Tasks (optimistic locking) instead of SELECT ... FOR UPDATE
+    Optional<Tasks> findById(Long id);
+
+    // Read-side queries select straight into GetTaskResponse: no entity hydration, no
+    // dirty-checking snapshot, nothing added to the persistence context
+    @Query("SELECT new com.taskmanager.api.dto.GetTaskResponse(t.taskId, t.title, t.description, t.status, t.version) "
+            + "FROM Tasks t WHERE t.taskId = :id")
+    Optional<GetTaskResponse> findResponseById(@Param("id") Long id);
+
+    @Query("SELECT new com.taskmanager.api.dto.GetTaskResponse(t.taskId, t.title, t.description, t.status) "
+            + "FROM Tasks t ORDER BY t.taskId")
+    List<GetTaskResponse> findAllResponses();
+
+    // Keyset page: WHERE taskId > :afterId ORDER BY taskId LIMIT n — uses the primary key index,
+    // so the cost of a page does not grow with how deep the client has paged
+    @Query("SELECT new com.taskmanager.api.dto.GetTaskResponse(t.taskId, t.title, t.description, t.status) "
+            + "FROM Tasks t WHERE t.taskId > :afterId ORDER BY t.taskId")
+    List<GetTaskResponse> findResponsePage(@Param("afterId") Long afterId, Pageable page);
+
+    // Server-side cursor: PostgreSQL only honours the fetch size inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.taskmanager.api.dto.GetTaskResponse(t.taskId, t.title, t.description, t.status) "
+            + "FROM Tasks t ORDER BY t.taskId")
+    Stream<GetTaskResponse> streamAllResponses();
+
+    // Bumped by a trigger on every write to tasks (migration V6); backs the GET /task/ ETag
+    @Query(value = "SELECT change_count FROM task_change_counter WHERE id = 1", nativeQuery = true)
+    long currentChangeCount();
+
+    /** Upper bound of the next change-feed window, and the database clock for token age. */
+    interface ChangeHorizon {
+
+        // Oldest transaction still running (or the next to start): everything below has finished
+        long getHorizonXid();
+
+        long getNowEpochSecond();
+    }
+
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint) AS \"horizonXid\", "
+            + "CAST(EXTRACT(EPOCH FROM now()) AS bigint) AS \"nowEpochSecond\"", nativeQuery = true)
+    ChangeHorizon currentChangeHorizon();
+
+    // Change feed (GET /task/changes): both use the (change_xid, id) indexes from migration V16
+    @Query("SELECT new com.taskmanager.api.dto.GetTaskResponse(t.taskId, t.title, t.description, t.status, t.version) "
+            + "FROM Tasks t WHERE t.change_xid >= :since AND t.change_xid < :until "
+            + "ORDER BY t.change_xid, t.taskId")
+    List<GetTaskResponse> findChangedBetween(@Param("since") long since, @Param("until") long until, Pageable page);
+
+    @Query(value = "SELECT taskid FROM task_tombstones WHERE change_xid >= :since AND change_xid < :until "
+            + "ORDER BY change_xid, taskid", nativeQuery = true)
+    List<Long> findDeletedIdsBetween(@Param("since") long since, @Param("until") long until, Pageable page);
+
+    // Unlike deleteById, reports whether a row was deleted; the V7 trigger still writes the tombstone
+    @Modifying
+    @Query("DELETE FROM Tasks t WHERE t.taskId = :id")
+    int deleteRowById(@Param("id") Long id);
+
+    // One statement that reports exactly which ids it removed, so ids deleted concurrently are
+    // not counted twice; not @Modifying because RETURNING makes it a result-set query
+    @Query(value = "DELETE FROM tasks WHERE taskid IN (:ids) RETURNING taskid", nativeQuery = true)
+    List<Long> deleteAllByIdReturningIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM task_tombstones WHERE deleted_date < :cutoff", nativeQuery = true)
+    int purgeTombstonesBefore(@Param("cutoff") LocalDateTime cutoff);
+}
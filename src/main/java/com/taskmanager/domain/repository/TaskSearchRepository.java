@@ -0,0 +1,13 @@
+package com.taskmanager.domain.repository;
+
+import com.taskmanager.api.dto.GetTaskResponse;
+import com.taskmanager.api.dto.TaskSearchCriteria;
+
+import java.util.List;
+
+public interface TaskSearchRepository {
+
+    List<GetTaskResponse> search(TaskSearchCriteria criteria, Long afterId, int limit);
+
+    List<GetTaskResponse> fullTextSearch(TaskSearchCriteria criteria, int limit);
+}
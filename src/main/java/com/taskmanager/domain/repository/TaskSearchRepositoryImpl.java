@@ -0,0 +1,124 @@
+package com.taskmanager.domain.repository;
+
+import com.taskmanager.api.dto.GetTaskResponse;
+import com.taskmanager.api.dto.TaskSearchCriteria;
+import com.taskmanager.domain.model.Tasks;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the search query from only the filters that were supplied, so PostgreSQL plans each
+ * filter combination against its own index (see migration V4) instead of a catch-all
+ * {@code (:param IS NULL OR ...)} query that defeats index use.
+ */
+@RequiredArgsConstructor
+public class TaskSearchRepositoryImpl implements TaskSearchRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<GetTaskResponse> search(TaskSearchCriteria criteria, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<GetTaskResponse> query = cb.createQuery(GetTaskResponse.class);
+        Root<Tasks> task = query.from(Tasks.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.greaterThan(task.<Long>get("taskId"), afterId));
+        if (criteria.status() != null) {
+            predicates.add(cb.equal(task.get("status"), criteria.status()));
+        }
+        if (criteria.titlePrefix() != null) {
+            predicates.add(cb.like(task.get("title"), escapeLike(criteria.titlePrefix()) + "%", '\\'));
+        }
+        if (criteria.createdBy() != null) {
+            predicates.add(cb.equal(task.get("created_by"), criteria.createdBy()));
+        }
+        addRange(cb, predicates, task, "created_date", criteria.createdFrom(), criteria.createdTo());
+        addRange(cb, predicates, task, "last_modified_date", criteria.modifiedFrom(), criteria.modifiedTo());
+
+        query.select(cb.construct(GetTaskResponse.class,
+                        task.get("taskId"), task.get("title"), task.get("description"), task.get("status")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(task.get("taskId")));
+
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<GetTaskResponse> fullTextSearch(TaskSearchCriteria criteria, int limit) {
+        // Native SQL: JPQL has no @@ operator. The GIN index on search_vector (migration V5)
+        // narrows the candidates; ts_rank then orders only the matching rows
+        StringBuilder sql = new StringBuilder(
+                "SELECT taskid, title, description, status FROM tasks "
+                        + "WHERE search_vector @@ websearch_to_tsquery('english', :query)");
+        Map<String, Object> params = new HashMap<>();
+        params.put("query", criteria.query());
+        appendEquals(sql, params, "status", criteria.status());
+        appendEquals(sql, params, "created_by", criteria.createdBy());
+        if (criteria.titlePrefix() != null) {
+            sql.append(" AND title LIKE :titlePrefix ESCAPE '\\'");
+            params.put("titlePrefix", escapeLike(criteria.titlePrefix()) + "%");
+        }
+        appendRange(sql, params, "created_date", criteria.createdFrom(), criteria.createdTo());
+        appendRange(sql, params, "last_modified_date", criteria.modifiedFrom(), criteria.modifiedTo());
+        sql.append(" ORDER BY ts_rank(search_vector, websearch_to_tsquery('english', :query)) DESC, taskid");
+
+        Query query = entityManager.createNativeQuery(sql.toString(), Tuple.class);
+        params.forEach(query::setParameter);
+        @SuppressWarnings("unchecked")
+        List<Tuple> rows = query.setMaxResults(limit).getResultList();
+        return rows.stream()
+                .map(row -> new GetTaskResponse(
+                        row.get("taskid", Number.class).longValue(),
+                        row.get("title", String.class),
+                        row.get("description", String.class),
+                        row.get("status", String.class)))
+                .toList();
+    }
+
+    private void appendEquals(StringBuilder sql, Map<String, Object> params, String column, Object value) {
+        if (value != null) {
+            sql.append(" AND ").append(column).append(" = :").append(column);
+            params.put(column, value);
+        }
+    }
+
+    private void appendRange(StringBuilder sql, Map<String, Object> params, String column,
+                             LocalDateTime from, LocalDateTime to) {
+        if (from != null) {
+            sql.append(" AND ").append(column).append(" >= :").append(column).append("_from");
+            params.put(column + "_from", from);
+        }
+        if (to != null) {
+            sql.append(" AND ").append(column).append(" < :").append(column).append("_to");
+            params.put(column + "_to", to);
+        }
+    }
+
+    private void addRange(CriteriaBuilder cb, List<Predicate> predicates, Root<Tasks> task, String attribute,
+                          LocalDateTime from, LocalDateTime to) {
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(task.<LocalDateTime>get(attribute), from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThan(task.<LocalDateTime>get(attribute), to));
+        }
+    }
+
+    // Treat % and _ in the user's prefix literally
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
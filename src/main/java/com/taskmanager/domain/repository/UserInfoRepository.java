@@ -3,9 +3,23 @@ package com.taskmanager.domain.repository;
 
 import com.taskmanager.domain.model.UserInfo;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface UserInfoRepository extends JpaRepository<UserInfo, Integer> {
     Optional<UserInfo> findByEmail(String email);
+
+    @Query("SELECT u.token_version FROM UserInfo u WHERE u.email = :email")
+    Optional<Long> findTokenVersionByEmail(@Param("email") String email);
+
+    @Modifying
+    @Query("UPDATE UserInfo u SET u.password = :password WHERE u.email = :email")
+    int updatePassword(@Param("email") String email, @Param("password") String password);
+
+    @Modifying
+    @Query("UPDATE UserInfo u SET u.token_version = u.token_version + 1 WHERE u.email = :email")
+    int incrementTokenVersion(@Param("email") String email);
 }
@@ -0,0 +1,12 @@
+package com.taskmanager.exception;
+
+/**
+ * The server is temporarily saturated; the client should back off and retry.
+ */
+public class ServiceUnavailable extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ServiceUnavailable(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,8 @@ package com.taskmanager.exception;
 
 import io.swagger.v3.oas.annotations.Hidden;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -56,6 +58,15 @@ public class TaskManagementExceptionHandler {
 	        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
 	    }
 
+	    @ExceptionHandler(OptimisticLockingFailureException.class)
+	    @ResponseStatus(HttpStatus.CONFLICT)
+	    @RequestMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	    public ResponseEntity<ErrorResponse> conflict(OptimisticLockingFailureException ex) {
+	        ErrorResponse response = new ErrorResponse(409, "Task was modified concurrently, please retry");
+	        log.warn("Conflict: {}", ex.getMessage());
+	        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+	    }
+
 	    @ExceptionHandler(com.taskmanager.exception.Unauthorized.class)
 	    @ResponseStatus(HttpStatus.UNAUTHORIZED)
 	    @RequestMapping(produces = MediaType.APPLICATION_JSON_VALUE)
@@ -74,6 +85,28 @@ public class TaskManagementExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
         }
 
+	    @ExceptionHandler(ServiceUnavailable.class)
+	    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+	    @RequestMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	    public ResponseEntity<ErrorResponse> serviceUnavailable(ServiceUnavailable ex) {
+	        ErrorResponse response = new ErrorResponse(503, ex.getMessage());
+	        log.warn("ServiceUnavailable: {}", ex.getMessage());
+	        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+	                .header(HttpHeaders.RETRY_AFTER, "1")
+	                .body(response);
+	    }
+
+	    @ExceptionHandler(TooManyRequests.class)
+	    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+	    @RequestMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	    public ResponseEntity<ErrorResponse> tooManyRequests(TooManyRequests ex) {
+	        ErrorResponse response = new ErrorResponse(429, ex.getMessage());
+	        log.warn("TooManyRequests: {}", ex.getMessage());
+	        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+	                .header(HttpHeaders.RETRY_AFTER, "1")
+	                .body(response);
+	    }
+
 	    @ExceptionHandler(AuthorizationDeniedException.class)
 	    @ResponseStatus(HttpStatus.FORBIDDEN)
 	    @RequestMapping(produces = MediaType.APPLICATION_JSON_VALUE)
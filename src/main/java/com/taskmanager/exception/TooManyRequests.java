@@ -0,0 +1,12 @@
+package com.taskmanager.exception;
+
+/**
+ * The caller has used up its own share of a limited resource; it should slow down.
+ */
+public class TooManyRequests extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public TooManyRequests(String message) {
+        super(message);
+    }
+}
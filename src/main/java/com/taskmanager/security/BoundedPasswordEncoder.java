@@ -0,0 +1,115 @@
+package com.taskmanager.security;
+
+import com.taskmanager.exception.ServiceUnavailable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs {@code encode}/{@code matches} of the wrapped encoder on a small, dedicated pool of
+ * platform threads.
+ *
+ * <p>Password hashes are deliberately CPU-heavy. Run inline on virtual threads, a burst of
+ * logins would occupy every carrier thread and stall unrelated API traffic; here at most
+ * {@code threads} hashes run at once and at most {@code queueCapacity} wait. A full queue, or a
+ * hash not finished within {@code timeoutMs}, fails fast with {@link ServiceUnavailable} (503).
+ *
+ * <p>Metrics: gauges {@code password.hashing.active} and {@code password.hashing.queued},
+ * counter {@code password.hashing.rejected} and timer {@code password.hashing.duration}.
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final String SATURATED = "Too many sign-in requests, please retry shortly";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Counter rejected;
+    private final Timer duration;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long timeoutMs,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hash-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes currently being computed")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queued", executor, pool -> pool.getQueue().size())
+                .description("Password hashes waiting for a hashing thread")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected")
+                .description("Password hashes rejected because the hashing pool was saturated")
+                .register(meterRegistry);
+        this.duration = Timer.builder("password.hashing.duration")
+                .description("Time spent computing a password hash")
+                .register(meterRegistry);
+        log.debug("Password hashing pool initialized (threads={}, queueCapacity={}, timeoutMs={})",
+                threads, queueCapacity, timeoutMs);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // Only inspects the stored hash's prefix/cost; cheap enough to stay on the caller's thread
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T run(Callable<T> hash) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> duration.recordCallable(hash));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password hashing queue full, rejecting request");
+            throw new ServiceUnavailable(SATURATED);
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            log.warn("Password hash not completed within {} ms, rejecting request", timeoutMs);
+            throw new ServiceUnavailable(SATURATED);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailable(SATURATED);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
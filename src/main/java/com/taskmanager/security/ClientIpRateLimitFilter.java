@@ -0,0 +1,50 @@
+package com.taskmanager.security;
+
+import com.taskmanager.service.ClientIpRateLimiter;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * First line of rate limiting, registered ahead of {@code JWTFilter}: rejects by client IP
+ * before the Authorization header is looked at or a password is hashed.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClientIpRateLimitFilter extends OncePerRequestFilter {
+
+    private final ClientIpRateLimiter rateLimiter;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || path(request).startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String clientIp = rateLimiter.clientIp(request.getRemoteAddr(), request.getHeader("X-Forwarded-For"));
+        ConsumptionProbe probe = rateLimiter.tryConsume(rateLimiter.tierFor(path(request)), clientIp);
+        if (!probe.isConsumed()) {
+            // Rounded up: a client retrying after this many seconds will find a token
+            long retryAfterSeconds = Math.max(1, (probe.getNanosToWaitForRefill() + 999_999_999L) / 1_000_000_000L);
+            response.setStatus(429); // HTTP 429 Too Many Requests
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType("application/json");
+            response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -1,6 +1,7 @@
 package com.taskmanager.security;
 
 import com.taskmanager.domain.model.UserInfo;
+import com.taskmanager.security.jwt.VerifiedClaims;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -27,6 +28,21 @@ public class UserInfoUserDetails implements UserDetails {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Principal for stateless authentication, built from a verified token without touching the
+     * database. The {@code role} claim already holds the granted authorities (ROLE_ prefix
+     * included), exactly as they were issued by /user/authenticate.
+     */
+    public UserInfoUserDetails(VerifiedClaims claims) {
+        name=claims.email();
+        password=null;
+        authorities= claims.role() == null ? List.of() : Arrays.stream(claims.role().split(","))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role))
+                .toList();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -1,14 +1,19 @@
 package com.taskmanager.security.jwt;
 
+import com.taskmanager.security.UserInfoUserDetails;
 import com.taskmanager.service.JWTService;
 import com.taskmanager.service.RateLimiterService;
+import com.taskmanager.service.TokenVersionService;
 import com.taskmanager.service.UserDetailsServiceImpl;
+import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -26,27 +31,45 @@ public class JWTFilter extends OncePerRequestFilter {
     private final JWTService jwtService;
     private final UserDetailsServiceImpl userDetailsService;
     private final RateLimiterService rateLimiterService;
+    private final JWTVerificationCache verificationCache;
+    private final TokenVersionService tokenVersionService;
+
+    // true: the principal comes from the signed claims (no database query per request);
+    // false: it is reloaded through UserDetailsService on every request
+    @Value("${jwt.stateless:true}")
+    private boolean stateless;
 
     @Override
     public void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String authHeader = request.getHeader("Authorization");
-        String jwtToken = null;
-        String email = null;
+        VerifiedClaims claims = null;
 
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            jwtToken = authHeader.substring(7);
-            try {
-                email = jwtService.extractEmail(jwtToken);
-            } catch (RuntimeException e) {
-                log.warn("Failed to extract email from JWT token", e);
+            String jwtToken = authHeader.substring(7);
+            // A token seen before skips parsing and the MAC check for the rest of its lifetime;
+            // otherwise it is decoded exactly once, by verify()
+            claims = verificationCache.get(jwtToken);
+            if (claims == null) {
+                claims = jwtService.verify(jwtToken).orElse(null);
+                if (claims != null) {
+                    verificationCache.put(jwtToken, claims);
+                } else {
+                    log.debug("Bearer token failed verification");
+                }
             }
         }
+        String email = claims == null ? null : claims.email();
 
-        // Apply rate limiting before JWT validation
+        // Only verified identities are rate limited, so a forged token cannot drain someone else's bucket
         if (email != null) {
-            if (!rateLimiterService.tryConsume(email)) {
+            ConsumptionProbe probe = rateLimiterService.tryConsume(email, request.getMethod(), path(request));
+            response.setHeader("X-RateLimit-Remaining", String.valueOf(probe.getRemainingTokens()));
+            if (!probe.isConsumed()) {
                 log.warn("Rate limit exceeded for user: {}", email);
+                // Rounded up: a client retrying after this many seconds will find enough tokens
+                long retryAfterSeconds = Math.max(1, (probe.getNanosToWaitForRefill() + 999_999_999L) / 1_000_000_000L);
                 response.setStatus(429); // HTTP 429 Too Many Requests
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
                 response.setContentType("application/json");
                 response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
                 return;
@@ -54,16 +77,29 @@ public class JWTFilter extends OncePerRequestFilter {
         }
 
         if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-            if (jwtService.validateToken(email, userDetails.getUsername(), jwtToken)) {
+            if (!tokenVersionService.isCurrent(claims)) {
+                log.debug("Revoked token presented for email={}", email);
+                filterChain.doFilter(request, response);
+                return;
+            }
+            UserDetails userDetails = stateless
+                    ? new UserInfoUserDetails(claims)
+                    : userDetailsService.loadUserByUsername(email);
+            if (email.equals(userDetails.getUsername())) {
                 //Password is not stored in memory unnecessarily, so passing null
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             } else {
-                log.debug("JWT token validation failed for email={}", email);
+                log.debug("JWT subject does not match user record for email={}", email);
             }
         }
         filterChain.doFilter(request, response);
     }
+
+    private static String path(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String contextPath = request.getContextPath();
+        return uri == null || contextPath == null ? uri : uri.substring(contextPath.length());
+    }
 }
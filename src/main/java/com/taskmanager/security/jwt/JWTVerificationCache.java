@@ -0,0 +1,78 @@
+package com.taskmanager.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+
+/**
+ * Remembers bearer tokens that already passed signature, algorithm, issuer and expiry checks,
+ * so repeat requests with the same token skip JWT parsing and the HS512 MAC.
+ *
+ * <p>Entries are keyed by the SHA-256 digest of the token (the raw token is never stored)
+ * and expire exactly when the token does. Hit and miss counts are exported under the
+ * {@code cache.*} Micrometer meters with tag {@code cache=jwt}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JWTVerificationCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jwt.cache.max-size:10000}")
+    private long maxSize;
+
+    private Cache<String, VerifiedClaims> cache;
+
+    @PostConstruct
+    private void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String digest, VerifiedClaims claims) ->
+                        Duration.between(Instant.now(), claims.expiresAt())))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt");
+        log.debug("JWT verification cache initialized (maxSize={})", maxSize);
+    }
+
+    /** Claims of an already verified, unexpired token, or {@code null} if it must be verified. */
+    public VerifiedClaims get(String token) {
+        return cache.getIfPresent(digest(token));
+    }
+
+    public void put(String token, VerifiedClaims claims) {
+        if (!claims.expiresAt().isAfter(Instant.now())) {
+            return;
+        }
+        cache.put(digest(token), claims);
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+        log.info("Cleared JWT verification cache");
+    }
+
+    private String digest(String token) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
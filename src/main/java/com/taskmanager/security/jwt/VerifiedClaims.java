@@ -0,0 +1,13 @@
+package com.taskmanager.security.jwt;
+
+import java.time.Instant;
+
+/**
+ * Claims of a bearer token whose signature, algorithm, issuer and expiry have been checked
+ * by {@link com.taskmanager.service.JWTService#verify}. Holding one means the token was parsed
+ * exactly once; nothing downstream needs to decode it again.
+ *
+ * <p>{@code tokenVersion} is the user's token version at issue time ({@code tv} claim, 0 when
+ * absent); it is compared with {@link com.taskmanager.service.TokenVersionService} to honour revocation.
+ */
+public record VerifiedClaims(String email, String role, Instant expiresAt, long tokenVersion) {}
@@ -0,0 +1,135 @@
+package com.taskmanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Pre-authentication rate limits keyed by client IP, checked before any token parsing or
+ * password hashing. Login, registration and AI endpoints get their own, tighter tiers; every
+ * other request falls into {@link Tier#DEFAULT}, which also catches floods of missing or
+ * garbage bearer tokens.
+ *
+ * <p>Buckets are always local to the pod: this tier exists to be cheap, and a distributed
+ * check would put a database round trip in front of unauthenticated traffic. Each bucket
+ * refills its whole capacity per minute, so one idle for a minute is full and is expired.
+ * Metrics: counter {@code rate.limit.ip.rejected} (tag {@code tier}) and {@code cache.*} with
+ * tag {@code cache=rate-limit-ip-buckets}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClientIpRateLimiter {
+
+    public enum Tier { LOGIN, REGISTRATION, AI, DEFAULT }
+
+    private static final Duration PERIOD = Duration.ofMinutes(1);
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${rate.limit.ip.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate.limit.ip.login-per-minute:20}")
+    private long loginPerMinute;
+
+    @Value("${rate.limit.ip.registration-per-minute:5}")
+    private long registrationPerMinute;
+
+    @Value("${rate.limit.ip.ai-per-minute:30}")
+    private long aiPerMinute;
+
+    @Value("${rate.limit.ip.default-per-minute:600}")
+    private long defaultPerMinute;
+
+    @Value("${rate.limit.ip.max-buckets:100000}")
+    private long maxBuckets;
+
+    // Number of reverse proxies (ingress) in front of the pod that append to X-Forwarded-For.
+    // 0 means requests arrive directly and the header is ignored
+    @Value("${rate.limit.ip.forwarded-hops:0}")
+    private int forwardedHops;
+
+    private final Map<Tier, Bandwidth> bandwidths = new EnumMap<>(Tier.class);
+    private Cache<String, Bucket> cache;
+
+    @PostConstruct
+    private void init() {
+        bandwidths.put(Tier.LOGIN, perMinute(loginPerMinute));
+        bandwidths.put(Tier.REGISTRATION, perMinute(registrationPerMinute));
+        bandwidths.put(Tier.AI, perMinute(aiPerMinute));
+        bandwidths.put(Tier.DEFAULT, perMinute(defaultPerMinute));
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(PERIOD)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "rate-limit-ip-buckets");
+        log.debug("Client IP rate limits initialized (enabled={}, tiers={}, forwardedHops={})",
+                enabled, bandwidths.keySet(), forwardedHops);
+    }
+
+    private static Bandwidth perMinute(long limit) {
+        return Bandwidth.builder().capacity(limit).refillGreedy(limit, PERIOD).build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Tier tierFor(String path) {
+        if (path.equals("/user/authenticate") || path.equals("/user/refresh-token")) {
+            return Tier.LOGIN;
+        }
+        if (path.equals("/user/new-registration")) {
+            return Tier.REGISTRATION;
+        }
+        // Job status polls never reach the model; a client polling one import must not use up
+        // the budget for submitting the next
+        if (path.startsWith("/ai/task/import-jobs/")) {
+            return Tier.DEFAULT;
+        }
+        if (path.startsWith("/ai/")) {
+            return Tier.AI;
+        }
+        return Tier.DEFAULT;
+    }
+
+    /**
+     * The address of whoever connected to the first trusted proxy: the entry that proxy
+     * appended to X-Forwarded-For. Entries further left are supplied by the client and are
+     * never trusted.
+     */
+    public String clientIp(String remoteAddr, String forwardedFor) {
+        if (forwardedHops <= 0 || forwardedFor == null || forwardedFor.isBlank()) {
+            return remoteAddr;
+        }
+        String[] hops = forwardedFor.split(",");
+        int index = hops.length - forwardedHops;
+        return index >= 0 ? hops[index].trim() : hops[0].trim();
+    }
+
+    public ConsumptionProbe tryConsume(Tier tier, String clientIp) {
+        Bucket bucket = cache.get(tier.name() + ":" + clientIp,
+                key -> Bucket.builder().addLimit(bandwidths.get(tier)).build());
+        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+        if (!probe.isConsumed()) {
+            meterRegistry.counter("rate.limit.ip.rejected", "tier", tier.name().toLowerCase()).increment();
+            log.warn("IP rate limit exceeded: tier={}, ip={}", tier, clientIp);
+        }
+        return probe;
+    }
+}
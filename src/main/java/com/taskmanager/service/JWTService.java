@@ -7,6 +7,7 @@ import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jose.crypto.MACVerifier;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
+import com.taskmanager.security.jwt.VerifiedClaims;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -20,6 +21,7 @@ import java.text.ParseException;
 import java.util.Base64;
 import java.util.Date;
 import java.util.Map;
+import java.util.Optional;
 
 @Component
 @Slf4j
@@ -27,6 +29,9 @@ public class JWTService {
 
     private static final String HMAC_SHA512 = "HmacSHA512";
 
+    /** Claim carrying the user's token version; see {@link TokenVersionService}. */
+    public static final String TOKEN_VERSION_CLAIM = "tv";
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -52,47 +57,28 @@ public class JWTService {
         log.debug("JWT signing key initialized");
     }
 
-    // ── helpers ─────────────────────────────────────────────────────────────
-
-    private JWTClaimsSet parseClaims(String token) {
-        try {
-            return SignedJWT.parse(token).getJWTClaimsSet();
-        } catch (ParseException e) {
-            throw new RuntimeException("Invalid JWT token", e);
-        }
-    }
-
-    // ── extractors ───────────────────────────────────────────────────────────
-
-    public String extractEmail(String token) {
-        return parseClaims(token).getSubject();
-    }
-
-    public String extractRole(String token) {
-        return (String) parseClaims(token).getClaim("role");
-    }
-
-    public Date extractExpiration(String token) {
-        return parseClaims(token).getExpirationTime();
-    }
-
     // ── validate ─────────────────────────────────────────────────────────────
 
-    public Boolean validateToken(String tokenEmail, String databaseEmail, String jwtToken) {
+    /**
+     * Parses the token once and checks algorithm, HMAC signature, issuer and expiry.
+     *
+     * @return the verified claims, or empty if the token is malformed or fails any check
+     */
+    public Optional<VerifiedClaims> verify(String jwtToken) {
         try {
             SignedJWT signedJWT = SignedJWT.parse(jwtToken);
 
-            // Verify HMAC signature
-            if (!signedJWT.verify(verifier)) {
-                log.warn("JWT signature verification failed");
-                return false;
-            }
-
-            // Enforce HS512 algorithm
+            // Enforce HS512 before spending a MAC computation on the token
             String algorithm = signedJWT.getHeader().getAlgorithm().getName();
             if (!JWSAlgorithm.HS512.getName().equals(algorithm)) {
                 log.warn("Invalid algorithm in JWT token. Expected HS512, but got: {}", algorithm);
-                return false;
+                return Optional.empty();
+            }
+
+            // Verify HMAC signature
+            if (!signedJWT.verify(verifier)) {
+                log.warn("JWT signature verification failed");
+                return Optional.empty();
             }
 
             JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
@@ -100,18 +86,28 @@ public class JWTService {
             // Verify issuer
             if (!issuer.equals(claims.getIssuer())) {
                 log.warn("Invalid issuer in JWT token. Expected: {}, but got: {}", issuer, claims.getIssuer());
-                return false;
+                return Optional.empty();
             }
 
             Date expiration = claims.getExpirationTime();
-            return tokenEmail.equals(databaseEmail) && expiration != null && !expiration.before(new Date());
+            if (expiration == null || expiration.before(new Date()) || claims.getSubject() == null) {
+                log.debug("JWT token expired or has no subject");
+                return Optional.empty();
+            }
+            String tokenVersion = claims.getStringClaim(TOKEN_VERSION_CLAIM);
+            return Optional.of(new VerifiedClaims(claims.getSubject(), claims.getStringClaim("role"),
+                    expiration.toInstant(), tokenVersion == null ? 0L : Long.parseLong(tokenVersion)));
 
-        } catch (ParseException | JOSEException e) {
+        } catch (ParseException | JOSEException | NumberFormatException e) {
             log.error("JWT validation error: {}", e.getMessage());
-            return false;
+            return Optional.empty();
         }
     }
 
+    public Boolean validateToken(String tokenEmail, String databaseEmail, String jwtToken) {
+        return verify(jwtToken).isPresent() && tokenEmail.equals(databaseEmail);
+    }
+
     // ── generate ─────────────────────────────────────────────────────────────
 
     public String generateToken(String email, Map<String, String> claims) {
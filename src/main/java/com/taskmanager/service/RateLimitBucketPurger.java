@@ -0,0 +1,38 @@
+package com.taskmanager.service;
+
+import io.github.bucket4j.postgresql.PostgreSQLSelectForUpdateBasedProxyManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes shared rate-limit buckets whose expiry has passed. An expired bucket would be full
+ * again, so dropping it changes nothing for its user; it only keeps the table from growing
+ * by one row per key ever seen.
+ */
+@Component
+@ConditionalOnProperty(name = "rate.limit.backend", havingValue = "postgresql")
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitBucketPurger {
+
+    private final PostgreSQLSelectForUpdateBasedProxyManager<String> proxyManager;
+
+    @Value("${rate.limit.distributed.purge-batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${rate.limit.distributed.purge-interval-ms:60000}")
+    public void purgeExpiredBuckets() {
+        int purged = 0;
+        int removed;
+        // Small batches keep each DELETE short, so it never holds up request-path bucket updates
+        do {
+            removed = proxyManager.removeExpired(batchSize);
+            purged += removed;
+        } while (removed == batchSize);
+        log.debug("Purged {} expired rate limit buckets", purged);
+    }
+}
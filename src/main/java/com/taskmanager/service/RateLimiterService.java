@@ -1,19 +1,71 @@
 package com.taskmanager.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.taskmanager.config.RateLimitRouteProperties;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.PathContainer;
 import org.springframework.stereotype.Service;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Per-key token buckets held in a bounded Caffeine cache.
+ *
+ * <p>A bucket left untouched for as long as it takes to refill from empty is full again, so it
+ * is expired after that much idle time: recreating it later gives exactly the same state. The
+ * {@code rate.limit.max-buckets} cap only matters beyond that; evicting a partly drained bucket
+ * early hands its key a fresh, full one.
+ *
+ * <p>When a {@link ProxyManager} bean exists ({@code rate.limit.backend=postgresql}, see
+ * {@code RateLimitConfiguration}) the cached buckets are proxies over shared state, so the
+ * limit holds across replicas. Each proxy pre-fetches up to
+ * {@code rate.limit.distributed.prefetch-tokens} and consumes them locally. It synchronises
+ * once they are used up or after {@code prefetch-max-delay-ms}, so most requests need no round
+ * trip. The cluster may overshoot by at most that many tokens per replica.
+ *
+ * <p>{@link #tryConsume(String, String, String)} charges per route: the first matching entry
+ * of {@code rate.limit.routes} sets the cost and picks the bandwidth group. Every group in
+ * {@code rate.limit.groups} gets its own bucket per user, so a few expensive AI calls cannot
+ * drain the budget for ordinary task reads, nor the other way round.
+ *
+ * <p>Metrics: gauges {@code rate.limit.buckets} and {@code rate.limit.buckets.memory} (an
+ * estimate), plus {@code cache.*} with tag {@code cache=rate-limit-buckets}.
+ */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class RateLimiterService {
 
+    // Rough heap per live bucket: key string, cache node, LockFreeBucket with its own
+    // configuration and state. Only meant to make the gauge's order of magnitude right
+    static final long ESTIMATED_BYTES_PER_BUCKET = 512;
+
+    static final String DEFAULT_GROUP = "default";
+
+    private final MeterRegistry meterRegistry;
+    private final Optional<ProxyManager<String>> proxyManager;
+    private final RateLimitRouteProperties routeProperties;
+
     @Value("${rate.limit.capacity}")
     private long capacity;
 
@@ -29,32 +81,140 @@ public class RateLimiterService {
     @Value("${rate.limit.tokens-per-request}")
     private long tokensPerRequest;
 
-    private final Map<String, Bucket> cache = new ConcurrentHashMap<>();
+    @Value("${rate.limit.max-buckets:100000}")
+    private long maxBuckets;
+
+    @Value("${rate.limit.distributed.prefetch-tokens:10}")
+    private long prefetchTokens;
+
+    @Value("${rate.limit.distributed.prefetch-max-delay-ms:500}")
+    private long prefetchMaxDelayMs;
+
+    private record CompiledRoute(String method, PathPattern pattern, long cost, String group) {
+
+        boolean matches(String requestMethod, PathContainer path) {
+            return (method == null || method.isBlank() || method.equalsIgnoreCase(requestMethod))
+                    && pattern.matches(path);
+        }
+    }
+
+    private List<CompiledRoute> routes;
+    private Cache<String, Bucket> cache;
+
+    @PostConstruct
+    private void init() {
+        Map<String, RateLimitRouteProperties.Group> groups = routeProperties.getGroups();
+        this.routes = routeProperties.getRoutes().stream()
+                .map(route -> {
+                    if (!DEFAULT_GROUP.equals(route.getGroup()) && !groups.containsKey(route.getGroup())) {
+                        throw new IllegalStateException("rate.limit.routes: unknown group '" + route.getGroup()
+                                + "' for path " + route.getPath());
+                    }
+                    return new CompiledRoute(route.getMethod(), PathPatternParser.defaultInstance.parse(route.getPath()),
+                            route.getCost(), route.getGroup());
+                })
+                .toList();
+        Duration idleTimeout = timeToFullRefill();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "rate-limit-buckets");
+        Gauge.builder("rate.limit.buckets", cache, Cache::estimatedSize)
+                .description("Live rate-limit buckets")
+                .register(meterRegistry);
+        Gauge.builder("rate.limit.buckets.memory", cache, c -> c.estimatedSize() * ESTIMATED_BYTES_PER_BUCKET)
+                .description("Estimated heap held by rate-limit buckets")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        log.debug("Rate limit bucket store initialized (maxBuckets={}, idleTimeout={})", maxBuckets, idleTimeout);
+    }
+
+    // Idle time after which any bucket, of any group, is back at capacity, whatever refill strategy is used
+    private Duration timeToFullRefill() {
+        return Stream.concat(
+                        Stream.of(timeToFullRefill(capacity, refillTokens, refillDurationSeconds)),
+                        routeProperties.getGroups().values().stream()
+                                .map(group -> timeToFullRefill(group.getCapacity(), group.getRefillTokens(), group.getRefillSeconds())))
+                .max(Duration::compareTo)
+                .orElseThrow();
+    }
+
+    private static Duration timeToFullRefill(long capacity, long refillTokens, long refillSeconds) {
+        long refillsNeeded = (capacity + refillTokens - 1) / refillTokens;
+        return Duration.ofSeconds(refillsNeeded * refillSeconds);
+    }
 
     public Bucket resolveBucket(String key) {
-        return cache.computeIfAbsent(key, k -> createNewBucket());
+        return resolveBucket(DEFAULT_GROUP, key);
     }
 
-    private Bucket createNewBucket() {
+    private Bucket resolveBucket(String group, String key) {
+        return cache.get(bucketKey(group, key), k -> createNewBucket(k, group));
+    }
+
+    // Default-group buckets keep the bare key, so existing shared rows stay valid
+    private static String bucketKey(String group, String key) {
+        return DEFAULT_GROUP.equals(group) ? key : group + ":" + key;
+    }
+
+    private Bucket createNewBucket(String key, String group) {
         Bandwidth limit;
+        if (!DEFAULT_GROUP.equals(group)) {
+            RateLimitRouteProperties.Group config = routeProperties.getGroups().get(group);
+            limit = bandwidth(config.getCapacity(), config.getRefillTokens(), config.getRefillSeconds());
+        } else {
+            limit = bandwidth(capacity, refillTokens, refillDurationSeconds);
+        }
+        if (proxyManager.isPresent()) {
+            BucketConfiguration configuration = BucketConfiguration.builder().addLimit(limit).build();
+            return proxyManager.get().builder()
+                    .withOptimization(Optimizations.delaying(
+                            new DelayParameters(prefetchTokens, Duration.ofMillis(prefetchMaxDelayMs))))
+                    .build(key, () -> configuration);
+        }
+        return Bucket.builder()
+                .addLimit(limit)
+                .build();
+    }
+
+    private Bandwidth bandwidth(long capacity, long refillTokens, long refillSeconds) {
         if (greedyRefill) {
             // Greedy refill: tokens are added continuously at a steady rate
-            limit = Bandwidth.builder()
+            return Bandwidth.builder()
                     .capacity(capacity)
-                    .refillGreedy(refillTokens, Duration.ofSeconds(refillDurationSeconds))
-                    .build();
-        } else {
-            // Intervally refill: tokens are added in batches at fixed intervals
-            limit = Bandwidth.builder()
-                    .capacity(capacity)
-                    .refillIntervally(refillTokens, Duration.ofSeconds(refillDurationSeconds))
+                    .refillGreedy(refillTokens, Duration.ofSeconds(refillSeconds))
                     .build();
         }
-        return Bucket.builder()
-                .addLimit(limit)
+        // Intervally refill: tokens are added in batches at fixed intervals
+        return Bandwidth.builder()
+                .capacity(capacity)
+                .refillIntervally(refillTokens, Duration.ofSeconds(refillSeconds))
                 .build();
     }
 
+    /**
+     * Charges the cost of the request's route to the caller's bucket for that route's group.
+     *
+     * @return the probe, whose remaining tokens and wait time feed the response headers
+     */
+    public ConsumptionProbe tryConsume(String key, String method, String path) {
+        PathContainer pathContainer = path == null ? null : PathContainer.parsePath(path);
+        CompiledRoute route = pathContainer == null ? null : routes.stream()
+                .filter(candidate -> candidate.matches(method, pathContainer))
+                .findFirst()
+                .orElse(null);
+        long cost = route == null ? tokensPerRequest : route.cost();
+        String group = route == null ? DEFAULT_GROUP : route.group();
+
+        ConsumptionProbe probe = resolveBucket(group, key).tryConsumeAndReturnRemaining(cost);
+        if (!probe.isConsumed()) {
+            log.warn("Rate limit exceeded for key: {} (group={}, cost={})", key, group, cost);
+        }
+        return probe;
+    }
+
     public boolean tryConsume(String key) {
         Bucket bucket = resolveBucket(key);
         boolean consumed = bucket.tryConsume(tokensPerRequest);
@@ -68,13 +228,20 @@ public class RateLimiterService {
         return resolveBucket(key).getAvailableTokens();
     }
 
+    public long getBucketCount() {
+        return cache.estimatedSize();
+    }
+
+    /** Drops the key's bucket in every group, so all of its budgets start full again. */
     public void clearBucket(String key) {
-        cache.remove(key);
-        log.debug("Cleared rate limit bucket for key: {}", key);
+        cache.invalidateAll(Stream.concat(Stream.of(DEFAULT_GROUP), routeProperties.getGroups().keySet().stream())
+                .map(group -> bucketKey(group, key))
+                .toList());
+        log.debug("Cleared rate limit buckets for key: {}", key);
     }
 
     public void clearAllBuckets() {
-        cache.clear();
+        cache.invalidateAll();
         log.info("Cleared all rate limit buckets");
     }
 }
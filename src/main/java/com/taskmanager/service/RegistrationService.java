@@ -2,8 +2,11 @@ package com.taskmanager.service;
 
 import com.taskmanager.domain.repository.UserInfoRepository;
 import com.taskmanager.domain.model.UserInfo;
+import com.taskmanager.exception.BadRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -14,8 +17,11 @@ import java.util.Optional;
 @Slf4j
 public class RegistrationService {
 
+    static final String EMAIL_UNIQUE_INDEX = "ux_userinfo_email";
+
     private final UserInfoRepository repository;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsServiceImpl userDetailsService;
 
     
     public Optional<UserInfo> findByEmail(String name) {
@@ -24,7 +30,19 @@ public class RegistrationService {
 
     public String addUser(UserInfo userInfo) {
         userInfo.setPassword(passwordEncoder.encode(userInfo.getPassword()));
-        repository.save(userInfo);
+        try {
+            repository.save(userInfo);
+        } catch (DataIntegrityViolationException e) {
+            // Two registrations for the same email raced past the controller's findByEmail check
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof ConstraintViolationException violation
+                        && EMAIL_UNIQUE_INDEX.equalsIgnoreCase(violation.getConstraintName())) {
+                    throw new BadRequest("Email already registered, please use a different email");
+                }
+            }
+            throw e;
+        }
+        userDetailsService.evict(userInfo.getEmail());
         log.info("Registered new user with email={}", userInfo.getEmail());
         return "User Succesfully Registered";
     }
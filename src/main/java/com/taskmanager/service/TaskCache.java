@@ -0,0 +1,123 @@
+package com.taskmanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.taskmanager.api.dto.GetTaskResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded in-process cache of {@link GetTaskResponse} keyed by task id.
+ *
+ * <p>Reads populate it with {@link #putIfAbsent} so a slow reader can never overwrite
+ * a newer value written by {@link #put}. Writers register their put/evict to run
+ * after the surrounding transaction commits, so readers never see uncommitted data.
+ * Every committed write also bumps a per-id write generation: a reader takes
+ * {@link #generation} before loading the row and only caches it if no write committed in
+ * between, so a row loaded just before a delete or update is never cached after it.
+ *
+ * <p>The cache is per pod. Changes made on other replicas arrive through
+ * {@link TaskEventListener}, which evicts the task when its UPDATED or DELETED event is
+ * delivered, typically within milliseconds of the commit. If the listen connection drops the
+ * whole cache is cleared; {@code task.cache.ttl-seconds} bounds what is left (a read racing
+ * that clear).
+ *
+ * <p>Hit, miss, eviction and size metrics are exported under the {@code cache.*}
+ * Micrometer meters with tag {@code cache=tasks}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaskCache {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${task.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${task.cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private Cache<Long, GetTaskResponse> cache;
+
+    // Write generations by id stripe; two ids sharing a stripe only cost an occasional miss
+    private static final int GENERATION_STRIPES = 1024;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @PostConstruct
+    private void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tasks");
+        log.debug("Task cache initialized (maxSize={}, ttlSeconds={})", maxSize, ttlSeconds);
+    }
+
+    public GetTaskResponse get(Long taskId) {
+        return cache.getIfPresent(taskId);
+    }
+
+    /** Write generation of {@code taskId}; take it before loading the row from the database. */
+    public long generation(Long taskId) {
+        return generations.get(stripe(taskId));
+    }
+
+    /**
+     * Caches a row loaded by a reader, unless an entry already exists or a write committed
+     * since the reader took {@code generation}.
+     */
+    public void putIfAbsent(GetTaskResponse task, long generation) {
+        // Writers bump the generation before they touch the entry, and compute is atomic per
+        // key, so a stale row is either rejected here or removed by the writer afterwards
+        cache.asMap().compute(task.getId(), (taskId, current) ->
+                current != null || generations.get(stripe(taskId)) != generation ? current : task);
+    }
+
+    public void put(GetTaskResponse task) {
+        afterCommit(() -> {
+            generations.incrementAndGet(stripe(task.getId()));
+            cache.put(task.getId(), task);
+        });
+    }
+
+    public void evict(Long taskId) {
+        afterCommit(() -> {
+            generations.incrementAndGet(stripe(taskId));
+            cache.invalidate(taskId);
+        });
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+        log.info("Cleared task cache");
+    }
+
+    private static int stripe(Long taskId) {
+        return Math.floorMod(Long.hashCode(taskId), GENERATION_STRIPES);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.taskmanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.api.dto.GetTaskResponse;
+import com.taskmanager.api.dto.TaskEvent;
+import com.taskmanager.api.enums.TaskEventType;
+import com.taskmanager.domain.repository.TaskRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+
+/**
+ * Receives the task events every replica sends through {@link TaskEventPublisher}, evicts
+ * changed tasks from this pod's {@link TaskCache} and hands the events to this pod's
+ * subscribers.
+ *
+ * <p>One pooled connection per pod is held for {@code LISTEN} and polled from a virtual
+ * thread. Notifications sent while the connection is down are lost, so when it drops the
+ * cache is cleared and every subscriber is disconnected to catch up through
+ * {@code GET /task/changes}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaskEventListener {
+
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final DataSource dataSource;
+    private final TaskEventPublisher taskEventPublisher;
+    private final TaskRepository taskRepository;
+    private final TaskCache taskCache;
+    private final ObjectMapper objectMapper;
+
+    @Value("${task.events.listen-poll-ms:500}")
+    private int pollMillis;
+
+    @Value("${task.events.reconnect-backoff-ms:1000}")
+    private long reconnectBackoffMillis;
+
+    private volatile boolean running;
+
+    private Thread listener;
+
+    @PostConstruct
+    void start() {
+        running = true;
+        listener = Thread.ofVirtual().name("task-events-listen").start(this::listen);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        listener.interrupt();
+    }
+
+    private void listen() {
+        long backoff = reconnectBackoffMillis;
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + TaskEventPublisher.CHANNEL);
+                }
+                if (reconnecting) {
+                    // Anything sent while we were away is gone; forget what it may have changed
+                    taskCache.clear();
+                    taskEventPublisher.disconnectAll();
+                }
+                log.info("Listening for task events on channel {}", TaskEventPublisher.CHANNEL);
+                backoff = reconnectBackoffMillis;
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            deliver(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Task event listen connection lost, retrying in {} ms: {}", backoff, e.getMessage());
+                taskCache.clear();
+                taskEventPublisher.disconnectAll();
+                reconnecting = true;
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    void deliver(String payload) {
+        TaskEvent event;
+        try {
+            event = objectMapper.readValue(payload, TaskEvent.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed task event payload: {}", e.getMessage());
+            return;
+        }
+        if (event.getType() != TaskEventType.CREATED) {
+            // Also evicts this pod's own write-through entry: one extra miss, never a stale hit
+            taskCache.evict(event.getId());
+        }
+        if (event.getType() != TaskEventType.DELETED && event.getTask() == null) {
+            // Sent by id because the task was too large for a NOTIFY payload
+            Optional<GetTaskResponse> task = taskRepository.findResponseById(event.getId());
+            if (task.isEmpty()) {
+                // Deleted since; its DELETED event follows
+                return;
+            }
+            event = TaskEvent.builder().type(event.getType()).id(event.getId()).task(task.get()).build();
+        }
+        taskEventPublisher.dispatch(event);
+    }
+}
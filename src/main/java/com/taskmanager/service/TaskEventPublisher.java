@@ -0,0 +1,221 @@
+package com.taskmanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.api.dto.GetTaskResponse;
+import com.taskmanager.api.dto.TaskEvent;
+import com.taskmanager.api.enums.TaskEventType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans task create/update/delete events out to {@code GET /task/events} subscribers on every
+ * replica.
+ *
+ * <p>Writers do not dispatch locally: {@link #publishCreated} and friends send the event as a
+ * PostgreSQL {@code NOTIFY} on channel {@value #CHANNEL}, which the database delivers when the
+ * writing transaction commits (and drops when it rolls back). Events of one transaction go out
+ * in a single statement just before commit. {@link TaskEventListener} holds one {@code LISTEN}
+ * connection per pod and hands every notification, this pod's included, to {@link #dispatch}.
+ * A payload must stay under 8000 bytes, so a task with a larger body is sent by id and the
+ * listener loads it.
+ *
+ * <p>Each subscriber gets a bounded buffer drained by its own virtual thread, so a slow
+ * client never blocks the listener. A subscriber whose buffer fills up is disconnected rather
+ * than allowed to grow; it reconnects and catches up through {@code GET /task/changes}.
+ *
+ * <p>Subscriber count and disconnects are exported as {@code task.events.subscribers} and
+ * {@code task.events.dropped}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaskEventPublisher {
+
+    static final String CHANNEL = "task_events";
+
+    // NOTIFY rejects payloads of 8000 bytes or more; leaves room for the id-only form
+    static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, payload) FROM unnest(?::text[]) AS payload";
+
+    private final MeterRegistry meterRegistry;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${task.events.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${task.events.heartbeat-seconds:15}")
+    private long heartbeatSeconds;
+
+    @Value("${task.events.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private Executor drainExecutor = runnable -> Thread.ofVirtual().name("task-events").start(runnable);
+
+    private Counter droppedSubscribers;
+
+    @PostConstruct
+    private void init() {
+        meterRegistry.gaugeCollectionSize("task.events.subscribers", Tags.empty(), subscribers);
+        droppedSubscribers = Counter.builder("task.events.dropped")
+                .description("Subscribers disconnected because their event buffer was full")
+                .register(meterRegistry);
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(Duration.ofMinutes(timeoutMinutes).toMillis());
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        drainExecutor.execute(() -> drain(subscriber));
+        log.debug("Task event subscriber added ({} active)", subscribers.size());
+        return emitter;
+    }
+
+    public void publishCreated(GetTaskResponse task) {
+        publish(TaskEvent.builder().type(TaskEventType.CREATED).id(task.getId()).task(task).build());
+    }
+
+    public void publishUpdated(GetTaskResponse task) {
+        publish(TaskEvent.builder().type(TaskEventType.UPDATED).id(task.getId()).task(task).build());
+    }
+
+    public void publishDeleted(Long taskId) {
+        publish(TaskEvent.builder().type(TaskEventType.DELETED).id(taskId).build());
+    }
+
+    private void publish(TaskEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(List.of(event));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<TaskEvent> pending = (List<TaskEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<TaskEvent> events = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, events);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // Still inside the transaction: PostgreSQL only delivers these if it commits
+                    send(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TaskEventPublisher.this);
+                }
+            });
+            pending = events;
+        }
+        pending.add(event);
+    }
+
+    private void send(List<TaskEvent> events) {
+        String[] payloads = events.stream().map(this::payload).toArray(String[]::new);
+        jdbcTemplate.query(NOTIFY_SQL, (RowCallbackHandler) row -> { }, CHANNEL, payloads);
+    }
+
+    private String payload(TaskEvent event) {
+        try {
+            String payload = objectMapper.writeValueAsString(event);
+            if (payload.getBytes(StandardCharsets.UTF_8).length < MAX_PAYLOAD_BYTES) {
+                return payload;
+            }
+            // Too large for NOTIFY: the listener loads the task by id
+            return objectMapper.writeValueAsString(TaskEvent.builder().type(event.getType()).id(event.getId()).build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialise task event " + event.getId(), e);
+        }
+    }
+
+    /** Hands an event received from the database to this pod's subscribers. */
+    void dispatch(TaskEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue.offer(event)) {
+                log.warn("Dropping slow task event subscriber ({} events buffered)", bufferSize);
+                droppedSubscribers.increment();
+                remove(subscriber);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        subscriber.drainer = Thread.currentThread();
+        try {
+            while (subscribers.contains(subscriber)) {
+                TaskEvent event = subscriber.queue.poll(heartbeatSeconds, TimeUnit.SECONDS);
+                if (event == null) {
+                    // Comment lines keep proxies from closing an idle stream and surface dead clients
+                    subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .name(event.getType().name().toLowerCase(Locale.ROOT))
+                            .data(event, MediaType.APPLICATION_JSON));
+                }
+            }
+            subscriber.emitter.complete();
+        } catch (InterruptedException e) {
+            subscriber.emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Task event subscriber went away: {}", e.getMessage());
+            remove(subscriber);
+        }
+    }
+
+    /**
+     * Disconnects every subscriber. Used when notifications may have been missed (the listen
+     * connection was lost); clients reconnect and catch up through {@code GET /task/changes}.
+     */
+    void disconnectAll() {
+        subscribers.forEach(this::remove);
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber) && subscriber.drainer != null) {
+            subscriber.drainer.interrupt();
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<TaskEvent> queue;
+        private volatile Thread drainer;
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<TaskEvent> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.taskmanager.api.dto.*;
 import com.taskmanager.domain.model.Tasks;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface TaskService 
 {
@@ -18,5 +19,21 @@ public interface TaskService
 
 	List<GetTaskResponse> getAllTasks();
 
+	List<GetTaskResponse> getTasksPage(Long afterId, int limit);
+
+	long getChangeCount();
+
+	TaskChangesResponse getChangesSince(String sinceToken);
+
+	List<GetTaskResponse> searchTasks(TaskSearchCriteria criteria, Long afterId, int limit);
+
+	void streamAllTasks(Consumer<GetTaskResponse> consumer);
+
 	Tasks findByTitle(String title);
+
+	List<BatchItemResult> saveTasks(List<SaveTaskRequest> saveRequests);
+
+	List<BatchItemResult> updateTasks(List<UpdateTaskRequest> updateRequests);
+
+	List<BatchItemResult> deleteTasks(List<Long> taskIds);
 }
@@ -3,22 +3,67 @@ package com.taskmanager.service;
 
 import com.taskmanager.domain.repository.TaskRepository;
 import com.taskmanager.api.dto.*;
+import com.taskmanager.api.enums.BatchItemStatus;
 import com.taskmanager.domain.model.Tasks;
+import com.taskmanager.exception.BadRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class TaskServiceImpl implements TaskService {
-	
+
+	/** Unique index on tasks.title, created by migration V3. */
+	static final String TITLE_UNIQUE_INDEX = "ux_tasks_title";
+
+	// A batch that loses a title race is re-run once; a second loss is reported to the client
+	private static final int MAX_BATCH_ATTEMPTS = 2;
+
+	private static final Pattern CHANGE_TOKEN = Pattern.compile("(\\d+)_(\\d+)");
+
 	private final TaskRepository taskRepository;
+	private final TaskCache taskCache;
+	private final TaskEventPublisher taskEventPublisher;
+	private final TransactionTemplate transactionTemplate;
+
+	@Value("${task.update.max-attempts:3}")
+	private int maxUpdateAttempts;
+
+	@Value("${task.changes.max-results:1000}")
+	private int changesMaxResults;
+
+	@Value("${task.changes.tombstone-retention-days:30}")
+	private int tombstoneRetentionDays;
 
 	@Override
 	@Transactional
@@ -27,6 +72,10 @@ public class TaskServiceImpl implements TaskService {
 		Tasks tasks = Tasks.builder().title(saveRequest.getTitle()).
         description(saveRequest.getDescription()).status(saveRequest.getStatus()).build();
 		Tasks savedTasks = taskRepository.save(tasks);
+		flushOrRejectDuplicateTitle(saveRequest.getTitle());
+		GetTaskResponse saved = toResponse(savedTasks);
+		taskCache.put(saved);
+		taskEventPublisher.publishCreated(saved);
 		log.info("Saved task with id={} title={}", savedTasks.getTaskId(), savedTasks.getTitle());
 		return savedTasks.getTaskId();
 	}
@@ -34,14 +83,17 @@ public class TaskServiceImpl implements TaskService {
 	@Override
 	@Transactional(readOnly = true)
 	public GetTaskResponse getTask(Integer taskId) {
+		GetTaskResponse cached = taskCache.get(taskId.longValue());
+		if (cached != null) {
+			return cached;
+		}
+		// Taken before the read, so a write committing while we load the row keeps it out of the cache
+		long generation = taskCache.generation(taskId.longValue());
 		GetTaskResponse getResponse = null;
-		Optional<Tasks> result = taskRepository.findById(taskId.longValue());
+		Optional<GetTaskResponse> result = taskRepository.findResponseById(taskId.longValue());
 		if (result.isPresent()) {
-		Tasks tasks = result.get();
-		getResponse = GetTaskResponse.builder().
-				id(tasks.getTaskId()).title(tasks.getTitle()).
-				description(tasks.getDescription()).status(tasks.getStatus())
-				.build();
+			getResponse = result.get();
+			taskCache.putIfAbsent(getResponse, generation);
 		}
 		return getResponse;
 	}
@@ -49,16 +101,34 @@ public class TaskServiceImpl implements TaskService {
 	@Override
 	@Transactional
 	public boolean deleteTask(Integer taskId) {
-		// Directly delete by id (repository will handle existence). This keeps service simple
-		// and matches unit tests which expect deleteById to be invoked.
-		taskRepository.deleteById(taskId.longValue());
+		// One DELETE whose row count tells a missing id apart, so no phantom DELETED event is published
+		if (taskRepository.deleteRowById(taskId.longValue()) == 0) {
+			return false;
+		}
+		taskCache.evict(taskId.longValue());
+		taskEventPublisher.publishDeleted(taskId.longValue());
 		log.info("Deleted task with id={}", taskId);
 		return true;
 	}
 
 	@Override
-	@Transactional
 	public boolean updateTask(UpdateTaskRequest updateRequest) {
+		// Each attempt runs in its own transaction so a retry re-reads the current version
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return Boolean.TRUE.equals(transactionTemplate.execute(status -> applyUpdate(updateRequest)));
+			} catch (OptimisticLockingFailureException e) {
+				if (attempt >= maxUpdateAttempts) {
+					log.warn("Giving up updating task id={} after {} conflicting attempts", updateRequest.getId(), attempt);
+					throw e;
+				}
+				log.info("Concurrent modification of task id={}, retrying (attempt {}/{})",
+						updateRequest.getId(), attempt, maxUpdateAttempts);
+			}
+		}
+	}
+
+	private boolean applyUpdate(UpdateTaskRequest updateRequest) {
 		Optional<Tasks> result = taskRepository.findById(updateRequest.getId().longValue());
 		if (result.isPresent()) {
 			Tasks tasks = result.get();
@@ -66,6 +136,10 @@ public class TaskServiceImpl implements TaskService {
 			tasks.setDescription(updateRequest.getDescription());
 			tasks.setStatus(updateRequest.getStatus());
 			taskRepository.save(tasks);
+			flushOrRejectDuplicateTitle(updateRequest.getTitle());
+			GetTaskResponse updated = toResponse(tasks);
+			taskCache.put(updated);
+			taskEventPublisher.publishUpdated(updated);
 			log.info("Updated task id={} title={}", updateRequest.getId(), updateRequest.getTitle());
 			return true;
 		}
@@ -75,11 +149,77 @@ public class TaskServiceImpl implements TaskService {
 	@Override
 	@Transactional(readOnly = true)
 	public List<GetTaskResponse> getAllTasks() {
-		List<Tasks> empList = taskRepository.findAll();
-		 return empList.stream().map(tasks -> GetTaskResponse.builder().
-					id(tasks.getTaskId()).title(tasks.getTitle()).
-					description(tasks.getDescription()).status(tasks.getStatus())
-					.build()).toList();
+		return taskRepository.findAllResponses();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<GetTaskResponse> getTasksPage(Long afterId, int limit) {
+		long cursor = afterId == null ? 0L : afterId;
+		List<GetTaskResponse> page = taskRepository.findResponsePage(cursor, PageRequest.of(0, limit));
+		log.debug("Fetched {} tasks after id={} (limit={})", page.size(), cursor, limit);
+		return page;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public long getChangeCount() {
+		return taskRepository.currentChangeCount();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public TaskChangesResponse getChangesSince(String sinceToken) {
+		// Windows are bounded by transaction ids, not clocks: every writer below the horizon has
+		// finished, and one still open has an id at or above it and is picked up by a later call
+		TaskRepository.ChangeHorizon horizon = taskRepository.currentChangeHorizon();
+		ChangeToken since = sinceToken == null ? null : decodeChangeToken(sinceToken);
+		if (since == null || since.issuedEpochSecond()
+				< horizon.getNowEpochSecond() - Duration.ofDays(tombstoneRetentionDays).toSeconds()) {
+			return resyncRequired(new ChangeToken(horizon.getHorizonXid(), horizon.getNowEpochSecond()));
+		}
+		// Re-issued with the current time so an idle feed does not age into a resync
+		ChangeToken until = new ChangeToken(Math.max(since.xid(), horizon.getHorizonXid()), horizon.getNowEpochSecond());
+		if (since.xid() >= until.xid()) {
+			return TaskChangesResponse.builder().upserts(List.of()).deletes(List.of())
+					.nextToken(encodeChangeToken(until)).build();
+		}
+
+		// One extra row tells us the window overflowed without counting it
+		PageRequest page = PageRequest.of(0, changesMaxResults + 1);
+		List<GetTaskResponse> upserts = taskRepository.findChangedBetween(since.xid(), until.xid(), page);
+		List<Long> deletes = taskRepository.findDeletedIdsBetween(since.xid(), until.xid(), page);
+		if (upserts.size() > changesMaxResults || deletes.size() > changesMaxResults) {
+			log.info("More than {} task changes since xid {}, asking client to resync", changesMaxResults, since.xid());
+			return resyncRequired(until);
+		}
+		log.debug("{} upserts and {} deletes between xid {} and {}", upserts.size(), deletes.size(), since.xid(), until.xid());
+		return TaskChangesResponse.builder().upserts(upserts).deletes(deletes)
+				.nextToken(encodeChangeToken(until)).build();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<GetTaskResponse> searchTasks(TaskSearchCriteria criteria, Long afterId, int limit) {
+		if (criteria.query() != null) {
+			List<GetTaskResponse> ranked = taskRepository.fullTextSearch(criteria, limit);
+			log.debug("Full-text search {} returned {} tasks (limit={})", criteria, ranked.size(), limit);
+			return ranked;
+		}
+		long cursor = afterId == null ? 0L : afterId;
+		List<GetTaskResponse> page = taskRepository.search(criteria, cursor, limit);
+		log.debug("Search {} returned {} tasks after id={} (limit={})", criteria, page.size(), cursor, limit);
+		return page;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void streamAllTasks(Consumer<GetTaskResponse> consumer) {
+		// Rows come off a JDBC cursor as plain DTOs (never managed entities), so the
+		// persistence context and the heap stay flat no matter how large the table is
+		try (Stream<GetTaskResponse> rows = taskRepository.streamAllResponses()) {
+			rows.forEach(consumer);
+		}
 	}
 
 	
@@ -93,4 +233,220 @@ public class TaskServiceImpl implements TaskService {
 		return null;
 	}
 
+	@Override
+	public List<BatchItemResult> saveTasks(List<SaveTaskRequest> saveRequests) {
+		return inBatchTransaction(() -> applySaveTasks(saveRequests));
+	}
+
+	private List<BatchItemResult> applySaveTasks(List<SaveTaskRequest> saveRequests) {
+		Set<String> takenTitles = taskRepository.findByTitleIn(
+				saveRequests.stream().map(SaveTaskRequest::getTitle).collect(Collectors.toSet()))
+				.stream().map(Tasks::getTitle).collect(Collectors.toCollection(HashSet::new));
+
+		BatchItemResult[] results = new BatchItemResult[saveRequests.size()];
+		List<Tasks> toSave = new ArrayList<>();
+		List<Integer> toSaveIndexes = new ArrayList<>();
+		for (int i = 0; i < saveRequests.size(); i++) {
+			SaveTaskRequest saveRequest = saveRequests.get(i);
+			// add() also rejects titles repeated within the same batch
+			if (!takenTitles.add(saveRequest.getTitle())) {
+				results[i] = duplicateTitle(i, null, saveRequest.getTitle());
+				continue;
+			}
+			toSave.add(Tasks.builder().title(saveRequest.getTitle())
+					.description(saveRequest.getDescription()).status(saveRequest.getStatus()).build());
+			toSaveIndexes.add(i);
+		}
+
+		List<Tasks> saved = taskRepository.saveAll(toSave);
+		// A title created by a concurrent request after the check above fails here, not at commit
+		taskRepository.flush();
+		for (int j = 0; j < saved.size(); j++) {
+			Tasks tasks = saved.get(j);
+			GetTaskResponse created = toResponse(tasks);
+			taskCache.put(created);
+			taskEventPublisher.publishCreated(created);
+			results[toSaveIndexes.get(j)] = BatchItemResult.builder().index(toSaveIndexes.get(j))
+					.id(tasks.getTaskId()).status(BatchItemStatus.CREATED).build();
+		}
+		log.info("Batch saved {} of {} tasks", saved.size(), saveRequests.size());
+		return List.of(results);
+	}
+
+	@Override
+	public List<BatchItemResult> updateTasks(List<UpdateTaskRequest> updateRequests) {
+		return inBatchTransaction(() -> applyUpdateTasks(updateRequests));
+	}
+
+	private List<BatchItemResult> applyUpdateTasks(List<UpdateTaskRequest> updateRequests) {
+		Map<Long, Tasks> existing = taskRepository.findAllById(
+				updateRequests.stream().map(UpdateTaskRequest::getId).collect(Collectors.toSet()))
+				.stream().collect(Collectors.toMap(Tasks::getTaskId, Function.identity()));
+		Map<String, Long> titleOwners = new HashMap<>();
+		taskRepository.findByTitleIn(
+				updateRequests.stream().map(UpdateTaskRequest::getTitle).collect(Collectors.toSet()))
+				.forEach(tasks -> titleOwners.put(tasks.getTitle(), tasks.getTaskId()));
+
+		BatchItemResult[] results = new BatchItemResult[updateRequests.size()];
+		List<Tasks> toSave = new ArrayList<>();
+		for (int i = 0; i < updateRequests.size(); i++) {
+			UpdateTaskRequest updateRequest = updateRequests.get(i);
+			Tasks tasks = existing.get(updateRequest.getId());
+			if (tasks == null) {
+				results[i] = BatchItemResult.builder().index(i).id(updateRequest.getId())
+						.status(BatchItemStatus.NOT_FOUND).message("No records found for taskId = " + updateRequest.getId())
+						.build();
+				continue;
+			}
+			Long owner = titleOwners.putIfAbsent(updateRequest.getTitle(), updateRequest.getId());
+			if (owner != null && !owner.equals(updateRequest.getId())) {
+				results[i] = duplicateTitle(i, updateRequest.getId(), updateRequest.getTitle());
+				continue;
+			}
+			tasks.setTitle(updateRequest.getTitle());
+			tasks.setDescription(updateRequest.getDescription());
+			tasks.setStatus(updateRequest.getStatus());
+			toSave.add(tasks);
+			results[i] = BatchItemResult.builder().index(i).id(updateRequest.getId())
+					.status(BatchItemStatus.UPDATED).build();
+		}
+
+		// Entities are managed, so the UPDATEs go out as one JDBC batch. Flushing before caching
+		// means the cached responses carry the incremented versions their ETags are built from
+		taskRepository.saveAll(toSave);
+		taskRepository.flush();
+		toSave.forEach(tasks -> {
+			GetTaskResponse updated = toResponse(tasks);
+			taskCache.put(updated);
+			taskEventPublisher.publishUpdated(updated);
+		});
+		log.info("Batch updated {} of {} tasks", toSave.size(), updateRequests.size());
+		return List.of(results);
+	}
+
+	@Override
+	@Transactional
+	public List<BatchItemResult> deleteTasks(List<Long> taskIds) {
+		// Outcomes come from the rows this DELETE removed, not from an earlier read that a
+		// concurrent delete could have made stale
+		Set<Long> deletedIds = Set.copyOf(taskRepository.deleteAllByIdReturningIds(Set.copyOf(taskIds)));
+		deletedIds.forEach(taskId -> {
+			taskCache.evict(taskId);
+			taskEventPublisher.publishDeleted(taskId);
+		});
+
+		List<BatchItemResult> results = new ArrayList<>(taskIds.size());
+		for (int i = 0; i < taskIds.size(); i++) {
+			Long taskId = taskIds.get(i);
+			results.add(deletedIds.contains(taskId)
+					? BatchItemResult.builder().index(i).id(taskId).status(BatchItemStatus.DELETED).build()
+					: BatchItemResult.builder().index(i).id(taskId).status(BatchItemStatus.NOT_FOUND)
+							.message("No records found for taskId = " + taskId).build());
+		}
+		log.info("Batch deleted {} of {} tasks", deletedIds.size(), taskIds.size());
+		return results;
+	}
+
+	// Each attempt runs in its own transaction. When a title the batch checked as free is
+	// committed by a concurrent request, the flush fails and the whole attempt rolls back
+	// (cache puts and events with it); the next attempt's findByTitleIn sees that title and
+	// marks only its item DUPLICATE_TITLE, so the rest of the batch is still written
+	private List<BatchItemResult> inBatchTransaction(Supplier<List<BatchItemResult>> batch) {
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return transactionTemplate.execute(status -> batch.get());
+			} catch (DataIntegrityViolationException e) {
+				if (!isTitleViolation(e)) {
+					throw e;
+				}
+				if (attempt >= MAX_BATCH_ATTEMPTS) {
+					log.warn("Batch lost a title race {} times, giving up", attempt);
+					throw new BadRequest("A title in the batch was created concurrently, please retry");
+				}
+				log.info("Title created concurrently with a batch, re-checking titles (attempt {}/{})",
+						attempt, MAX_BATCH_ATTEMPTS);
+			}
+		}
+	}
+
+	// Flushing here makes the INSERT/UPDATE hit the unique index inside this method, so a
+	// duplicate title is reported as BadRequest rather than an opaque failure at commit
+	private void flushOrRejectDuplicateTitle(String title) {
+		try {
+			taskRepository.flush();
+		} catch (DataIntegrityViolationException e) {
+			if (isTitleViolation(e)) {
+				log.warn("Title already exists: {}", title);
+				throw new BadRequest("Title already exists: " + title);
+			}
+			throw e;
+		}
+	}
+
+	private static boolean isTitleViolation(DataIntegrityViolationException e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConstraintViolationException violation
+					&& TITLE_UNIQUE_INDEX.equalsIgnoreCase(violation.getConstraintName())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private TaskChangesResponse resyncRequired(ChangeToken until) {
+		return TaskChangesResponse.builder().upserts(List.of()).deletes(List.of())
+				.nextToken(encodeChangeToken(until)).resyncRequired(true).build();
+	}
+
+	/**
+	 * Position in the change feed: the transaction-id horizon the last window stopped at, and
+	 * when (database clock) it was issued, which decides whether tombstones may have been purged.
+	 */
+	private record ChangeToken(long xid, long issuedEpochSecond) {
+	}
+
+	// Tokens are opaque to clients: "<xid>_<epoch second>", base64url encoded
+	private String encodeChangeToken(ChangeToken token) {
+		String raw = token.xid() + "_" + token.issuedEpochSecond();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// Returns null for a timestamp token issued before the feed moved to transaction ids, which
+	// cannot be mapped onto one; the caller answers it with resyncRequired
+	private ChangeToken decodeChangeToken(String token) {
+		String raw;
+		try {
+			raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequest("Invalid change token: " + token);
+		}
+		Matcher matcher = CHANGE_TOKEN.matcher(raw);
+		if (matcher.matches()) {
+			try {
+				return new ChangeToken(Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)));
+			} catch (NumberFormatException e) {
+				throw new BadRequest("Invalid change token: " + token);
+			}
+		}
+		try {
+			LocalDateTime.parse(raw);
+			return null;
+		} catch (DateTimeParseException e) {
+			throw new BadRequest("Invalid change token: " + token);
+		}
+	}
+
+	private BatchItemResult duplicateTitle(int index, Long taskId, String title) {
+		return BatchItemResult.builder().index(index).id(taskId)
+				.status(BatchItemStatus.DUPLICATE_TITLE).message("Title already exists: " + title).build();
+	}
+
+	private GetTaskResponse toResponse(Tasks tasks) {
+		return GetTaskResponse.builder().
+				id(tasks.getTaskId()).title(tasks.getTitle()).
+				description(tasks.getDescription()).status(tasks.getStatus())
+				.version(tasks.getVersion())
+				.build();
+	}
+
  }
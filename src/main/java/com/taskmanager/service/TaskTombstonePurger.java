@@ -0,0 +1,33 @@
+package com.taskmanager.service;
+
+import com.taskmanager.domain.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Drops delete tombstones older than the change-feed retention. Tokens older than the
+ * retention are answered with {@code resyncRequired}, so nothing reads these rows any more.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaskTombstonePurger {
+
+    private final TaskRepository taskRepository;
+
+    @Value("${task.changes.tombstone-retention-days:30}")
+    private int retentionDays;
+
+    @Scheduled(cron = "${task.changes.tombstone-purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpiredTombstones() {
+        int purged = taskRepository.purgeTombstonesBefore(LocalDateTime.now().minusDays(retentionDays));
+        log.info("Purged {} task tombstones older than {} days", purged, retentionDays);
+    }
+}
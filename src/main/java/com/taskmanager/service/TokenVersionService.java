@@ -0,0 +1,110 @@
+package com.taskmanager.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.taskmanager.domain.repository.UserInfoRepository;
+import com.taskmanager.security.jwt.VerifiedClaims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Revocation check for stateless authentication.
+ *
+ * <p>Every token carries the user's {@code token_version} at issue time; a token is only
+ * accepted while that still equals the current value. Current versions are held in a small
+ * Caffeine cache, so an authenticated request costs one map lookup and a database read
+ * happens at most once per user per {@code jwt.token-version.cache-ttl-seconds}.
+ *
+ * <p>{@link #revokeTokens} takes effect immediately on this instance and within one TTL on
+ * the others. Anything that changes a user's roles must call it too, because the role claim
+ * is trusted for the rest of the token's lifetime.
+ *
+ * <p>Metrics are exported under {@code cache.*} with tag {@code cache=token-versions}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionService {
+
+    // Loaded for unknown emails, so tokens of a deleted user stop working within one TTL
+    private static final long UNKNOWN_USER = -1L;
+
+    private final UserInfoRepository repository;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${jwt.token-version.cache-max-size:10000}")
+    private long maxSize;
+
+    @Value("${jwt.token-version.cache-ttl-seconds:30}")
+    private long ttlSeconds;
+
+    private LoadingCache<String, Long> versions;
+
+    @PostConstruct
+    private void init() {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build(email -> repository.findTokenVersionByEmail(email).orElse(UNKNOWN_USER));
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "token-versions");
+        log.debug("Token version cache initialized (maxSize={}, ttlSeconds={})", maxSize, ttlSeconds);
+    }
+
+    public long currentVersion(String email) {
+        return versions.get(email);
+    }
+
+    public boolean isCurrent(VerifiedClaims claims) {
+        return claims.tokenVersion() == currentVersion(claims.email());
+    }
+
+    /**
+     * Reads the version from the database, bypassing this cache and the {@code UserDetails}
+     * cache, for stamping a newly issued token. A version cached before a revoke on another
+     * instance would otherwise produce a token that is rejected as soon as that cache expires.
+     */
+    public long issueVersion(String email) {
+        return repository.findTokenVersionByEmail(email).orElse(UNKNOWN_USER);
+    }
+
+    /**
+     * Invalidates every token issued to the user so far.
+     *
+     * @return {@code true} if the user exists
+     */
+    @Transactional
+    public boolean revokeTokens(String email) {
+        boolean updated = repository.incrementTokenVersion(email) > 0;
+        // Dropped after commit: reloading before then would cache the old version again
+        afterCommit(() -> versions.invalidate(email));
+        // The cached principal carries the old version; drop it so it is not served until it expires
+        userDetailsService.evict(email);
+        log.info("Revoked tokens for email={}", email);
+        return updated;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,31 +1,108 @@
 package com.taskmanager.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.taskmanager.security.UserInfoUserDetails;
 import com.taskmanager.domain.repository.UserInfoRepository;
 import com.taskmanager.domain.model.UserInfo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.util.Optional;
 
+/**
+ * Loads users for login ({@code DaoAuthenticationProvider}) and for {@code JWTFilter} when
+ * {@code jwt.stateless=false}, through a bounded Caffeine cache keyed by email.
+ *
+ * <p>Only found users are cached, so a user registered after a failed lookup is visible at
+ * once. Anything that writes a {@code UserInfo} row must call {@link #evict} so the next
+ * lookup on this instance sees it; other instances pick it up within
+ * {@code user.cache.ttl-seconds}. Metrics are exported under {@code cache.*} with tag
+ * {@code cache=users}.
+ *
+ * <p>As the {@link UserDetailsPasswordService} of the login provider it also stores hashes
+ * that were re-encoded after a successful login (new encoder or BCrypt strength).
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserInfoRepository repository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${user.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${user.cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    // UserInfoUserDetails is not a CredentialsContainer, so ProviderManager never erases the
+    // password hash of a cached instance after a successful login
+    private Cache<String, UserInfoUserDetails> cache;
+
+    @PostConstruct
+    private void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+        log.debug("User cache initialized (maxSize={}, ttlSeconds={})", maxSize, ttlSeconds);
+    }
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+        // Caffeine rejects null keys; a null email simply falls through to the (empty) query
+        UserInfoUserDetails cached = email == null ? null : cache.getIfPresent(email);
+        if (cached != null) {
+            return cached;
+        }
         Optional<UserInfo> userInfo = repository.findByEmail(email);
         if (userInfo.isEmpty()) {
             log.warn("User not found for email={}", email);
         }
-        return userInfo.map(UserInfoUserDetails::new).orElseThrow(() -> new UsernameNotFoundException("Email not found " + email));
+        UserInfoUserDetails userDetails = userInfo.map(UserInfoUserDetails::new)
+                .orElseThrow(() -> new UsernameNotFoundException("Email not found " + email));
+        if (email != null) {
+            cache.put(email, userDetails);
+        }
+        return userDetails;
+    }
+
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        repository.updatePassword(user.getUsername(), newPassword);
+        evict(user.getUsername());
+        log.info("Re-encoded password hash for email={}", user.getUsername());
+        return repository.findByEmail(user.getUsername()).<UserDetails>map(UserInfoUserDetails::new).orElse(user);
+    }
 
+    public void evict(String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(email);
+                }
+            });
+        } else {
+            cache.invalidate(email);
+        }
     }
 }
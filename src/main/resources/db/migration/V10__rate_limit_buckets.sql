@@ -0,0 +1,10 @@
+-- Shared Bucket4j state for rate.limit.backend=postgresql, one row per rate-limit key.
+-- expires_at (epoch millis) is set by Bucket4j once the bucket would be full again; expired
+-- rows are deleted by RateLimitBucketPurger.
+CREATE TABLE IF NOT EXISTS rate_limit_buckets (
+    id          VARCHAR(255) PRIMARY KEY,
+    state       BYTEA,
+    expires_at  BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS ix_rate_limit_buckets_expires_at ON rate_limit_buckets (expires_at);
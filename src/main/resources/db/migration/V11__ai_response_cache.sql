@@ -0,0 +1,11 @@
+-- Shared AI response cache for ai.cache.backend=postgresql, one row per prompt.
+-- prompt_hash is the SHA-256 (hex) of model, feature and full prompt; expired rows are no
+-- longer read and are deleted by AIResponseCachePurger.
+CREATE TABLE IF NOT EXISTS ai_response_cache (
+    prompt_hash  CHAR(64)     PRIMARY KEY,
+    feature      VARCHAR(64)  NOT NULL,
+    response     TEXT         NOT NULL,
+    expires_at   TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS ix_ai_response_cache_expires_at ON ai_response_cache (expires_at);
@@ -0,0 +1,19 @@
+-- Asynchronous document imports (POST /ai/task/import-jobs). The uploaded file is kept in
+-- document until a worker has processed it; task_ids holds the comma-separated ids of the
+-- created tasks. Finished jobs are deleted by DocumentImportJobPurger after the retention.
+CREATE TABLE IF NOT EXISTS document_import_jobs (
+    id            UUID         PRIMARY KEY,
+    status        VARCHAR(16)  NOT NULL,
+    filename      VARCHAR(255),
+    content_type  VARCHAR(255),
+    document      BYTEA,
+    submitted_by  VARCHAR(255) NOT NULL,
+    task_ids      TEXT,
+    error         TEXT,
+    created_date  TIMESTAMP(6) NOT NULL,
+    started_date  TIMESTAMP(6),
+    finished_date TIMESTAMP(6)
+);
+
+-- Workers poll for the oldest queued jobs; the purge and stale-job checks scan by status too
+CREATE INDEX IF NOT EXISTS ix_document_import_jobs_status ON document_import_jobs (status, created_date);
@@ -0,0 +1,3 @@
+-- Extracted titles an import did not save because a task with that title already exists
+-- (ux_tasks_title); newline-separated
+ALTER TABLE document_import_jobs ADD COLUMN IF NOT EXISTS skipped_titles TEXT;
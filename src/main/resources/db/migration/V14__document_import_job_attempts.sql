@@ -0,0 +1,2 @@
+-- Times a worker has claimed the job; a job requeued this often is failed instead
+ALTER TABLE document_import_jobs ADD COLUMN IF NOT EXISTS attempts INT NOT NULL DEFAULT 0;
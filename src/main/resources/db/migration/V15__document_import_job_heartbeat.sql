@@ -0,0 +1,4 @@
+-- Lease of a RUNNING job: renewed by the pod running it, so a job is only failed as stale
+-- once its pod has stopped heartbeating, however long the import itself takes
+ALTER TABLE document_import_jobs ADD COLUMN IF NOT EXISTS heartbeat_date TIMESTAMP(6);
+UPDATE document_import_jobs SET heartbeat_date = started_date WHERE status = 'RUNNING' AND heartbeat_date IS NULL;
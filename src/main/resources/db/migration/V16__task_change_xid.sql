@@ -0,0 +1,31 @@
+-- Change feed cursor on transaction ids instead of clocks. Each row (and tombstone) is stamped
+-- with the id of the transaction that last wrote it. Every transaction below
+-- pg_snapshot_xmin(pg_current_snapshot()) has finished, so GET /task/changes returns rows with
+-- change_xid in [previous horizon, current horizon): all committed, none still in flight,
+-- however long a writer took between stamping last_modified_date and committing.
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS change_xid BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE task_tombstones ADD COLUMN IF NOT EXISTS change_xid BIGINT NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION stamp_task_change_xid() RETURNS trigger AS $$
+BEGIN
+    NEW.change_xid := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_tasks_change_xid ON tasks;
+CREATE TRIGGER trg_tasks_change_xid
+    BEFORE INSERT OR UPDATE ON tasks
+    FOR EACH ROW EXECUTE FUNCTION stamp_task_change_xid();
+
+CREATE OR REPLACE FUNCTION record_task_tombstone() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO task_tombstones (taskid, deleted_date, change_xid)
+    VALUES (OLD.taskid, LOCALTIMESTAMP, pg_current_xact_id()::text::bigint)
+    ON CONFLICT (taskid) DO UPDATE SET deleted_date = EXCLUDED.deleted_date, change_xid = EXCLUDED.change_xid;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE INDEX IF NOT EXISTS ix_tasks_change_xid ON tasks (change_xid, taskid);
+CREATE INDEX IF NOT EXISTS ix_task_tombstones_change_xid ON task_tombstones (change_xid, taskid);
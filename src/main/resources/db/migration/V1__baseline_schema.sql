@@ -0,0 +1,29 @@
+-- Schema as previously created by hand / Hibernate for the Tasks and UserInfo entities.
+-- Written with IF NOT EXISTS so it is a no-op on databases that already have it.
+
+CREATE SEQUENCE IF NOT EXISTS tasks_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS tasks (
+    taskid              BIGINT       NOT NULL PRIMARY KEY,
+    title               VARCHAR(255),
+    description         VARCHAR(255),
+    status              VARCHAR(255),
+    created_date        TIMESTAMP(6) NOT NULL,
+    created_by          VARCHAR(255) NOT NULL,
+    last_modified_date  TIMESTAMP(6),
+    last_modified_by    VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS userinfo (
+    id                  BIGSERIAL    NOT NULL PRIMARY KEY,
+    email               VARCHAR(255),
+    password            VARCHAR(255),
+    country             VARCHAR(255),
+    role                VARCHAR(255),
+    firstname           VARCHAR(255),
+    lastname            VARCHAR(255),
+    created_date        TIMESTAMP(6) NOT NULL,
+    created_by          VARCHAR(255) NOT NULL,
+    last_modified_date  TIMESTAMP(6),
+    last_modified_by    VARCHAR(255)
+);
@@ -0,0 +1,2 @@
+-- Optimistic locking column for Tasks (@Version). Existing rows start at version 0.
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
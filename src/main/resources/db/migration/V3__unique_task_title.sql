@@ -0,0 +1,3 @@
+-- Title uniqueness is enforced by the database instead of a check-then-insert in the controller.
+-- Fails if duplicate titles already exist; resolve those before deploying.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_tasks_title ON tasks (title);
@@ -0,0 +1,10 @@
+-- Indexes backing GET /task/search. Equality filters lead with the filtered column and end
+-- with taskid so the keyset ORDER BY taskid / taskid > :after is served from the same index.
+CREATE INDEX IF NOT EXISTS ix_tasks_status_taskid ON tasks (status, taskid);
+CREATE INDEX IF NOT EXISTS ix_tasks_created_by_taskid ON tasks (created_by, taskid);
+
+-- LIKE 'prefix%' can only use a b-tree under the C collation or with text_pattern_ops
+CREATE INDEX IF NOT EXISTS ix_tasks_title_pattern ON tasks (title text_pattern_ops);
+
+CREATE INDEX IF NOT EXISTS ix_tasks_created_date ON tasks (created_date);
+CREATE INDEX IF NOT EXISTS ix_tasks_last_modified_date ON tasks (last_modified_date);
@@ -0,0 +1,10 @@
+-- Full-text search for GET /task/search?q=. PostgreSQL maintains the vector on every
+-- insert/update, so the application never writes it (the column is not mapped on Tasks).
+-- Title matches weigh more than description matches in ts_rank.
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('english', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS ix_tasks_search_vector ON tasks USING GIN (search_vector);
@@ -0,0 +1,21 @@
+-- Table-level change counter for the GET /task/ ETag. A statement-level trigger bumps it
+-- inside the writing transaction, so readers only see the new value once the change itself
+-- is committed. Writers to tasks briefly queue on this single row until they commit.
+CREATE TABLE IF NOT EXISTS task_change_counter (
+    id           SMALLINT PRIMARY KEY CHECK (id = 1),
+    change_count BIGINT   NOT NULL
+);
+
+INSERT INTO task_change_counter (id, change_count) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_task_change_counter() RETURNS trigger AS $$
+BEGIN
+    UPDATE task_change_counter SET change_count = change_count + 1 WHERE id = 1;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_tasks_change_counter ON tasks;
+CREATE TRIGGER trg_tasks_change_counter
+    AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON tasks
+    FOR EACH STATEMENT EXECUTE FUNCTION bump_task_change_counter();
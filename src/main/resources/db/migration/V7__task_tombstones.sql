@@ -0,0 +1,24 @@
+-- Change feed for GET /task/changes. Inserts and updates are found through
+-- last_modified_date (rows written before auditing existed are backfilled here);
+-- deletes leave a tombstone, written by trigger so every delete path is covered.
+UPDATE tasks SET last_modified_date = created_date WHERE last_modified_date IS NULL;
+
+CREATE TABLE IF NOT EXISTS task_tombstones (
+    taskid       BIGINT       PRIMARY KEY,
+    deleted_date TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS ix_task_tombstones_deleted_date ON task_tombstones (deleted_date, taskid);
+
+CREATE OR REPLACE FUNCTION record_task_tombstone() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO task_tombstones (taskid, deleted_date) VALUES (OLD.taskid, LOCALTIMESTAMP)
+    ON CONFLICT (taskid) DO UPDATE SET deleted_date = EXCLUDED.deleted_date;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_tasks_tombstone ON tasks;
+CREATE TRIGGER trg_tasks_tombstone
+    AFTER DELETE ON tasks
+    FOR EACH ROW EXECUTE FUNCTION record_task_tombstone();
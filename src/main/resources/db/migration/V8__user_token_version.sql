@@ -0,0 +1,3 @@
+-- Per-user token version, copied into every JWT as the "tv" claim. Bumping it revokes all
+-- tokens issued to that user; existing rows and existing tokens both start at version 0.
+ALTER TABLE userinfo ADD COLUMN IF NOT EXISTS token_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,4 @@
+-- Login and registration look users up by email; the unique index makes that an index scan
+-- and turns a registration race into a constraint violation instead of a duplicate account.
+-- Fails if duplicate emails already exist; resolve those before deploying.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_userinfo_email ON userinfo (email);
@@ -3,9 +3,12 @@ package com.taskmanager.ai.controller;
 import com.taskmanager.ai.dto.AIBreakdownRequest;
 import com.taskmanager.ai.dto.AIDescriptionRequest;
 import com.taskmanager.ai.dto.AIStatusRequest;
+import com.taskmanager.ai.dto.AIStreamChunk;
 import com.taskmanager.ai.dto.ChatRequest;
 import com.taskmanager.ai.dto.ChatResponse;
 import com.taskmanager.ai.dto.ImportDocumentResponse;
+import com.taskmanager.ai.dto.ImportJobResponse;
+import com.taskmanager.ai.service.DocumentImportJobService;
 import com.taskmanager.ai.service.DocumentTaskImportService;
 import com.taskmanager.ai.service.AITaskService;
 import com.taskmanager.api.dto.GetTaskResponse;
@@ -18,9 +21,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -40,6 +46,7 @@ class AITaskControllerTest {
     @Mock private AITaskService aiTaskService;
     @Mock private TaskService taskService;
     @Mock private DocumentTaskImportService documentTaskImportService;
+    @Mock private DocumentImportJobService documentImportJobService;
     @Mock private MultipartFile multipartFile;
 
     @InjectMocks
@@ -426,7 +433,7 @@ class AITaskControllerTest {
         when(multipartFile.getOriginalFilename()).thenReturn("sprint-plan.pdf");
         when(multipartFile.getSize()).thenReturn(1024L);
         when(documentTaskImportService.importTasksFromDocument(multipartFile))
-                .thenReturn(List.of(1L, 2L, 3L));
+                .thenReturn(new DocumentTaskImportService.ImportResult(List.of(1L, 2L, 3L), List.of()));
 
         // Act
         ResponseEntity<ImportDocumentResponse> response = aiTaskController.importDocument(multipartFile);
@@ -446,7 +453,7 @@ class AITaskControllerTest {
         when(multipartFile.getSize()).thenReturn(2048L);
         when(multipartFile.getOriginalFilename()).thenReturn("requirements.docx");
         when(documentTaskImportService.importTasksFromDocument(multipartFile))
-                .thenReturn(List.of(10L, 11L));
+                .thenReturn(new DocumentTaskImportService.ImportResult(List.of(10L, 11L), List.of()));
 
         // Act
         aiTaskController.importDocument(multipartFile);
@@ -478,7 +485,7 @@ class AITaskControllerTest {
         when(multipartFile.getOriginalFilename()).thenReturn("notes.pdf");
         List<Long> expectedIds = List.of(100L, 200L, 300L, 400L, 500L);
         when(documentTaskImportService.importTasksFromDocument(multipartFile))
-                .thenReturn(expectedIds);
+                .thenReturn(new DocumentTaskImportService.ImportResult(expectedIds, List.of()));
 
         // Act
         ResponseEntity<ImportDocumentResponse> response = aiTaskController.importDocument(multipartFile);
@@ -511,7 +518,7 @@ class AITaskControllerTest {
         when(multipartFile.getOriginalFilename()).thenReturn("backlog-tasks.xlsx");
         when(multipartFile.getSize()).thenReturn(3809L);
         when(documentTaskImportService.importTasksFromDocument(multipartFile))
-                .thenReturn(List.of(1L, 2L, 3L));
+                .thenReturn(new DocumentTaskImportService.ImportResult(List.of(1L, 2L, 3L), List.of()));
 
         // Act
         ResponseEntity<ImportDocumentResponse> response = aiTaskController.importDocument(multipartFile);
@@ -530,7 +537,7 @@ class AITaskControllerTest {
         when(multipartFile.getOriginalFilename()).thenReturn("sprint-tasks.docx");
         when(multipartFile.getSize()).thenReturn(2749L);
         when(documentTaskImportService.importTasksFromDocument(multipartFile))
-                .thenReturn(List.of(7L, 8L));
+                .thenReturn(new DocumentTaskImportService.ImportResult(List.of(7L, 8L), List.of()));
 
         // Act
         ResponseEntity<ImportDocumentResponse> response = aiTaskController.importDocument(multipartFile);
@@ -540,5 +547,121 @@ class AITaskControllerTest {
         assertThat(response.getBody().getTaskIds()).containsExactly(7L, 8L);
         verify(documentTaskImportService).importTasksFromDocument(multipartFile);
     }
-}
 
+    // ── Streaming (SSE) variants ─────────────────────────────────────────────
+
+    @Test
+    @DisplayName("Streaming — generateDescription emits token events then a done event")
+    void streamDescriptionEmitsTokenEventsThenDone() {
+        AIDescriptionRequest request = new AIDescriptionRequest();
+        request.setTitle("Add JWT Authentication");
+        when(aiTaskService.streamDescription("Add JWT Authentication")).thenReturn(Flux.just("Implement", " JWT"));
+
+        List<ServerSentEvent<Object>> events = aiTaskController.streamDescription(request).collectList().block();
+
+        assertThat(events).extracting(ServerSentEvent::event).containsExactly("token", "token", "done");
+        assertThat(((AIStreamChunk) events.get(1).data()).getText()).isEqualTo(" JWT");
+    }
+
+    @Test
+    @DisplayName("Streaming — a model failure mid-stream becomes an error event")
+    void streamBreakdownTurnsFailureIntoErrorEvent() {
+        AIBreakdownRequest request = new AIBreakdownRequest();
+        request.setTitle("Build payment service");
+        request.setDescription("Stripe integration");
+        when(aiTaskService.streamBreakdown("Build payment service", "Stripe integration"))
+                .thenReturn(Flux.concat(Flux.just("1."), Flux.error(new IllegalStateException("Ollama down"))));
+
+        List<ServerSentEvent<Object>> events = aiTaskController.streamBreakdown(request).collectList().block();
+
+        assertThat(events).extracting(ServerSentEvent::event).containsExactly("token", "error");
+    }
+
+    @Test
+    @DisplayName("Streaming — summarize reads tasks before streaming the summary")
+    void streamSummaryFetchesTasksAndStreams() {
+        List<GetTaskResponse> tasks = List.of(GetTaskResponse.builder().id(1L).status("TODO").title("A").build());
+        when(taskService.getAllTasks()).thenReturn(tasks);
+        when(aiTaskService.streamSummary(tasks)).thenReturn(Flux.just("Healthy."));
+
+        List<ServerSentEvent<Object>> events = aiTaskController.streamSummary().collectList().block();
+
+        assertThat(events).hasSize(2);
+        verify(taskService).getAllTasks();
+    }
+
+    @Test
+    @DisplayName("Streaming — chat reports the number of tasks analysed in a header")
+    void streamChatSetsTasksAnalyzedHeader() {
+        ChatRequest request = new ChatRequest();
+        request.setMessage("Any blockers?");
+        List<GetTaskResponse> tasks = List.of(
+                GetTaskResponse.builder().id(1L).status("BLOCKED").title("A").build(),
+                GetTaskResponse.builder().id(2L).status("TODO").title("B").build());
+        when(taskService.getAllTasks()).thenReturn(tasks);
+        when(aiTaskService.streamChat("Any blockers?", tasks)).thenReturn(Flux.just("Task A is blocked."));
+
+        ResponseEntity<Flux<ServerSentEvent<Object>>> response = aiTaskController.streamChat(request);
+
+        assertThat(response.getHeaders().getFirst(AITaskController.TASKS_ANALYZED_HEADER)).isEqualTo("2");
+        assertThat(response.getBody().collectList().block()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Feature 6 — importDocument reports titles skipped because they already exist")
+    void importDocumentReportsSkippedTitles() throws Exception {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("sprint-plan.pdf");
+        when(documentTaskImportService.importTasksFromDocument(multipartFile))
+                .thenReturn(new DocumentTaskImportService.ImportResult(List.of(1L), List.of("Setup CI")));
+
+        ResponseEntity<ImportDocumentResponse> response = aiTaskController.importDocument(multipartFile);
+
+        assertThat(response.getBody().getSkippedTitles()).containsExactly("Setup CI");
+        assertThat(response.getBody().getMessage()).contains("1 skipped");
+    }
+
+    @Test
+    @DisplayName("Import jobs — submitImportJob returns 202 with the job and its status URL")
+    void submitImportJobReturns202WithLocation() throws Exception {
+        UUID jobId = UUID.randomUUID();
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("sprint-plan.pdf");
+        when(documentImportJobService.submit(multipartFile)).thenReturn(jobId);
+        when(documentImportJobService.getJob(jobId))
+                .thenReturn(ImportJobResponse.builder().jobId(jobId).status("QUEUED").build());
+
+        ResponseEntity<ImportJobResponse> response = aiTaskController.submitImportJob(multipartFile);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getHeaders().getLocation()).hasToString("/ai/task/import-jobs/" + jobId);
+        assertThat(response.getBody().getStatus()).isEqualTo("QUEUED");
+        verifyNoInteractions(documentTaskImportService);
+    }
+
+    @Test
+    @DisplayName("Import jobs — submitImportJob validates the upload like importDocument")
+    void submitImportJobRejectsUnsupportedFileType() {
+        when(multipartFile.isEmpty()).thenReturn(false);
+        when(multipartFile.getOriginalFilename()).thenReturn("malware.exe");
+
+        org.junit.jupiter.api.Assertions.assertThrows(
+                com.taskmanager.exception.BadRequest.class,
+                () -> aiTaskController.submitImportJob(multipartFile));
+
+        verifyNoInteractions(documentImportJobService);
+    }
+
+    @Test
+    @DisplayName("Import jobs — getImportJob returns the job with its task IDs")
+    void getImportJobReturnsJob() {
+        UUID jobId = UUID.randomUUID();
+        when(documentImportJobService.getJob(jobId)).thenReturn(
+                ImportJobResponse.builder().jobId(jobId).status("SUCCEEDED").taskIds(List.of(1L, 2L)).build());
+
+        ResponseEntity<ImportJobResponse> response = aiTaskController.getImportJob(jobId);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getTaskIds()).containsExactly(1L, 2L);
+    }
+}
@@ -0,0 +1,191 @@
+package com.taskmanager.ai.service;
+
+import com.taskmanager.exception.ServiceUnavailable;
+import com.taskmanager.exception.TooManyRequests;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AIGatewayTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AIGateway gateway;
+    private ExecutorService executor;
+    private CountDownLatch running;
+    private CountDownLatch finish;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        gateway = new AIGateway(meterRegistry);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        running = new CountDownLatch(1);
+        finish = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        finish.countDown();
+        executor.shutdownNow();
+    }
+
+    private void configure(int maxConcurrent, int queueCapacity, int perUserLimit, long queueTimeoutMs) {
+        ReflectionTestUtils.setField(gateway, "maxConcurrent", maxConcurrent);
+        ReflectionTestUtils.setField(gateway, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(gateway, "perUserLimit", perUserLimit);
+        ReflectionTestUtils.setField(gateway, "queueTimeoutMs", queueTimeoutMs);
+        ReflectionTestUtils.invokeMethod(gateway, "init");
+    }
+
+    // Occupies a model slot until finish is released
+    private Future<String> blockingCall(String user) throws InterruptedException {
+        Future<String> future = executor.submit(() -> gateway.call(user, "task_breakdown", () -> {
+            running.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "done";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        return future;
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("ai.gateway.rejected").tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void callRunsAndReleasesItsSlot() {
+        configure(1, 10, 3, 1000);
+
+        assertEquals("answer", gateway.call("alice", "task_breakdown", () -> "answer"));
+        assertEquals("again", gateway.call("alice", "task_breakdown", () -> "again"));
+
+        assertEquals(0.0, meterRegistry.get("ai.gateway.active").gauge().value());
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(gateway, "pendingPerUser")).isEmpty());
+        assertEquals(2, meterRegistry.get("ai.gateway.queue.wait").tag("feature", "task_breakdown").timer().count());
+    }
+
+    @Test
+    void userOverQuotaIsRejectedWith429() throws Exception {
+        configure(4, 10, 1, 1000);
+        blockingCall("alice");
+
+        assertThrows(TooManyRequests.class, () -> gateway.call("alice", "task_breakdown", () -> "second"));
+        // Other users are unaffected
+        assertEquals("ok", gateway.call("bob", "task_breakdown", () -> "ok"));
+        assertEquals(1.0, rejected("user_quota"));
+    }
+
+    @Test
+    void fullQueueIsShedWith503() throws Exception {
+        configure(1, 0, 3, 1000);
+        blockingCall("alice");
+
+        assertThrows(ServiceUnavailable.class, () -> gateway.call("bob", "task_breakdown", () -> "queued"));
+        assertEquals(1.0, rejected("queue_full"));
+    }
+
+    @Test
+    void queueWaitTimesOutWith503() throws Exception {
+        configure(1, 10, 3, 50);
+        blockingCall("alice");
+
+        assertThrows(ServiceUnavailable.class, () -> gateway.call("bob", "task_breakdown", () -> "late"));
+        assertEquals(1.0, rejected("timeout"));
+        assertEquals(0.0, meterRegistry.get("ai.gateway.queued").gauge().value());
+    }
+
+    @Test
+    void queuedCallRunsOnceASlotFrees() throws Exception {
+        configure(1, 10, 3, 5000);
+        Future<String> first = blockingCall("alice");
+
+        Future<String> second = executor.submit(() -> gateway.call("bob", "task_breakdown", () -> "second"));
+        finish.countDown();
+
+        assertEquals("done", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failedCallStillReleasesItsSlot() {
+        configure(1, 0, 1, 1000);
+
+        assertThrows(IllegalStateException.class,
+                () -> gateway.call("alice", "task_breakdown", () -> { throw new IllegalStateException("model down"); }));
+
+        assertEquals("ok", gateway.call("alice", "task_breakdown", () -> "ok"));
+    }
+
+    @Test
+    void admissionHoldsOneUserSlotForAllItsCalls() throws Exception {
+        configure(4, 10, 2, 1000);
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("alice", null, List.of()));
+        try (AIGateway.Admission admission = gateway.admit("document_import")) {
+            // Three parallel chunk calls stay within a per-user limit of two
+            List<Future<String>> chunks = List.of(
+                    executor.submit(() -> admission.call(() -> "a")),
+                    executor.submit(() -> admission.call(() -> "b")),
+                    executor.submit(() -> admission.call(() -> "c")));
+            for (Future<String> chunk : chunks) {
+                assertNotNull(chunk.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals("ok", gateway.call("alice", "task_breakdown", () -> "ok"));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(gateway, "pendingPerUser")).isEmpty());
+        assertEquals(0.0, meterRegistry.get("ai.gateway.active").gauge().value());
+    }
+
+    @Test
+    void backgroundAdmissionIsNeverShedAndTakesNoUserSlot() throws Exception {
+        configure(1, 0, 1, 50);
+        blockingCall("alice");
+
+        // Queue capacity 0 and a 50 ms timeout would shed an interactive call
+        Future<String> background = executor.submit(() -> {
+            try (AIGateway.Admission admission = gateway.admitBackground("document_import")) {
+                return admission.call(() -> "imported");
+            }
+        });
+        Thread.sleep(200);
+        assertFalse(background.isDone());
+        finish.countDown();
+
+        assertEquals("imported", background.get(5, TimeUnit.SECONDS));
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(gateway, "pendingPerUser")).isEmpty());
+    }
+
+    @Test
+    void streamHoldsItsSlotUntilTheStreamEnds() {
+        configure(1, 0, 3, 1000);
+
+        Flux<String> stream = gateway.stream("conversational_chatbot", () -> Flux.just("a", "b"));
+        // Admitted eagerly: the only slot is taken before anyone subscribes
+        assertThrows(ServiceUnavailable.class, () -> gateway.call("bob", "task_breakdown", () -> "x"));
+
+        assertEquals(List.of("a", "b"), stream.collectList().block());
+        assertEquals("x", gateway.call("bob", "task_breakdown", () -> "x"));
+    }
+}
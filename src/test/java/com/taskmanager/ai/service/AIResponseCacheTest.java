@@ -0,0 +1,142 @@
+package com.taskmanager.ai.service;
+
+import com.taskmanager.domain.repository.AIResponseCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AIResponseCacheTest {
+
+    private AIResponseCacheRepository repository;
+    private SimpleMeterRegistry meterRegistry;
+    private AIResponseCache responseCache;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AIResponseCacheRepository.class);
+        meterRegistry = new SimpleMeterRegistry();
+        responseCache = new AIResponseCache(repository, meterRegistry);
+        ReflectionTestUtils.setField(responseCache, "enabled", true);
+        ReflectionTestUtils.setField(responseCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(responseCache, "ttlSeconds", 3600L);
+        ReflectionTestUtils.setField(responseCache, "backend", "local");
+        ReflectionTestUtils.setField(responseCache, "model", "llama3.2:1b");
+        ReflectionTestUtils.invokeMethod(responseCache, "init");
+    }
+
+    private double count(String feature, String result) {
+        return meterRegistry.get("ai.cache.requests").tag("feature", feature).tag("result", result).counter().count();
+    }
+
+    @Test
+    void repeatedPromptIsGeneratedOnce() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String first = responseCache.getOrGenerate("description_generator", "prompt", () -> "answer " + calls.incrementAndGet());
+        String second = responseCache.getOrGenerate("description_generator", "prompt", () -> "answer " + calls.incrementAndGet());
+
+        assertEquals("answer 1", first);
+        assertEquals("answer 1", second);
+        assertEquals(1, calls.get());
+        assertEquals(1.0, count("description_generator", "miss"));
+        assertEquals(1.0, count("description_generator", "hit"));
+    }
+
+    @Test
+    void samePromptUnderAnotherFeatureOrModelIsADifferentEntry() {
+        responseCache.put("description_generator", "prompt", "description");
+
+        assertTrue(responseCache.find("task_breakdown", "prompt").isEmpty());
+
+        ReflectionTestUtils.setField(responseCache, "model", "llama3.2:3b");
+        assertTrue(responseCache.find("description_generator", "prompt").isEmpty());
+    }
+
+    @Test
+    void blankResponsesAreNotCached() {
+        responseCache.getOrGenerate("status_suggester", "prompt", () -> " ");
+
+        assertTrue(responseCache.find("status_suggester", "prompt").isEmpty());
+        assertEquals(0, responseCache.size());
+    }
+
+    @Test
+    void responsesRejectedByTheCacheablePredicateAreReturnedButNotCached() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String first = responseCache.getOrGenerate("task_breakdown", "prompt",
+                () -> "junk " + calls.incrementAndGet(), response -> response.startsWith("1."));
+        responseCache.getOrGenerate("task_breakdown", "prompt",
+                () -> "junk " + calls.incrementAndGet(), response -> response.startsWith("1."));
+
+        assertEquals("junk 1", first);
+        assertEquals(2, calls.get());
+        assertEquals(0, responseCache.size());
+    }
+
+    @Test
+    void disabledCacheAlwaysGenerates() {
+        ReflectionTestUtils.setField(responseCache, "enabled", false);
+        AtomicInteger calls = new AtomicInteger();
+
+        responseCache.getOrGenerate("task_breakdown", "prompt", () -> "x" + calls.incrementAndGet());
+        responseCache.getOrGenerate("task_breakdown", "prompt", () -> "x" + calls.incrementAndGet());
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void localBackendNeverTouchesTheTable() {
+        responseCache.getOrGenerate("task_breakdown", "prompt", () -> "answer");
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void sharedBackendServesRowsWrittenByOtherPods() {
+        ReflectionTestUtils.setField(responseCache, "backend", "postgresql");
+        when(repository.findLiveResponse(anyString(), any(LocalDateTime.class))).thenReturn(Optional.of("from table"));
+
+        String response = responseCache.getOrGenerate("task_breakdown", "prompt", () -> fail("model must not be called"));
+        responseCache.find("task_breakdown", "prompt");
+
+        assertEquals("from table", response);
+        // The second lookup is answered from memory
+        verify(repository, times(1)).findLiveResponse(anyString(), any(LocalDateTime.class));
+        assertEquals(2.0, count("task_breakdown", "hit"));
+    }
+
+    @Test
+    void sharedBackendStoresGeneratedResponsesWithExpiry() {
+        ReflectionTestUtils.setField(responseCache, "backend", "postgresql");
+        when(repository.findLiveResponse(anyString(), any(LocalDateTime.class))).thenReturn(Optional.empty());
+
+        responseCache.getOrGenerate("description_generator", "prompt", () -> "answer");
+
+        verify(repository).upsert(argThat(hash -> hash.length() == 64), eq("description_generator"), eq("answer"),
+                argThat(expiresAt -> expiresAt.isAfter(LocalDateTime.now().plusMinutes(59))));
+    }
+
+    @Test
+    void databaseErrorsFallBackToTheModel() {
+        ReflectionTestUtils.setField(responseCache, "backend", "postgresql");
+        when(repository.findLiveResponse(anyString(), any(LocalDateTime.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+        when(repository.upsert(anyString(), anyString(), anyString(), any(LocalDateTime.class)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertEquals("answer", responseCache.getOrGenerate("task_breakdown", "prompt", () -> "answer"));
+    }
+}
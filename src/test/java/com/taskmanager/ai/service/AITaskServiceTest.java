@@ -1,7 +1,9 @@
 package com.taskmanager.ai.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taskmanager.ai.dto.ChatResponse;
 import com.taskmanager.api.dto.GetTaskResponse;
+import com.taskmanager.exception.ServiceUnavailable;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,13 +16,21 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.ai.chat.client.ChatClient;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -42,12 +52,23 @@ class AITaskServiceTest {
     @Mock private ChatClient chatClient;
     @Mock private ChatClient.ChatClientRequestSpec requestSpec;
     @Mock private ChatClient.CallResponseSpec callSpec;
+    @Mock private ChatClient.StreamResponseSpec streamSpec;
     @Mock private MeterRegistry meterRegistry;
     @Mock private Timer timer;
+    @Mock private AIResponseCache responseCache;
+    @Mock private AIGateway gateway;
     private AITaskService aiTaskService;
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
-        aiTaskService = new AITaskService(chatClient, meterRegistry);
+        aiTaskService = new AITaskService(chatClient, meterRegistry, responseCache, gateway, new ObjectMapper());
+        // The gateway admits every call
+        when(gateway.call(anyString(), any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(1)).get());
+        when(gateway.stream(anyString(), any()))
+                .thenAnswer(invocation -> Flux.defer((Supplier<Flux<String>>) invocation.getArgument(1)));
+        // Every lookup misses unless a test says otherwise
+        doAnswer(invocation -> ((Supplier<String>) invocation.getArgument(2)).get())
+                .when(responseCache).getOrGenerate(anyString(), anyString(), any(), any());
         when(meterRegistry.timer(anyString(), any(String[].class))).thenReturn(timer);
         doAnswer(invocation -> {
             Supplier<?> supplier = invocation.getArgument(0);
@@ -57,6 +78,7 @@ class AITaskServiceTest {
         lenient().when(requestSpec.system(anyString())).thenReturn(requestSpec);
         when(requestSpec.user(anyString())).thenReturn(requestSpec);
         when(requestSpec.call()).thenReturn(callSpec);
+        when(requestSpec.stream()).thenReturn(streamSpec);
     }
     // Feature 1: Generate Description
     @Test
@@ -468,6 +490,216 @@ class AITaskServiceTest {
         verify(meterRegistry).timer("ai.task.chat", "model", "llama3.2:1b", "feature", "conversational_chatbot");
         verify(timer).record(any(Supplier.class));
     }
-}
 
+    // Streaming variants
+    @Test
+    @DisplayName("Streaming - description is emitted chunk by chunk from ChatClient.stream()")
+    void streamDescriptionEmitsModelChunks() {
+        when(streamSpec.content()).thenReturn(Flux.just("Implement", " JWT", " auth."));
+
+        List<String> chunks = aiTaskService.streamDescription("Add JWT Authentication").collectList().block();
+
+        assertThat(chunks).containsExactly("Implement", " JWT", " auth.");
+        verify(requestSpec, never()).call();
+        ArgumentCaptor<String> promptCaptor = ArgumentCaptor.forClass(String.class);
+        verify(requestSpec).user(promptCaptor.capture());
+        assertThat(promptCaptor.getValue()).contains("Add JWT Authentication");
+    }
+    @Test
+    @DisplayName("Streaming - model is not called until the stream is subscribed")
+    void streamIsLazyUntilSubscribed() {
+        aiTaskService.streamBreakdown("Build payment service", "Stripe integration");
+
+        verify(chatClient, never()).prompt();
+    }
+    @Test
+    @DisplayName("Streaming - first-token and duration timers are recorded with the feature tag")
+    void streamRecordsFirstTokenAndDurationTimers() {
+        Timer firstToken = mock(Timer.class);
+        Timer duration = mock(Timer.class);
+        when(meterRegistry.timer("ai.task.stream.first_token", "model", "llama3.2:1b", "feature", "task_breakdown"))
+                .thenReturn(firstToken);
+        when(meterRegistry.timer("ai.task.stream.duration", "model", "llama3.2:1b", "feature", "task_breakdown"))
+                .thenReturn(duration);
+        when(streamSpec.content()).thenReturn(Flux.just("1.", " Design", " API"));
+
+        aiTaskService.streamBreakdown("Build payment service", "Stripe integration").blockLast();
+
+        verify(firstToken, times(1)).record(anyLong(), eq(TimeUnit.NANOSECONDS));
+        verify(duration, times(1)).record(anyLong(), eq(TimeUnit.NANOSECONDS));
+    }
+    @Test
+    @DisplayName("Streaming - empty task list short-circuits the summary stream without calling the LLM")
+    void streamSummaryWithNoTasksSkipsLlm() {
+        List<String> chunks = aiTaskService.streamSummary(List.of()).collectList().block();
+
+        assertThat(chunks).containsExactly("No tasks found in the system.");
+        verify(chatClient, never()).prompt();
+    }
+    @Test
+    @DisplayName("Streaming - chat prompt carries the same task context as the blocking call")
+    void streamChatUsesTaskContext() {
+        when(streamSpec.content()).thenReturn(Flux.just("One", " task."));
+
+        aiTaskService.streamChat("How many tasks?",
+                List.of(GetTaskResponse.builder().id(10L).status("DONE").title("Setup CI").description("Pipeline done").build()))
+                .blockLast();
+
+        ArgumentCaptor<String> promptCaptor = ArgumentCaptor.forClass(String.class);
+        verify(requestSpec).user(promptCaptor.capture());
+        assertThat(promptCaptor.getValue()).contains("ID:10").contains("User Question: How many tasks?");
+    }
+    // Response cache
+    @Test
+    @DisplayName("Cache - description, status and breakdown are looked up under their feature tag")
+    void deterministicFeaturesGoThroughResponseCache() {
+        when(callSpec.content()).thenReturn("{\"status\":\"TODO\",\"reason\":\"Not started\"}");
+
+        aiTaskService.generateDescription("Add JWT Authentication");
+        aiTaskService.suggestStatus("Add JWT Authentication", "Not started");
+        aiTaskService.breakdownTask("Build payment service", "Stripe integration");
+
+        verify(responseCache).getOrGenerate(eq("description_generator"), contains("Add JWT Authentication"), any(), any());
+        verify(responseCache).find(eq("status_suggester"), contains("You are a JSON API"));
+        verify(responseCache).getOrGenerate(eq("task_breakdown"), contains("Build payment service"), any(), any());
+    }
+    @Test
+    @DisplayName("Cache - a hit returns the cached answer without calling the model or its timer")
+    void cacheHitSkipsModel() {
+        doReturn("Cached description").when(responseCache).getOrGenerate(anyString(), anyString(), any(), any());
+
+        String result = aiTaskService.generateDescription("Add JWT Authentication");
+
+        assertThat(result).isEqualTo("Cached description");
+        verify(chatClient, never()).prompt();
+        verify(timer, never()).record(any(Supplier.class));
+    }
+    @Test
+    @DisplayName("Cache - a status reply that parsed as the expected JSON is cached")
+    void validStatusJsonIsCached() {
+        when(callSpec.content()).thenReturn("Here you go: {\"status\": \"BLOCKED\", \"reason\": \"Waiting for VPN\"}");
+
+        aiTaskService.suggestStatus("Integrate API", "Waiting for VPN access");
+
+        verify(responseCache).put(eq("status_suggester"), contains("Integrate API"),
+                eq("{\"status\": \"BLOCKED\", \"reason\": \"Waiting for VPN\"}"));
+    }
+    @Test
+    @DisplayName("Cache - the blank-reply fallback is returned but not cached")
+    void statusFallbackIsNotCached() {
+        when(callSpec.content()).thenReturn("  ");
+
+        String result = aiTaskService.suggestStatus("Integrate API", "Waiting for VPN access");
 
+        assertThat(result).contains("TODO");
+        verify(responseCache, never()).put(anyString(), anyString(), anyString());
+    }
+    @Test
+    @DisplayName("Cache - prose or an unknown status is returned but not cached")
+    void unexpectedStatusReplyIsNotCached() {
+        when(callSpec.content()).thenReturn("I think it is blocked.", "{\"status\": \"STUCK\", \"reason\": \"VPN\"}");
+
+        assertThat(aiTaskService.suggestStatus("Integrate API", "Waiting for VPN access")).isEqualTo("I think it is blocked.");
+        aiTaskService.suggestStatus("Integrate API", "Waiting for VPN access");
+
+        verify(responseCache, never()).put(anyString(), anyString(), anyString());
+    }
+    @Test
+    @DisplayName("Cache - a cached status skips the model")
+    void cachedStatusSkipsModel() {
+        when(responseCache.find(eq("status_suggester"), anyString()))
+                .thenReturn(Optional.of("{\"status\":\"DONE\",\"reason\":\"Shipped\"}"));
+
+        assertThat(aiTaskService.suggestStatus("Deploy", "Shipped")).contains("DONE");
+        verify(chatClient, never()).prompt();
+    }
+    @Test
+    @DisplayName("Cache - streamed breakdown is served from cache as one chunk")
+    void streamBreakdownServesCacheHit() {
+        when(responseCache.find(eq("task_breakdown"), anyString())).thenReturn(Optional.of("1. Design API"));
+
+        List<String> chunks = aiTaskService.streamBreakdown("Build payment service", "Stripe integration")
+                .collectList().block();
+
+        assertThat(chunks).containsExactly("1. Design API");
+        verify(chatClient, never()).prompt();
+    }
+    @Test
+    @DisplayName("Cache - completed description stream is stored whole")
+    void completedStreamIsCached() {
+        when(streamSpec.content()).thenReturn(Flux.just("Implement stateless JWT authentication", " for every API endpoint."));
+
+        aiTaskService.streamDescription("Add JWT Authentication").blockLast();
+
+        verify(responseCache).put(eq("description_generator"), contains("Add JWT Authentication"),
+                eq("Implement stateless JWT authentication for every API endpoint."));
+    }
+    @Test
+    @DisplayName("Cache - a streamed breakdown that is not a numbered list is returned but not cached")
+    void streamedBreakdownWithoutListIsNotCached() {
+        when(streamSpec.content()).thenReturn(Flux.just("I cannot break", " this task down."));
+
+        aiTaskService.streamBreakdown("Build payment service", "Stripe integration").blockLast();
+
+        verify(responseCache, never()).put(anyString(), anyString(), anyString());
+    }
+    @Test
+    @DisplayName("Cache - only a description of the expected shape is cacheable")
+    @SuppressWarnings("unchecked")
+    void onlyDescriptionProseIsCacheable() {
+        when(callSpec.content()).thenReturn("Any");
+        aiTaskService.generateDescription("Add JWT Authentication");
+
+        ArgumentCaptor<Predicate<String>> cacheable = ArgumentCaptor.forClass(Predicate.class);
+        verify(responseCache).getOrGenerate(eq("description_generator"), anyString(), any(), cacheable.capture());
+        assertThat(cacheable.getValue().test("Implement stateless JWT authentication so that every API call is verified."))
+                .isTrue();
+        assertThat(cacheable.getValue().test("Sorry.")).isFalse();
+        assertThat(cacheable.getValue().test("{\"description\": \"Implement stateless JWT authentication for the API\"}"))
+                .isFalse();
+    }
+    @Test
+    @DisplayName("Cache - only a numbered subtask list is a cacheable breakdown")
+    @SuppressWarnings("unchecked")
+    void onlyNumberedBreakdownIsCacheable() {
+        when(callSpec.content()).thenReturn("Any");
+        aiTaskService.breakdownTask("Build payment service", "Stripe integration");
+
+        ArgumentCaptor<Predicate<String>> cacheable = ArgumentCaptor.forClass(Predicate.class);
+        verify(responseCache).getOrGenerate(eq("task_breakdown"), anyString(), any(), cacheable.capture());
+        assertThat(cacheable.getValue().test("1. Design the API\n2. Add Stripe SDK\n3. Write webhooks\n"
+                + "4. Add tests\n5) Deploy")).isTrue();
+        assertThat(cacheable.getValue().test("Here is how I would approach it: design, build, test.")).isFalse();
+        assertThat(cacheable.getValue().test("1. Do everything")).isFalse();
+    }
+    // Gateway
+    @Test
+    @DisplayName("Gateway - every model call is admitted under its feature tag")
+    void modelCallsGoThroughGateway() {
+        when(callSpec.content()).thenReturn("Answer");
+        GetTaskResponse task = GetTaskResponse.builder().id(1L).status("TODO").title("A").description("B").build();
+
+        aiTaskService.summarizeAllTasks(List.of(task));
+        aiTaskService.chat("Anything blocked?", List.of(task));
+
+        verify(gateway).call(eq("task_summarizer"), any());
+        verify(gateway).call(eq("conversational_chatbot"), any());
+    }
+    @Test
+    @DisplayName("Gateway - a rejected call never reaches the model")
+    void rejectedCallSkipsModel() {
+        doThrow(new ServiceUnavailable("busy")).when(gateway).call(anyString(), any());
+
+        assertThatThrownBy(() -> aiTaskService.breakdownTask("Build payment service", "Stripe integration"))
+                .isInstanceOf(ServiceUnavailable.class);
+        verify(chatClient, never()).prompt();
+    }
+    @Test
+    @DisplayName("Gateway - streams are admitted before they are returned")
+    void streamsAreAdmittedEagerly() {
+        aiTaskService.streamChat("Anything blocked?", List.of());
+
+        verify(gateway).stream(eq("conversational_chatbot"), any());
+        verify(chatClient, never()).prompt();
+    }
+}
@@ -0,0 +1,77 @@
+package com.taskmanager.ai.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentChunkerTest {
+
+    // 10 tokens each at 4 characters per token
+    private static String section(char c) {
+        return String.valueOf(c).repeat(40);
+    }
+
+    @Test
+    void shortTextIsOneChunk() {
+        assertEquals(List.of("Fix the login bug"), DocumentChunker.split("  Fix the login bug \n", 100, 10));
+    }
+
+    @Test
+    void blankTextHasNoChunks() {
+        assertTrue(DocumentChunker.split(" \n\n ", 100, 10).isEmpty());
+    }
+
+    @Test
+    void chunksAreCutAtSectionBoundariesWithinTheBudget() {
+        String text = String.join("\n\n", section('a'), section('b'), section('c'), section('d'));
+
+        List<String> chunks = DocumentChunker.split(text, 20, 0);
+
+        assertEquals(List.of(section('a') + "\n\n" + section('b'), section('c') + "\n\n" + section('d')), chunks);
+    }
+
+    @Test
+    void nextChunkRepeatsTheTrailingSectionsWithinTheOverlap() {
+        String text = String.join("\n\n", section('a'), section('b'), section('c'));
+
+        List<String> chunks = DocumentChunker.split(text, 20, 10);
+
+        assertEquals(List.of(section('a') + "\n\n" + section('b'), section('b') + "\n\n" + section('c')), chunks);
+    }
+
+    @Test
+    void overlapIsDroppedRatherThanExceedTheBudget() {
+        String text = section('a') + "\n\n" + "b".repeat(80);
+
+        List<String> chunks = DocumentChunker.split(text, 20, 10);
+
+        assertEquals(List.of(section('a'), "b".repeat(80)), chunks);
+    }
+
+    @Test
+    void oversizedSectionIsCutAtLineBreaksThenSpaces() {
+        String lines = "first line of the section\nsecond line of the section";
+        String words = "word ".repeat(20).strip();
+
+        assertEquals(List.of("first line of the section", "second line of the section"),
+                DocumentChunker.split(lines, 8, 0));
+        DocumentChunker.split(words, 5, 0).forEach(chunk -> {
+            assertTrue(DocumentChunker.estimateTokens(chunk) <= 5, chunk);
+            assertFalse(chunk.startsWith(" ") || chunk.endsWith(" "), chunk);
+        });
+    }
+
+    @Test
+    void sectionWithoutBreaksIsCutAnywhere() {
+        List<String> chunks = DocumentChunker.split("z".repeat(100), 10, 0);
+
+        assertEquals(List.of("z".repeat(40), "z".repeat(40), "z".repeat(20)), chunks);
+    }
+
+    @Test
+    void nonPositiveBudgetIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> DocumentChunker.split("text", 0, 0));
+    }
+}
@@ -0,0 +1,271 @@
+package com.taskmanager.ai.service;
+
+import com.taskmanager.ai.dto.ImportJobResponse;
+import com.taskmanager.domain.model.DocumentImportJob;
+import com.taskmanager.domain.repository.DocumentImportJobRepository;
+import com.taskmanager.exception.NotFound;
+import com.taskmanager.exception.ServiceUnavailable;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DocumentImportJobServiceTest {
+
+    private DocumentImportJobRepository repository;
+    private DocumentTaskImportService importService;
+    private SimpleMeterRegistry meterRegistry;
+    private DocumentImportJobService jobService;
+
+    private final UUID jobId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(DocumentImportJobRepository.class);
+        importService = mock(DocumentTaskImportService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        jobService = new DocumentImportJobService(repository, importService, meterRegistry);
+        ReflectionTestUtils.setField(jobService, "workers", 2);
+        ReflectionTestUtils.setField(jobService, "staleAfterMinutes", 5);
+        ReflectionTestUtils.setField(jobService, "maxAttempts", 3);
+        ReflectionTestUtils.invokeMethod(jobService, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+        SecurityContextHolder.clearContext();
+    }
+
+    private DocumentImportJob queuedJob() {
+        return DocumentImportJob.builder()
+                .id(jobId)
+                .status(DocumentImportJob.Status.RUNNING)
+                .filename("plan.pdf")
+                .contentType("application/pdf")
+                .document(new byte[] {1, 2, 3})
+                .submittedBy("admin@example.com")
+                .createdDate(LocalDateTime.now())
+                .build();
+    }
+
+    private double jobs(String outcome) {
+        return meterRegistry.get("ai.import.job.duration").tag("outcome", outcome).timer().count();
+    }
+
+    @Test
+    void submitStoresTheUploadAsQueuedJobForTheCurrentUser() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("admin@example.com", null, List.of()));
+        when(repository.save(any(DocumentImportJob.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        UUID id = jobService.submit(new MockMultipartFile("file", "plan.pdf", "application/pdf", new byte[] {1, 2, 3}));
+
+        ArgumentCaptor<DocumentImportJob> saved = ArgumentCaptor.forClass(DocumentImportJob.class);
+        verify(repository).save(saved.capture());
+        assertEquals(id, saved.getValue().getId());
+        assertEquals(DocumentImportJob.Status.QUEUED, saved.getValue().getStatus());
+        assertEquals("admin@example.com", saved.getValue().getSubmittedBy());
+        assertArrayEquals(new byte[] {1, 2, 3}, saved.getValue().getDocument());
+        // The model is never called on the request thread
+        verifyNoInteractions(importService);
+    }
+
+    @Test
+    void processImportsAsTheSubmitterAndRecordsTaskIds() throws Exception {
+        when(repository.claim(eq(jobId), any(LocalDateTime.class))).thenReturn(1);
+        when(repository.findById(jobId)).thenReturn(Optional.of(queuedJob()));
+        when(repository.markSucceeded(eq(jobId), any(), any(), any(LocalDateTime.class))).thenReturn(1);
+        AtomicReference<String> runAs = new AtomicReference<>();
+        when(importService.importTasksFromDocument(any(Resource.class), eq("plan.pdf"), eq("application/pdf"), any()))
+                .thenAnswer(invocation -> {
+                    runAs.set(SecurityContextHolder.getContext().getAuthentication().getName());
+                    return new DocumentTaskImportService.ImportResult(List.of(4L, 5L), List.of("Existing task"));
+                });
+
+        jobService.process(jobId);
+
+        assertEquals("admin@example.com", runAs.get());
+        verify(repository).markSucceeded(eq(jobId), eq("4,5"), eq("Existing task"), any(LocalDateTime.class));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, jobs("succeeded"));
+    }
+
+    @Test
+    void processSkipsJobsClaimedElsewhere() {
+        when(repository.claim(eq(jobId), any(LocalDateTime.class))).thenReturn(0);
+
+        jobService.process(jobId);
+
+        verify(repository, never()).findById(any());
+        verifyNoInteractions(importService);
+    }
+
+    @Test
+    void failedImportIsRecordedWithItsError() throws Exception {
+        when(repository.claim(eq(jobId), any(LocalDateTime.class))).thenReturn(1);
+        when(repository.findById(jobId)).thenReturn(Optional.of(queuedJob()));
+        when(importService.importTasksFromDocument(any(Resource.class), any(), any(), any()))
+                .thenThrow(new IllegalStateException("unreadable PDF"));
+
+        jobService.process(jobId);
+
+        verify(repository).markFailed(eq(jobId), eq("unreadable PDF"), any(LocalDateTime.class));
+        assertEquals(1, jobs("failed"));
+    }
+
+    @Test
+    void interruptedJobGoesBackToTheQueue() throws Exception {
+        when(repository.claim(eq(jobId), any(LocalDateTime.class))).thenReturn(1);
+        when(repository.findById(jobId)).thenReturn(Optional.of(queuedJob()));
+        when(importService.importTasksFromDocument(any(Resource.class), any(), any(), any()))
+                .thenThrow(new ServiceUnavailable("busy"));
+        when(repository.requeue(jobId, 3)).thenReturn(1);
+
+        jobService.process(jobId);
+
+        verify(repository).requeue(jobId, 3);
+        verify(repository, never()).markFailed(any(), any(), any());
+        assertEquals(1, jobs("requeued"));
+    }
+
+    @Test
+    void requeueRunsWithTheInterruptClearedAndRestoresIt() throws Exception {
+        when(repository.claim(eq(jobId), any(LocalDateTime.class))).thenReturn(1);
+        when(repository.findById(jobId)).thenReturn(Optional.of(queuedJob()));
+        // As after shutdownNow(): the gateway re-sets the flag before throwing
+        when(importService.importTasksFromDocument(any(Resource.class), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    Thread.currentThread().interrupt();
+                    throw new ServiceUnavailable("busy");
+                });
+        AtomicReference<Boolean> interruptedDuringWrite = new AtomicReference<>();
+        when(repository.requeue(jobId, 3)).thenAnswer(invocation -> {
+            interruptedDuringWrite.set(Thread.currentThread().isInterrupted());
+            return 1;
+        });
+
+        jobService.process(jobId);
+
+        assertFalse(interruptedDuringWrite.get());
+        assertTrue(Thread.interrupted()); // Restored; also clears it for the next test
+        assertEquals(1, jobs("requeued"));
+    }
+
+    @Test
+    void interruptedChunkWaitIsRequeuedNotFailed() throws Exception {
+        when(repository.claim(eq(jobId), any(LocalDateTime.class))).thenReturn(1);
+        when(repository.findById(jobId)).thenReturn(Optional.of(queuedJob()));
+        when(importService.importTasksFromDocument(any(Resource.class), any(), any(), any()))
+                .thenThrow(new InterruptedException());
+        when(repository.requeue(jobId, 3)).thenReturn(1);
+
+        jobService.process(jobId);
+
+        verify(repository, never()).markFailed(any(), any(), any());
+        assertTrue(Thread.interrupted());
+    }
+
+    @Test
+    void jobOutOfAttemptsIsFailedInsteadOfRequeued() throws Exception {
+        when(repository.claim(eq(jobId), any(LocalDateTime.class))).thenReturn(1);
+        when(repository.findById(jobId)).thenReturn(Optional.of(queuedJob()));
+        when(importService.importTasksFromDocument(any(Resource.class), any(), any(), any()))
+                .thenThrow(new ServiceUnavailable("busy"));
+        when(repository.requeue(jobId, 3)).thenReturn(0);
+
+        jobService.process(jobId);
+
+        verify(repository).markFailed(eq(jobId), contains("after 3 attempts"), any(LocalDateTime.class));
+        assertEquals(1, jobs("failed"));
+    }
+
+    @Test
+    void pollFailsStaleJobsAndDispatchesQueuedOnes() {
+        when(repository.findQueuedIds(anyInt())).thenReturn(List.of());
+
+        jobService.pollQueuedJobs();
+
+        verify(repository).failStale(eq(5), any(), any());
+        verify(repository).findQueuedIds(2);
+        // Nothing runs in this pod, so there is no lease to renew
+        verify(repository, never()).heartbeat(any());
+    }
+
+    @Test
+    void pollRenewsTheLeaseOfJobsRunningHere() throws Exception {
+        when(repository.claim(eq(jobId), any(LocalDateTime.class))).thenReturn(1);
+        when(repository.findById(jobId)).thenReturn(Optional.of(queuedJob()));
+        when(importService.importTasksFromDocument(any(Resource.class), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    jobService.pollQueuedJobs();
+                    return new DocumentTaskImportService.ImportResult(List.of(), List.of());
+                });
+
+        jobService.process(jobId);
+
+        verify(repository).heartbeat(Set.of(jobId));
+    }
+
+    @Test
+    void jobFailedAsStaleIsNotSavedNorMarkedSucceeded() throws Exception {
+        when(repository.claim(eq(jobId), any(LocalDateTime.class))).thenReturn(1);
+        when(repository.findById(jobId)).thenReturn(Optional.of(queuedJob()));
+        // The lease is gone: the stale sweep already failed the job
+        when(repository.heartbeat(List.of(jobId))).thenReturn(0);
+        when(importService.importTasksFromDocument(any(Resource.class), any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    invocation.<Runnable>getArgument(3).run();
+                    return new DocumentTaskImportService.ImportResult(List.of(4L), List.of());
+                });
+
+        jobService.process(jobId);
+
+        verify(repository, never()).markSucceeded(any(), any(), any(), any());
+        // Guarded on RUNNING in SQL, so the stale error stays
+        verify(repository).markFailed(eq(jobId), contains("no longer running"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void getJobSplitsTaskIds() {
+        DocumentImportJobRepository.StatusView view = mock(DocumentImportJobRepository.StatusView.class);
+        when(view.getId()).thenReturn(jobId);
+        when(view.getStatus()).thenReturn(DocumentImportJob.Status.SUCCEEDED);
+        when(view.getTaskIds()).thenReturn("4,5");
+        when(view.getSkippedTitles()).thenReturn("Existing, task\nOther task");
+        when(repository.findStatusById(jobId)).thenReturn(Optional.of(view));
+
+        ImportJobResponse response = jobService.getJob(jobId);
+
+        assertEquals("SUCCEEDED", response.getStatus());
+        assertEquals(List.of(4L, 5L), response.getTaskIds());
+        assertEquals(List.of("Existing, task", "Other task"), response.getSkippedTitles());
+    }
+
+    @Test
+    void unknownJobIsNotFound() {
+        when(repository.findStatusById(jobId)).thenReturn(Optional.empty());
+
+        assertThrows(NotFound.class, () -> jobService.getJob(jobId));
+    }
+}
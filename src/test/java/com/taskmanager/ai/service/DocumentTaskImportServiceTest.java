@@ -3,6 +3,9 @@ package com.taskmanager.ai.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taskmanager.domain.model.Tasks;
 import com.taskmanager.domain.repository.TaskRepository;
+import com.taskmanager.exception.BadRequest;
+import com.taskmanager.service.TaskCache;
+import com.taskmanager.service.TaskEventPublisher;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,14 +16,21 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
 import static org.mockito.Mockito.*;
 
 /**
@@ -40,6 +50,10 @@ class DocumentTaskImportServiceTest {
     @Mock private ChatClient.CallResponseSpec callSpec;
     @Mock private TaskRepository taskRepository;
     @Mock private MultipartFile multipartFile;
+    @Mock private TaskCache taskCache;
+    @Mock private TaskEventPublisher taskEventPublisher;
+    @Mock private AIGateway gateway;
+    @Mock private AIGateway.Admission admission;
 
     // Use a real ObjectMapper — we want to verify JSON parsing end-to-end
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -49,9 +63,17 @@ class DocumentTaskImportServiceTest {
     @BeforeEach
     void setUp() throws Exception {
         DocumentTaskImportService service =
-                new DocumentTaskImportService(chatClient, taskRepository, objectMapper);
+                new DocumentTaskImportService(chatClient, taskRepository, objectMapper, taskCache, taskEventPublisher, gateway);
+        ReflectionTestUtils.setField(service, "chunkTokens", 800);
+        ReflectionTestUtils.setField(service, "chunkOverlapTokens", 100);
+        ReflectionTestUtils.setField(service, "chunkConcurrency", 2);
         spyService = spy(service);
 
+        // The gateway admits every call
+        when(gateway.admit(anyString())).thenReturn(admission);
+        when(gateway.admitBackground(anyString())).thenReturn(admission);
+        when(admission.call(any())).thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+
         // Stub ChatClient fluent chain (service now calls .system().user().call().content())
         when(chatClient.prompt()).thenReturn(requestSpec);
         when(requestSpec.system(anyString())).thenReturn(requestSpec);
@@ -88,11 +110,13 @@ class DocumentTaskImportServiceTest {
         when(taskRepository.saveAll(anyList())).thenReturn(List.of(saved1, saved2));
 
         // Act
-        List<Long> ids = spyService.importTasksFromDocument(multipartFile);
+        List<Long> ids = spyService.importTasksFromDocument(multipartFile).taskIds();
 
         // Assert
         assertThat(ids).containsExactly(10L, 11L);
         verify(taskRepository).saveAll(anyList());
+        verify(taskCache, times(2)).put(any());
+        verify(taskEventPublisher, times(2)).publishCreated(any());
     }
 
     @Test
@@ -206,7 +230,7 @@ class DocumentTaskImportServiceTest {
         ));
 
         // Act
-        List<Long> ids = spyService.importTasksFromDocument(multipartFile);
+        List<Long> ids = spyService.importTasksFromDocument(multipartFile).taskIds();
 
         // Assert — all 3 tasks must be saved, not just the first one
         assertThat(ids).hasSize(3).containsExactly(1L, 2L, 3L);
@@ -240,7 +264,7 @@ class DocumentTaskImportServiceTest {
         ));
 
         // Act
-        List<Long> ids = spyService.importTasksFromDocument(multipartFile);
+        List<Long> ids = spyService.importTasksFromDocument(multipartFile).taskIds();
 
         // Assert — ALL 5 tasks saved, not just the first
         assertThat(ids).hasSize(5).containsExactly(10L, 11L, 12L, 13L, 14L);
@@ -282,7 +306,7 @@ class DocumentTaskImportServiceTest {
                 .thenReturn(List.of(Tasks.builder().taskId(99L).build()));
 
         // Act
-        List<Long> ids = spyService.importTasksFromDocument(multipartFile);
+        List<Long> ids = spyService.importTasksFromDocument(multipartFile).taskIds();
 
         // Assert — JSON was extracted correctly despite narrative wrapper
         assertThat(ids).containsExactly(99L);
@@ -301,7 +325,7 @@ class DocumentTaskImportServiceTest {
         when(taskRepository.saveAll(anyList())).thenReturn(List.of());
 
         // Act
-        List<Long> ids = spyService.importTasksFromDocument(multipartFile);
+        List<Long> ids = spyService.importTasksFromDocument(multipartFile).taskIds();
 
         // Assert
         assertThat(ids).isEmpty();
@@ -316,7 +340,7 @@ class DocumentTaskImportServiceTest {
         when(taskRepository.saveAll(anyList())).thenReturn(List.of());
 
         // Act
-        List<Long> ids = spyService.importTasksFromDocument(multipartFile);
+        List<Long> ids = spyService.importTasksFromDocument(multipartFile).taskIds();
 
         // Assert — fallback to "[]" prevents Jackson parse failure
         assertThat(ids).isEmpty();
@@ -355,7 +379,7 @@ class DocumentTaskImportServiceTest {
         ));
 
         // Act
-        List<Long> ids = spyService.importTasksFromDocument(multipartFile);
+        List<Long> ids = spyService.importTasksFromDocument(multipartFile).taskIds();
 
         // Assert
         assertThat(ids).containsExactly(1L, 2L, 3L);
@@ -432,7 +456,7 @@ class DocumentTaskImportServiceTest {
         ));
 
         // Act
-        List<Long> ids = spyService.importTasksFromDocument(multipartFile);
+        List<Long> ids = spyService.importTasksFromDocument(multipartFile).taskIds();
 
         // Assert — all 3 Excel rows saved as tasks
         assertThat(ids).hasSize(3).containsExactly(1L, 2L, 3L);
@@ -477,7 +501,7 @@ class DocumentTaskImportServiceTest {
         ));
 
         // Act
-        List<Long> ids = spyService.importTasksFromDocument(multipartFile);
+        List<Long> ids = spyService.importTasksFromDocument(multipartFile).taskIds();
 
         // Assert — both Word document tasks saved correctly
         assertThat(ids).hasSize(2).containsExactly(5L, 6L);
@@ -553,5 +577,150 @@ class DocumentTaskImportServiceTest {
         assertThat(saved.get(3).getStatus()).isEqualTo("TODO");
         assertThat(saved.get(4).getStatus()).isEqualTo("TODO");
     }
-}
 
+    @Test
+    @DisplayName("Feature 6 - should import from stored document bytes, as queued import jobs do")
+    void importTasksFromStoredDocumentUsesSamePipeline() throws Exception {
+        Resource document = new ByteArrayResource(new byte[] {1, 2, 3});
+        doReturn("Stored document text")
+                .when(spyService).extractText(document, "plan.pdf", "application/pdf");
+        when(callSpec.content()).thenReturn("[{\"title\":\"Write docs\",\"description\":\"API guide\",\"status\":\"TODO\"}]");
+        when(taskRepository.saveAll(anyList())).thenReturn(List.of(Tasks.builder().taskId(7L).title("Write docs").build()));
+
+        List<Long> ids = spyService.importTasksFromDocument(document, "plan.pdf", "application/pdf", () -> { }).taskIds();
+
+        assertThat(ids).containsExactly(7L);
+        verify(requestSpec).user(contains("Stored document text"));
+        verify(spyService, never()).extractText(any(MultipartFile.class));
+        // Queued jobs wait for the model instead of taking the submitter's per-user slot
+        verify(gateway).admitBackground("document_import");
+        verify(gateway, never()).admit(anyString());
+    }
+
+    @Test
+    @DisplayName("Feature 6 - a job that lost its lease aborts before saving")
+    void importTasksRunsBeforeSaveHookFirst() throws Exception {
+        Resource document = new ByteArrayResource(new byte[] {1, 2, 3});
+        doReturn("Stored document text")
+                .when(spyService).extractText(document, "plan.pdf", "application/pdf");
+        when(callSpec.content()).thenReturn("[{\"title\":\"Write docs\",\"description\":\"API guide\",\"status\":\"TODO\"}]");
+
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalStateException.class,
+                () -> spyService.importTasksFromDocument(document, "plan.pdf", "application/pdf",
+                        () -> { throw new IllegalStateException("Import job is no longer running"); }));
+
+        verify(taskRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Feature 6 - long documents are extracted chunk by chunk and merged by normalised title")
+    void importTasksExtractsEveryChunkAndMergesDuplicateTitles() throws Exception {
+        // Three ~40-token sections with a 50-token budget: one chunk per section
+        String section = "x".repeat(150);
+        doReturn("Page one " + section + "\n\nPage two " + section + "\n\nPage three " + section)
+                .when(spyService).extractText(any(MultipartFile.class));
+        ReflectionTestUtils.setField(spyService, "chunkTokens", 50);
+        ReflectionTestUtils.setField(spyService, "chunkOverlapTokens", 0);
+        ReflectionTestUtils.setField(spyService, "chunkConcurrency", 1); // One worker keeps the answers in order
+        when(callSpec.content()).thenReturn(
+                "[{\"title\":\"Fix login bug\",\"description\":\"NPE\",\"status\":\"TODO\"}]",
+                "[{\"title\":\"<Task 2> Fix Login-Bug.\",\"description\":\"NPE in AuthController\",\"status\":\"TODO\"}]",
+                "[{\"title\":\"Write docs\",\"description\":\"API guide\",\"status\":\"DONE\"}]");
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        spyService.importTasksFromDocument(multipartFile);
+
+        ArgumentCaptor<String> prompts = ArgumentCaptor.forClass(String.class);
+        verify(requestSpec, times(3)).user(prompts.capture());
+        // Three model calls under one admission: a single per-user slot
+        verify(gateway, times(1)).admit("document_import");
+        verify(admission, times(3)).call(any());
+        verify(admission).close();
+        assertThat(prompts.getAllValues().get(0)).contains("Page one").doesNotContain("Page two");
+        assertThat(prompts.getAllValues().get(2)).contains("Page three");
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Tasks>> saved = ArgumentCaptor.forClass(List.class);
+        verify(taskRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(Tasks::getTitle).containsExactly("Fix login bug", "Write docs");
+        // The longer description of the duplicate wins
+        assertThat(saved.getValue().get(0).getDescription()).isEqualTo("NPE in AuthController");
+    }
+
+    @Test
+    @DisplayName("Feature 6 - a failing chunk fails the whole import instead of saving part of it")
+    void importTasksFailsWhenAnyChunkFails() throws Exception {
+        String section = "x".repeat(150);
+        doReturn("A " + section + "\n\nB " + section)
+                .when(spyService).extractText(any(MultipartFile.class));
+        ReflectionTestUtils.setField(spyService, "chunkTokens", 50);
+        when(callSpec.content()).thenThrow(new IllegalStateException("model down"));
+
+        org.junit.jupiter.api.Assertions.assertThrows(IllegalStateException.class,
+                () -> spyService.importTasksFromDocument(multipartFile));
+
+        verify(taskRepository, never()).saveAll(anyList());
+        verify(admission).close();
+    }
+
+    @Test
+    @DisplayName("Feature 6 - tasks whose title already exists are skipped and reported, not saved")
+    void importTasksSkipsExistingTitles() throws Exception {
+        when(callSpec.content()).thenReturn(
+                "[{\"title\":\"Setup CI\",\"description\":\"Pipeline\",\"status\":\"TODO\"},"
+                + "{\"title\":\"Write docs\",\"description\":\"API guide\",\"status\":\"TODO\"}]");
+        Tasks existing = Tasks.builder().taskId(1L).title("Setup CI").build();
+        when(taskRepository.findByTitleIn(anyCollection())).thenReturn(List.of(existing));
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        DocumentTaskImportService.ImportResult result = spyService.importTasksFromDocument(multipartFile);
+
+        assertThat(result.skippedTitles()).containsExactly("Setup CI");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Tasks>> saved = ArgumentCaptor.forClass(List.class);
+        verify(taskRepository).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(Tasks::getTitle).containsExactly("Write docs");
+    }
+
+    @Test
+    @DisplayName("Feature 6 - a title created while the import runs is skipped and the rest are saved")
+    void importTasksSkipsTitleCreatedConcurrentlyAndSavesTheRest() throws Exception {
+        when(callSpec.content()).thenReturn(
+                "[{\"title\":\"Setup CI\",\"description\":\"Pipeline\",\"status\":\"TODO\"},"
+                + "{\"title\":\"Write docs\",\"description\":\"API guide\",\"status\":\"TODO\"}]");
+        Tasks raced = Tasks.builder().taskId(1L).title("Setup CI").build();
+        when(taskRepository.findByTitleIn(anyCollection())).thenReturn(List.of(), List.of(raced));
+        when(taskRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("ux_tasks_title"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        DocumentTaskImportService.ImportResult result = spyService.importTasksFromDocument(multipartFile);
+
+        assertThat(result.skippedTitles()).containsExactly("Setup CI");
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Tasks>> saved = ArgumentCaptor.forClass(List.class);
+        verify(taskRepository, times(2)).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(Tasks::getTitle).containsExactly("Write docs");
+        verify(taskEventPublisher, times(1)).publishCreated(any());
+    }
+
+    @Test
+    @DisplayName("Feature 6 - an import losing the title race twice is a BadRequest, not a 500")
+    void importTasksGivesUpAfterLosingTheTitleRaceTwice() throws Exception {
+        when(callSpec.content()).thenReturn(
+                "[{\"title\":\"Setup CI\",\"description\":\"Pipeline\",\"status\":\"TODO\"},"
+                + "{\"title\":\"Write docs\",\"description\":\"API guide\",\"status\":\"TODO\"}]");
+        when(taskRepository.findByTitleIn(anyCollection())).thenReturn(
+                List.of(),
+                List.of(Tasks.builder().taskId(1L).title("Setup CI").build()),
+                List.of(Tasks.builder().taskId(2L).title("Write docs").build()));
+        when(taskRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("ux_tasks_title"));
+
+        BadRequest ex = org.junit.jupiter.api.Assertions.assertThrows(BadRequest.class,
+                () -> spyService.importTasksFromDocument(multipartFile));
+
+        assertThat(ex.getMessage()).isEqualTo("Titles in the document were created concurrently, please retry");
+        verify(taskRepository, times(2)).saveAll(anyList());
+        verify(taskCache, never()).put(any());
+    }
+}
@@ -0,0 +1,90 @@
+package com.taskmanager.benchmark;
+
+import com.nimbusds.jwt.SignedJWT;
+import com.taskmanager.security.jwt.JWTVerificationCache;
+import com.taskmanager.security.jwt.VerifiedClaims;
+import com.taskmanager.service.JWTService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.text.ParseException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT cost: the old extract-then-validate sequence (two full parses plus the MAC,
+ * three parses in the refresh flow) against a single {@code verify} and a verification-cache hit.
+ * The extractors are gone from {@link JWTService}, so the old sequence parses the token here the
+ * way they did.
+ *
+ * <p>Needs no database or Spring context. Run with
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=JWTVerificationBenchmark}; the
+ * {@code gc.alloc.rate.norm} column shows the decoding garbage saved per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JWTVerificationBenchmark {
+
+    private static final String EMAIL = "user@example.com";
+
+    private JWTService jwtService;
+    private JWTVerificationCache verificationCache;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtService = new JWTService();
+        ReflectionTestUtils.setField(jwtService, "secret",
+                "UMGWByE8Ja/FyDFLqqOnKCN4GiFd+cm01UQnk+HTZjYAOUxTu7tEMyfXTBePrxQ4wNDfcmGymX0KgnS/9FGKvA==");
+        ReflectionTestUtils.setField(jwtService, "issuer", "benchmark-issuer");
+        ReflectionTestUtils.setField(jwtService, "audience", "benchmark-audience");
+        ReflectionTestUtils.setField(jwtService, "tokenValidity", 3_600_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        token = jwtService.generateToken(EMAIL, Map.of("role", "ROLE_USER"));
+
+        verificationCache = new JWTVerificationCache(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(verificationCache, "maxSize", 1000L);
+        ReflectionTestUtils.invokeMethod(verificationCache, "init");
+        verificationCache.put(token, jwtService.verify(token).orElseThrow());
+    }
+
+    @Benchmark
+    public void filterExtractThenValidate(Blackhole blackhole) throws ParseException {
+        String email = SignedJWT.parse(token).getJWTClaimsSet().getSubject();
+        blackhole.consume(SignedJWT.parse(token).getJWTClaimsSet().getExpirationTime());
+        blackhole.consume(jwtService.verify(token).isPresent() && EMAIL.equals(email));
+    }
+
+    @Benchmark
+    public void refreshExtractEmailRoleThenValidate(Blackhole blackhole) throws ParseException {
+        String email = SignedJWT.parse(token).getJWTClaimsSet().getSubject();
+        blackhole.consume(SignedJWT.parse(token).getJWTClaimsSet().getClaim("role"));
+        blackhole.consume(jwtService.verify(token).isPresent() && EMAIL.equals(email));
+    }
+
+    @Benchmark
+    public VerifiedClaims verifyOnce() {
+        return jwtService.verify(token).orElseThrow();
+    }
+
+    @Benchmark
+    public VerifiedClaims verificationCacheHit() {
+        return verificationCache.get(token);
+    }
+}
@@ -0,0 +1,94 @@
+package com.taskmanager.benchmark;
+
+import com.taskmanager.TaskManagementApplication;
+import com.taskmanager.api.dto.GetTaskResponse;
+import com.taskmanager.domain.model.Tasks;
+import com.taskmanager.domain.repository.TaskRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity hydration vs. constructor-expression projection for the task read paths.
+ *
+ * <p>Boots the application against the database configured in {@code application.yaml}
+ * (it must contain at least one task) and compares the old {@code findById}/{@code findAll}
+ * + builder mapping with {@code findResponseById}/{@code findAllResponses}. The
+ * {@code benchmark} Maven profile runs it with {@code -prof gc}, so the report shows
+ * {@code gc.alloc.rate.norm} (bytes allocated per operation) next to the latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskReadProjectionBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private TaskRepository taskRepository;
+    private TransactionTemplate readOnlyTransaction;
+    private Long taskId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TaskManagementApplication.class)
+                .properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=WARN")
+                .run();
+        taskRepository = context.getBean(TaskRepository.class);
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+        taskId = readOnlyTransaction.execute(status -> taskRepository.findResponsePage(0L, PageRequest.of(0, 1)))
+                .stream().findFirst().map(GetTaskResponse::getId)
+                .orElseThrow(() -> new IllegalStateException("Benchmark needs at least one row in tasks"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public GetTaskResponse getTaskViaEntity() {
+        return readOnlyTransaction.execute(status -> taskRepository.findById(taskId).map(this::toResponse).orElse(null));
+    }
+
+    @Benchmark
+    public GetTaskResponse getTaskViaProjection() {
+        return readOnlyTransaction.execute(status -> taskRepository.findResponseById(taskId).orElse(null));
+    }
+
+    @Benchmark
+    public List<GetTaskResponse> getAllTasksViaEntity() {
+        return readOnlyTransaction.execute(status -> taskRepository.findAll().stream().map(this::toResponse).toList());
+    }
+
+    @Benchmark
+    public List<GetTaskResponse> getAllTasksViaProjection() {
+        return readOnlyTransaction.execute(status -> taskRepository.findAllResponses());
+    }
+
+    private GetTaskResponse toResponse(Tasks tasks) {
+        return GetTaskResponse.builder().
+                id(tasks.getTaskId()).title(tasks.getTitle()).
+                description(tasks.getDescription()).status(tasks.getStatus())
+                .build();
+    }
+}
@@ -1,7 +1,10 @@
 package com.taskmanager.config;
 
+import com.taskmanager.security.BoundedPasswordEncoder;
+import com.taskmanager.security.ClientIpRateLimitFilter;
 import com.taskmanager.security.jwt.JWTFilter;
 import com.taskmanager.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,6 +29,9 @@ class SecurityConfigurationTest {
     @Mock
     private JWTFilter jwtFilter;
 
+    @Mock
+    private ClientIpRateLimitFilter clientIpRateLimitFilter;
+
     @Mock
     private UserDetailsServiceImpl userDetailsService;
 
@@ -33,18 +39,51 @@ class SecurityConfigurationTest {
 
     @BeforeEach
     void setUp() {
-        securityConfiguration = new SecurityConfiguration(jwtFilter, userDetailsService);
+        securityConfiguration = new SecurityConfiguration(jwtFilter, clientIpRateLimitFilter, userDetailsService, new SimpleMeterRegistry());
         // Set default values for the @Value annotated fields
         ReflectionTestUtils.setField(securityConfiguration, "corsAllowedOrigins", "http://localhost:3000,http://localhost:4200");
         ReflectionTestUtils.setField(securityConfiguration, "corsAllowedMethods", "GET,POST,PUT,DELETE,PATCH,OPTIONS");
+        ReflectionTestUtils.setField(securityConfiguration, "passwordEncoderId", "bcrypt");
+        ReflectionTestUtils.setField(securityConfiguration, "bcryptStrength", 4);
+        ReflectionTestUtils.setField(securityConfiguration, "hashingThreads", 0);
+        ReflectionTestUtils.setField(securityConfiguration, "hashingQueueCapacity", 16);
+        ReflectionTestUtils.setField(securityConfiguration, "hashingTimeoutMs", 5000L);
     }
 
     @Test
-    void passwordEncoderBeanCreatesInstanceOfBCryptPasswordEncoder() {
+    void passwordEncoderBeanRunsHashingOnBoundedPool() {
         PasswordEncoder passwordEncoder = securityConfiguration.passwordEncoder();
 
         assertNotNull(passwordEncoder);
-        assertInstanceOf(BCryptPasswordEncoder.class, passwordEncoder);
+        assertInstanceOf(BoundedPasswordEncoder.class, passwordEncoder);
+    }
+
+    @Test
+    void passwordEncoderMatchesLegacyUnprefixedBCryptHashAndRequestsUpgrade() {
+        PasswordEncoder passwordEncoder = securityConfiguration.passwordEncoder();
+        String legacyHash = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(passwordEncoder.matches("secret", legacyHash));
+        assertTrue(passwordEncoder.upgradeEncoding(legacyHash));
+        assertFalse(passwordEncoder.upgradeEncoding(passwordEncoder.encode("secret")));
+    }
+
+    @Test
+    void passwordEncoderKeepsVerifyingBCryptHashesAfterSwitchingToPbkdf2() {
+        String bcryptHash = securityConfiguration.passwordEncoder().encode("secret");
+        ReflectionTestUtils.setField(securityConfiguration, "passwordEncoderId", "pbkdf2");
+        PasswordEncoder pbkdf2 = securityConfiguration.passwordEncoder();
+
+        assertTrue(pbkdf2.matches("secret", bcryptHash));
+        assertTrue(pbkdf2.upgradeEncoding(bcryptHash));
+        assertTrue(pbkdf2.encode("secret").startsWith("{pbkdf2}"));
+    }
+
+    @Test
+    void passwordEncoderRejectsUnknownEncoderId() {
+        ReflectionTestUtils.setField(securityConfiguration, "passwordEncoderId", "md5");
+
+        assertThrows(IllegalStateException.class, () -> securityConfiguration.passwordEncoder());
     }
 
     @Test
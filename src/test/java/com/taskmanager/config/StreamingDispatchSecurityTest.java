@@ -0,0 +1,225 @@
+package com.taskmanager.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.ai.controller.AITaskController;
+import com.taskmanager.ai.service.AITaskService;
+import com.taskmanager.ai.service.DocumentImportJobService;
+import com.taskmanager.ai.service.DocumentTaskImportService;
+import com.taskmanager.api.controller.TaskManagementController;
+import com.taskmanager.api.dto.GetTaskResponse;
+import com.taskmanager.security.ClientIpRateLimitFilter;
+import com.taskmanager.security.jwt.JWTFilter;
+import com.taskmanager.service.TaskEventPublisher;
+import com.taskmanager.service.TaskService;
+import com.taskmanager.service.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Streaming responses finish on an ASYNC dispatch that goes through the security filter chain
+ * again without a bearer token being parsed. These run the real {@link SecurityConfiguration}
+ * through both dispatches of each streaming endpoint.
+ */
+@SpringJUnitWebConfig
+@TestPropertySource(properties = {
+        "cors.allowed-origins=http://localhost:3000",
+        "cors.allowed-methods=GET,POST"
+})
+class StreamingDispatchSecurityTest {
+
+    @Configuration
+    @EnableWebMvc
+    @Import({SecurityConfiguration.class, TaskManagementController.class, AITaskController.class})
+    static class TestConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @MockitoBean
+    private JWTFilter jwtFilter;
+
+    @MockitoBean
+    private ClientIpRateLimitFilter clientIpRateLimitFilter;
+
+    @MockitoBean
+    private UserDetailsServiceImpl userDetailsService;
+
+    @MockitoBean
+    private TaskService taskService;
+
+    @MockitoBean
+    private TaskEventPublisher taskEventPublisher;
+
+    @MockitoBean
+    private AITaskService aiTaskService;
+
+    @MockitoBean
+    private DocumentTaskImportService documentTaskImportService;
+
+    @MockitoBean
+    private DocumentImportJobService documentImportJobService;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Like JWTFilter (a OncePerRequestFilter), authenticate on the REQUEST dispatch only
+        doAnswer(invocation -> {
+            HttpServletRequest request = invocation.getArgument(0);
+            if (request.getDispatcherType() == DispatcherType.REQUEST) {
+                SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                        "user@example.com", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+            }
+            invocation.<FilterChain>getArgument(2).doFilter(request, invocation.getArgument(1));
+            return null;
+        }).when(jwtFilter).doFilter(any(), any(), any());
+        passThrough(clientIpRateLimitFilter);
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    private static void passThrough(Filter filter) throws Exception {
+        doAnswer(invocation -> {
+            invocation.<FilterChain>getArgument(2).doFilter(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(filter).doFilter(any(), any(), any());
+    }
+
+    private ResultActions streamed(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+    }
+
+    @Test
+    void ndjsonTaskStreamCompletesOnAsyncDispatch() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<Consumer<GetTaskResponse>>getArgument(0)
+                    .accept(new GetTaskResponse(1L, "Task 1", "Description", "PENDING"));
+            return null;
+        }).when(taskService).streamAllTasks(any());
+
+        MvcResult result = mockMvc.perform(get("/task/").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"title\":\"Task 1\"")));
+    }
+
+    @Test
+    void taskEventStreamCompletesOnAsyncDispatch() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(taskEventPublisher.subscribe()).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get("/task/events").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name("deleted").data("{\"id\":1}"));
+        emitter.complete();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("event:deleted")));
+    }
+
+    @Test
+    void streamedDescriptionCompletesOnAsyncDispatch() throws Exception {
+        when(aiTaskService.streamDescription("Ship it")).thenReturn(Flux.just("Do", "ne"));
+
+        streamed(post("/ai/task/generate-description")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .content("{\"title\":\"Ship it\"}"))
+                .andExpect(content().string(containsString("event:done")));
+    }
+
+    @Test
+    void streamedSummaryCompletesOnAsyncDispatch() throws Exception {
+        when(taskService.getAllTasks()).thenReturn(List.of());
+        when(aiTaskService.streamSummary(anyList())).thenReturn(Flux.just("All clear"));
+
+        streamed(get("/ai/task/summarize").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:done")));
+    }
+
+    @Test
+    void streamedBreakdownCompletesOnAsyncDispatch() throws Exception {
+        when(aiTaskService.streamBreakdown("Ship it", "Release 2.0")).thenReturn(Flux.just("1. Tag"));
+
+        streamed(post("/ai/task/breakdown")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .content("{\"title\":\"Ship it\",\"description\":\"Release 2.0\"}"))
+                .andExpect(content().string(containsString("event:done")));
+    }
+
+    @Test
+    void streamedChatCompletesOnAsyncDispatch() throws Exception {
+        when(taskService.getAllTasks()).thenReturn(List.of());
+        when(aiTaskService.streamChat(anyString(), anyList())).thenReturn(Flux.just("Nothing is blocked"));
+
+        streamed(post("/ai/task/chat")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .content("{\"message\":\"Anything blocked?\"}"))
+                .andExpect(header().string("X-Tasks-Analyzed", "0"))
+                .andExpect(content().string(containsString("event:done")));
+    }
+}
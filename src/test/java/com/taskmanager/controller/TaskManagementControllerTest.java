@@ -1,28 +1,38 @@
 package com.taskmanager.controller;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.taskmanager.api.controller.TaskManagementController;
-import com.taskmanager.domain.model.Tasks;
 import com.taskmanager.exception.BadRequest;
 import com.taskmanager.exception.InternalServerError;
 import com.taskmanager.exception.NotFound;
+import com.taskmanager.service.TaskEventPublisher;
 import com.taskmanager.service.TaskService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import com.taskmanager.api.dto.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +41,12 @@ class TaskManagementControllerTest {
     @Mock
     private TaskService taskService;
 
+    @Mock
+    private TaskEventPublisher taskEventPublisher;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private TaskManagementController taskManagementController;
 
@@ -45,7 +61,7 @@ class TaskManagementControllerTest {
 
         when(taskService.getTask(1)).thenReturn(response);
 
-        ResponseEntity<GetTaskResponse> result = taskManagementController.getTask(1);
+        ResponseEntity<GetTaskResponse> result = taskManagementController.getTask(1, null);
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals(response, result.getBody());
@@ -54,11 +70,43 @@ class TaskManagementControllerTest {
 
 
 
+    @Test
+    void getTaskSetsETagFromVersion() {
+        GetTaskResponse response = new GetTaskResponse(1L, "Test Task", null, "To Do", 3L);
+
+        when(taskService.getTask(1)).thenReturn(response);
+
+        ResponseEntity<GetTaskResponse> result = taskManagementController.getTask(1, null);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("\"1-3\"", result.getHeaders().getETag());
+    }
+
+    @Test
+    void getTaskReturnsNotModifiedWhenETagMatches() {
+        when(taskService.getTask(1)).thenReturn(new GetTaskResponse(1L, "Test Task", null, "To Do", 3L));
+
+        ResponseEntity<GetTaskResponse> result = taskManagementController.getTask(1, "\"0-9\", W/\"1-3\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, result.getStatusCode());
+        assertNull(result.getBody());
+    }
+
+    @Test
+    void getTaskReturnsBodyWhenETagIsStale() {
+        when(taskService.getTask(1)).thenReturn(new GetTaskResponse(1L, "Test Task", null, "To Do", 4L));
+
+        ResponseEntity<GetTaskResponse> result = taskManagementController.getTask(1, "\"1-3\"");
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("\"1-4\"", result.getHeaders().getETag());
+    }
+
     @Test
     void getTaskThrowsInternalServerErrorWhenServiceThrowsException() {
         when(taskService.getTask(anyInt())).thenThrow(new RuntimeException("Database error"));
 
-        assertThrows(RuntimeException.class, () -> taskManagementController.getTask(1));
+        assertThrows(RuntimeException.class, () -> taskManagementController.getTask(1, null));
     }
 
     @Test
@@ -68,14 +116,12 @@ class TaskManagementControllerTest {
         request.setDescription("New Description");
         request.setStatus("To Do");
 
-        when(taskService.findByTitle("New Task")).thenReturn(null);
         when(taskService.saveTask(any(SaveTaskRequest.class))).thenReturn(1L);
 
         ResponseEntity<String> result = taskManagementController.saveTask(request);
 
         assertEquals(HttpStatus.CREATED, result.getStatusCode());
         assertEquals("1", result.getBody());
-        verify(taskService, times(1)).findByTitle("New Task");
         verify(taskService, times(1)).saveTask(request);
     }
 
@@ -88,7 +134,6 @@ class TaskManagementControllerTest {
         request.setDescription("Description");
         request.setStatus("To Do");
 
-        when(taskService.findByTitle("New Task")).thenReturn(null);
         when(taskService.saveTask(any(SaveTaskRequest.class))).thenReturn(0L);
 
         assertThrows(InternalServerError.class, () -> taskManagementController.saveTask(request));
@@ -101,7 +146,7 @@ class TaskManagementControllerTest {
         request.setDescription("Description");
         request.setStatus("To Do");
 
-        when(taskService.findByTitle(anyString())).thenThrow(new RuntimeException("Database error"));
+        when(taskService.saveTask(any(SaveTaskRequest.class))).thenThrow(new RuntimeException("Database error"));
 
         assertThrows(RuntimeException.class, () -> taskManagementController.saveTask(request));
     }
@@ -114,14 +159,12 @@ class TaskManagementControllerTest {
         request.setDescription("Updated Description");
         request.setStatus("In Progress");
 
-        when(taskService.findByTitle("Updated Task")).thenReturn(null);
         when(taskService.updateTask(any(UpdateTaskRequest.class))).thenReturn(true);
 
         ResponseEntity<String> result = taskManagementController.updateTask(request);
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals("Successfully Updated", result.getBody());
-        verify(taskService, times(1)).findByTitle("Updated Task");
         verify(taskService, times(1)).updateTask(request);
     }
 
@@ -133,11 +176,6 @@ class TaskManagementControllerTest {
         request.setDescription("Updated Description");
         request.setStatus("In Progress");
 
-        Tasks existingTask = new Tasks();
-        existingTask.setTaskId(1L);
-        existingTask.setTitle("Existing Task");
-
-        when(taskService.findByTitle("Existing Task")).thenReturn(existingTask);
         when(taskService.updateTask(any(UpdateTaskRequest.class))).thenReturn(true);
 
         ResponseEntity<String> result = taskManagementController.updateTask(request);
@@ -158,7 +196,7 @@ class TaskManagementControllerTest {
         request.setDescription("Description");
         request.setStatus("To Do");
 
-        when(taskService.findByTitle(anyString())).thenThrow(new RuntimeException("Database error"));
+        when(taskService.updateTask(any(UpdateTaskRequest.class))).thenThrow(new RuntimeException("Database error"));
 
         assertThrows(RuntimeException.class, () -> taskManagementController.updateTask(request));
     }
@@ -209,15 +247,15 @@ class TaskManagementControllerTest {
 
         List<GetTaskResponse> taskList = Arrays.asList(task1, task2);
 
-        when(taskService.getAllTasks()).thenReturn(taskList);
+        when(taskService.getTasksPage(null, 100)).thenReturn(taskList);
 
-        ResponseEntity<List<GetTaskResponse>> result = taskManagementController.getAllTasks();
+        ResponseEntity<List<GetTaskResponse>> result = taskManagementController.getAllTasks(100, null, null);
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertNotNull(result.getBody());
         assertEquals(2, result.getBody().size());
         assertEquals(taskList, result.getBody());
-        verify(taskService, times(1)).getAllTasks();
+        verify(taskService, times(1)).getTasksPage(null, 100);
     }
 
     @Test
@@ -231,59 +269,50 @@ class TaskManagementControllerTest {
 
         List<GetTaskResponse> taskList = Collections.singletonList(task);
 
-        when(taskService.getAllTasks()).thenReturn(taskList);
+        when(taskService.getTasksPage(null, 100)).thenReturn(taskList);
 
-        ResponseEntity<List<GetTaskResponse>> result = taskManagementController.getAllTasks();
+        ResponseEntity<List<GetTaskResponse>> result = taskManagementController.getAllTasks(100, null, null);
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertNotNull(result.getBody());
         assertEquals(1, result.getBody().size());
-        verify(taskService, times(1)).getAllTasks();
+        verify(taskService, times(1)).getTasksPage(null, 100);
     }
 
 
 
     @Test
     void getAllTasksThrowsInternalServerErrorWhenServiceThrowsException() {
-        when(taskService.getAllTasks()).thenThrow(new RuntimeException("Database error"));
+        when(taskService.getTasksPage(null, 100)).thenThrow(new RuntimeException("Database error"));
 
-        assertThrows(RuntimeException.class, () -> taskManagementController.getAllTasks());
+        assertThrows(RuntimeException.class, () -> taskManagementController.getAllTasks(100, null, null));
     }
 
     @Test
-    void saveTaskReturnsBadRequestWhenTitleAlreadyExists() {
+    void saveTaskPropagatesBadRequestWhenTitleAlreadyExists() {
         SaveTaskRequest request = new SaveTaskRequest();
         request.setTitle("Existing");
         request.setDescription("Desc");
         request.setStatus("To Do");
 
-        Tasks existing = new Tasks();
-        existing.setTaskId(2L);
-        existing.setTitle("Existing");
-
-        when(taskService.findByTitle("Existing")).thenReturn(existing);
+        when(taskService.saveTask(request)).thenThrow(new BadRequest("Title already exists: Existing"));
 
         assertThrows(BadRequest.class, () -> taskManagementController.saveTask(request));
-        verify(taskService, times(1)).findByTitle("Existing");
-        verify(taskService, never()).saveTask(any());
+        verify(taskService, never()).findByTitle(any());
     }
 
     @Test
-    void updateTaskThrowsBadRequestWhenTitleBelongsToOtherTask() {
+    void updateTaskPropagatesBadRequestWhenTitleBelongsToOtherTask() {
         UpdateTaskRequest request = new UpdateTaskRequest();
         request.setId(1L);
         request.setTitle("Existing");
         request.setDescription("Desc");
         request.setStatus("To Do");
 
-        Tasks existing = new Tasks();
-        existing.setTaskId(2L); // different id
-        existing.setTitle("Existing");
-
-        when(taskService.findByTitle("Existing")).thenReturn(existing);
+        when(taskService.updateTask(request)).thenThrow(new BadRequest("Title already exists: Existing"));
 
         assertThrows(BadRequest.class, () -> taskManagementController.updateTask(request));
-        verify(taskService, times(1)).findByTitle("Existing");
+        verify(taskService, never()).findByTitle(any());
     }
 
     @Test
@@ -294,7 +323,6 @@ class TaskManagementControllerTest {
         request.setDescription("Desc");
         request.setStatus("To Do");
 
-        when(taskService.findByTitle("New")).thenReturn(null);
         when(taskService.updateTask(any(UpdateTaskRequest.class))).thenReturn(false);
 
         assertThrows(NotFound.class, () -> taskManagementController.updateTask(request));
@@ -311,9 +339,226 @@ class TaskManagementControllerTest {
 
     @Test
     void getAllTasksThrowsNotFoundWhenEmptyList() {
-        when(taskService.getAllTasks()).thenReturn(Collections.emptyList());
+        when(taskService.getTasksPage(null, 100)).thenReturn(Collections.emptyList());
+
+        assertThrows(NotFound.class, () -> taskManagementController.getAllTasks(100, null, null));
+        verify(taskService, times(1)).getTasksPage(null, 100);
+    }
+
+    @Test
+    void getAllTasksSetsNextCursorWhenPageIsFull() {
+        List<GetTaskResponse> page = List.of(
+                GetTaskResponse.builder().id(3L).title("Task 3").build(),
+                GetTaskResponse.builder().id(7L).title("Task 7").build());
+
+        when(taskService.getTasksPage(1L, 2)).thenReturn(page);
+
+        ResponseEntity<List<GetTaskResponse>> result = taskManagementController.getAllTasks(2, 1L, null);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(page, result.getBody());
+        assertEquals("7", result.getHeaders().getFirst(TaskManagementController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void searchTasksBuildsCriteriaAndSetsNextCursor() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<GetTaskResponse> page = List.of(GetTaskResponse.builder().id(5L).title("Report").build());
+        TaskSearchCriteria expected = TaskSearchCriteria.builder()
+                .status("To Do").titlePrefix("Rep").createdFrom(from).build();
+
+        when(taskService.searchTasks(expected, null, 1)).thenReturn(page);
+
+        ResponseEntity<List<GetTaskResponse>> result = taskManagementController.searchTasks(
+                null, "To Do", "Rep", " ", from, null, null, null, 1, null);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(page, result.getBody());
+        assertEquals("5", result.getHeaders().getFirst(TaskManagementController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void searchTasksReturnsEmptyListWhenNothingMatches() {
+        when(taskService.searchTasks(any(TaskSearchCriteria.class), eq(null), eq(100))).thenReturn(List.of());
+
+        ResponseEntity<List<GetTaskResponse>> result = taskManagementController.searchTasks(
+                null, "Done", null, null, null, null, null, null, 100, null);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertTrue(result.getBody().isEmpty());
+        assertNull(result.getHeaders().getFirst(TaskManagementController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void subscribeToTaskEventsReturnsPublisherEmitter() {
+        SseEmitter emitter = new SseEmitter();
+        when(taskEventPublisher.subscribe()).thenReturn(emitter);
+
+        assertSame(emitter, taskManagementController.subscribeToTaskEvents());
+    }
+
+    @Test
+    void getChangesPassesTokenToService() {
+        TaskChangesResponse changes = TaskChangesResponse.builder()
+                .upserts(List.of()).deletes(List.of(3L)).nextToken("next").build();
+
+        when(taskService.getChangesSince("abc")).thenReturn(changes);
+
+        ResponseEntity<TaskChangesResponse> result = taskManagementController.getChanges("abc");
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(changes, result.getBody());
+    }
+
+    @Test
+    void getChangesTreatsBlankTokenAsMissing() {
+        when(taskService.getChangesSince(null)).thenReturn(TaskChangesResponse.builder().resyncRequired(true).build());
+
+        ResponseEntity<TaskChangesResponse> result = taskManagementController.getChanges(" ");
+
+        assertTrue(result.getBody().isResyncRequired());
+    }
+
+    @Test
+    void searchTasksRejectsLimitOutOfRange() {
+        assertThrows(BadRequest.class, () -> taskManagementController.searchTasks(
+                null, null, null, null, null, null, null, null, 0, null));
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void searchTasksWithQueryReturnsRankedResultsWithoutCursor() {
+        List<GetTaskResponse> ranked = List.of(GetTaskResponse.builder().id(9L).title("Quarterly report").build());
+        TaskSearchCriteria expected = TaskSearchCriteria.builder().query("report").build();
+
+        when(taskService.searchTasks(expected, null, 1)).thenReturn(ranked);
+
+        ResponseEntity<List<GetTaskResponse>> result = taskManagementController.searchTasks(
+                "report", null, null, null, null, null, null, null, 1, null);
+
+        assertEquals(ranked, result.getBody());
+        assertNull(result.getHeaders().getFirst(TaskManagementController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void searchTasksRejectsCursorWithQuery() {
+        assertThrows(BadRequest.class, () -> taskManagementController.searchTasks(
+                "report", null, null, null, null, null, null, null, 100, 5L));
+        verifyNoInteractions(taskService);
+    }
+
+    @Test
+    void getAllTasksOmitsNextCursorOnLastPage() {
+        List<GetTaskResponse> page = List.of(GetTaskResponse.builder().id(3L).title("Task 3").build());
+
+        when(taskService.getTasksPage(null, 2)).thenReturn(page);
+
+        ResponseEntity<List<GetTaskResponse>> result = taskManagementController.getAllTasks(2, null, null);
+
+        assertNull(result.getHeaders().getFirst(TaskManagementController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    void getAllTasksReturnsEmptyPageWhenCursorIsPastLastRow() {
+        when(taskService.getTasksPage(50L, 100)).thenReturn(Collections.emptyList());
+
+        ResponseEntity<List<GetTaskResponse>> result = taskManagementController.getAllTasks(100, 50L, null);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertTrue(result.getBody().isEmpty());
+    }
+
+    @Test
+    void getAllTasksSetsETagFromChangeCounter() {
+        when(taskService.getChangeCount()).thenReturn(42L);
+        when(taskService.getTasksPage(null, 100)).thenReturn(List.of(GetTaskResponse.builder().id(1L).build()));
+
+        ResponseEntity<List<GetTaskResponse>> result = taskManagementController.getAllTasks(100, null, null);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("\"tasks-42\"", result.getHeaders().getETag());
+    }
 
-        assertThrows(NotFound.class, () -> taskManagementController.getAllTasks());
-        verify(taskService, times(1)).getAllTasks();
+    @Test
+    void getAllTasksReturnsNotModifiedWithoutQueryingWhenCounterUnchanged() {
+        when(taskService.getChangeCount()).thenReturn(42L);
+
+        ResponseEntity<List<GetTaskResponse>> result = taskManagementController.getAllTasks(100, null, "\"tasks-42\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, result.getStatusCode());
+        assertNull(result.getBody());
+        verify(taskService, never()).getTasksPage(any(), anyInt());
+    }
+
+    @Test
+    void getAllTasksThrowsBadRequestWhenLimitOutOfRange() {
+        assertThrows(BadRequest.class, () -> taskManagementController.getAllTasks(0, null, null));
+        assertThrows(BadRequest.class, () -> taskManagementController.getAllTasks(1001, null, null));
+        verify(taskService, never()).getTasksPage(any(), anyInt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAllTasksWritesOneJsonObjectPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<GetTaskResponse> consumer = invocation.getArgument(0);
+            consumer.accept(GetTaskResponse.builder().id(1L).title("Task 1").description("D1").status("TODO").build());
+            consumer.accept(GetTaskResponse.builder().id(2L).title("Task 2").description("D2").status("DONE").build());
+            return null;
+        }).when(taskService).streamAllTasks(any(Consumer.class));
+
+        ResponseEntity<StreamingResponseBody> result = taskManagementController.streamAllTasks();
+        assertEquals(MediaType.APPLICATION_NDJSON, result.getHeaders().getContentType());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        result.getBody().writeTo(out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":1"));
+        assertTrue(lines[1].contains("\"title\":\"Task 2\""));
+    }
+
+    @Test
+    void saveTasksDelegatesBatchToService() {
+        SaveTaskRequest request = new SaveTaskRequest();
+        request.setTitle("Batch Task");
+        BatchSaveTaskRequest batchRequest = new BatchSaveTaskRequest();
+        batchRequest.setTasks(List.of(request));
+        List<BatchItemResult> results = List.of(BatchItemResult.builder().index(0).id(1L)
+                .status(com.taskmanager.api.enums.BatchItemStatus.CREATED).build());
+
+        when(taskService.saveTasks(batchRequest.getTasks())).thenReturn(results);
+
+        ResponseEntity<List<BatchItemResult>> result = taskManagementController.saveTasks(batchRequest);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(results, result.getBody());
+    }
+
+    @Test
+    void updateTasksDelegatesBatchToService() {
+        BatchUpdateTaskRequest batchRequest = new BatchUpdateTaskRequest();
+        batchRequest.setTasks(List.of(new UpdateTaskRequest()));
+
+        when(taskService.updateTasks(batchRequest.getTasks())).thenReturn(List.of());
+
+        ResponseEntity<List<BatchItemResult>> result = taskManagementController.updateTasks(batchRequest);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        verify(taskService, times(1)).updateTasks(batchRequest.getTasks());
+    }
+
+    @Test
+    void deleteTasksDelegatesBatchToService() {
+        BatchDeleteTaskRequest batchRequest = new BatchDeleteTaskRequest();
+        batchRequest.setIds(List.of(1L, 2L));
+
+        when(taskService.deleteTasks(List.of(1L, 2L))).thenReturn(List.of());
+
+        ResponseEntity<List<BatchItemResult>> result = taskManagementController.deleteTasks(batchRequest);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        verify(taskService, times(1)).deleteTasks(List.of(1L, 2L));
     }
 }
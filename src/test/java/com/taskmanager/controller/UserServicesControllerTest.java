@@ -4,8 +4,11 @@ import com.taskmanager.api.controller.UserServicesController;
 import com.taskmanager.api.dto.*;
 import com.taskmanager.domain.model.UserInfo;
 import com.taskmanager.mapper.UserMapper;
+import com.taskmanager.security.UserInfoUserDetails;
+import com.taskmanager.security.jwt.VerifiedClaims;
 import com.taskmanager.service.JWTService;
 import com.taskmanager.service.RegistrationService;
+import com.taskmanager.service.TokenVersionService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -21,6 +24,7 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 
+import java.time.Instant;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -47,6 +51,9 @@ class UserServicesControllerTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private TokenVersionService tokenVersionService;
+
     @InjectMocks
     private UserServicesController userServicesController;
 
@@ -231,6 +238,10 @@ class UserServicesControllerTest {
         verify(registrationService, times(1)).addUser(any(UserInfo.class));
     }
 
+    private VerifiedClaims verifiedClaims(String email, String role) {
+        return new VerifiedClaims(email, role, Instant.now().plusSeconds(900), 0L);
+    }
+
     @Test
     void refreshTokenSuccessfullyGeneratesNewToken() {
         String oldToken = "eyJhbGciOiJIUzUxMiJ9.oldtoken";
@@ -239,10 +250,8 @@ class UserServicesControllerTest {
         UserInfo userInfo = new UserInfo();
         userInfo.setEmail("user@example.com");
 
-        when(jwtService.extractEmail(oldToken)).thenReturn("user@example.com");
-        when(jwtService.extractRole(oldToken)).thenReturn("ROLE_USER");
+        when(jwtService.verify(oldToken)).thenReturn(Optional.of(verifiedClaims("user@example.com", "ROLE_USER")));
         when(registrationService.findByEmail("user@example.com")).thenReturn(Optional.of(userInfo));
-        when(jwtService.validateToken("user@example.com", "user@example.com", oldToken)).thenReturn(true);
         when(jwtService.generateToken(eq("user@example.com"), any())).thenReturn("new-jwt-token");
 
         ResponseEntity<?> result = userServicesController.refreshToken(authHeader);
@@ -250,10 +259,10 @@ class UserServicesControllerTest {
         assertEquals(HttpStatus.OK, result.getStatusCode());
         assertEquals("user@example.com", result.getBody());
         assertEquals("Bearer new-jwt-token", result.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
-        verify(jwtService, times(1)).extractEmail(oldToken);
-        verify(jwtService, times(1)).extractRole(oldToken);
-        verify(jwtService, times(1)).validateToken("user@example.com", "user@example.com", oldToken);
-        verify(jwtService, times(1)).generateToken(eq("user@example.com"), eq(java.util.Map.of("role", "ROLE_USER")));
+        // The old token is decoded exactly once
+        verify(jwtService, times(1)).verify(oldToken);
+        verify(jwtService, times(1)).generateToken(eq("user@example.com"), eq(java.util.Map.of("role", "ROLE_USER", JWTService.TOKEN_VERSION_CLAIM, "0")));
+        verifyNoMoreInteractions(jwtService);
     }
 
     @Test
@@ -275,15 +284,14 @@ class UserServicesControllerTest {
         String oldToken = "eyJhbGciOiJIUzUxMiJ9.oldtoken";
         String authHeader = "Bearer " + oldToken;
 
-        when(jwtService.extractEmail(oldToken)).thenReturn("nonexistent@example.com");
-        when(jwtService.extractRole(oldToken)).thenReturn("ROLE_USER");
+        when(jwtService.verify(oldToken)).thenReturn(Optional.of(verifiedClaims("nonexistent@example.com", "ROLE_USER")));
         when(registrationService.findByEmail("nonexistent@example.com")).thenReturn(Optional.empty());
 
         assertThrows(com.taskmanager.exception.Unauthorized.class,
                 () -> userServicesController.refreshToken(authHeader));
 
         verify(registrationService, times(1)).findByEmail("nonexistent@example.com");
-        verify(jwtService, never()).validateToken(anyString(), anyString(), anyString());
+        verify(jwtService, never()).generateToken(anyString(), any());
     }
 
     @Test
@@ -291,18 +299,12 @@ class UserServicesControllerTest {
         String oldToken = "eyJhbGciOiJIUzUxMiJ9.expiredtoken";
         String authHeader = "Bearer " + oldToken;
 
-        UserInfo userInfo = new UserInfo();
-        userInfo.setEmail("user@example.com");
-
-        when(jwtService.extractEmail(oldToken)).thenReturn("user@example.com");
-        when(jwtService.extractRole(oldToken)).thenReturn("ROLE_USER");
-        when(registrationService.findByEmail("user@example.com")).thenReturn(Optional.of(userInfo));
-        when(jwtService.validateToken("user@example.com", "user@example.com", oldToken)).thenReturn(false);
+        when(jwtService.verify(oldToken)).thenReturn(Optional.empty());
 
         assertThrows(com.taskmanager.exception.Unauthorized.class,
                 () -> userServicesController.refreshToken(authHeader));
 
-        verify(jwtService, times(1)).validateToken("user@example.com", "user@example.com", oldToken);
+        verify(registrationService, never()).findByEmail(anyString());
         verify(jwtService, never()).generateToken(anyString(), any());
     }
 
@@ -314,10 +316,8 @@ class UserServicesControllerTest {
         UserInfo userInfo = new UserInfo();
         userInfo.setEmail("user@example.com");
 
-        when(jwtService.extractEmail(oldToken)).thenReturn("user@example.com");
-        when(jwtService.extractRole(oldToken)).thenReturn("ROLE_USER");
+        when(jwtService.verify(oldToken)).thenReturn(Optional.of(verifiedClaims("user@example.com", "ROLE_USER")));
         when(registrationService.findByEmail("user@example.com")).thenReturn(Optional.of(userInfo));
-        when(jwtService.validateToken("user@example.com", "user@example.com", oldToken)).thenReturn(true);
         when(jwtService.generateToken(anyString(), any())).thenReturn(null);
 
         assertThrows(com.taskmanager.exception.Unauthorized.class,
@@ -332,23 +332,21 @@ class UserServicesControllerTest {
         UserInfo userInfo = new UserInfo();
         userInfo.setEmail("admin@example.com");
 
-        when(jwtService.extractEmail(oldToken)).thenReturn("admin@example.com");
-        when(jwtService.extractRole(oldToken)).thenReturn("ROLE_ADMIN");
+        when(jwtService.verify(oldToken)).thenReturn(Optional.of(verifiedClaims("admin@example.com", "ROLE_ADMIN")));
         when(registrationService.findByEmail("admin@example.com")).thenReturn(Optional.of(userInfo));
-        when(jwtService.validateToken("admin@example.com", "admin@example.com", oldToken)).thenReturn(true);
         when(jwtService.generateToken(anyString(), any())).thenReturn("new-admin-token");
 
         ResponseEntity<?> result = userServicesController.refreshToken(authHeader);
 
         assertEquals(HttpStatus.OK, result.getStatusCode());
-        verify(jwtService).generateToken(eq("admin@example.com"), eq(java.util.Map.of("role", "ROLE_ADMIN")));
+        verify(jwtService).generateToken(eq("admin@example.com"), eq(java.util.Map.of("role", "ROLE_ADMIN", JWTService.TOKEN_VERSION_CLAIM, "0")));
     }
 
     @Test
     void refreshTokenHandlesMalformedToken() {
         String authHeader = "Bearer malformed.token";
 
-        when(jwtService.extractEmail("malformed.token")).thenThrow(new RuntimeException("Invalid token format"));
+        when(jwtService.verify("malformed.token")).thenReturn(Optional.empty());
 
         assertThrows(com.taskmanager.exception.Unauthorized.class,
                 () -> userServicesController.refreshToken(authHeader));
@@ -369,4 +367,82 @@ class UserServicesControllerTest {
         assertThrows(com.taskmanager.exception.Unauthorized.class,
                 () -> userServicesController.refreshToken(authHeader));
     }
+
+    @Test
+    void authenticatePutsDatabaseTokenVersionIntoToken() {
+        AuthenticationRequest authRequest = new AuthenticationRequest("user@example.com", "password123");
+        UserInfo userInfo = new UserInfo();
+        userInfo.setEmail("user@example.com");
+        userInfo.setRole("USER");
+        // Cached principal from before a revoke on another instance
+        userInfo.setToken_version(3L);
+        UserInfoUserDetails principal = new UserInfoUserDetails(userInfo);
+
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(principal);
+        doReturn(principal.getAuthorities()).when(authentication).getAuthorities();
+        when(tokenVersionService.issueVersion("user@example.com")).thenReturn(4L);
+        when(jwtService.generateToken(anyString(), any())).thenReturn("jwt-token");
+
+        userServicesController.authenticate(authRequest);
+
+        verify(jwtService).generateToken(eq("user@example.com"),
+                eq(java.util.Map.of("role", "ROLE_USER", JWTService.TOKEN_VERSION_CLAIM, "4")));
+    }
+
+    @Test
+    void refreshTokenThrowsUnauthorizedWhenTokenWasRevoked() {
+        String oldToken = "eyJhbGciOiJIUzUxMiJ9.revokedtoken";
+        String authHeader = "Bearer " + oldToken;
+
+        UserInfo userInfo = new UserInfo();
+        userInfo.setEmail("user@example.com");
+        userInfo.setToken_version(1L);
+
+        when(jwtService.verify(oldToken)).thenReturn(Optional.of(verifiedClaims("user@example.com", "ROLE_USER")));
+        when(registrationService.findByEmail("user@example.com")).thenReturn(Optional.of(userInfo));
+
+        assertThrows(com.taskmanager.exception.Unauthorized.class,
+                () -> userServicesController.refreshToken(authHeader));
+
+        verify(jwtService, never()).generateToken(anyString(), any());
+    }
+
+    @Test
+    void revokeTokensBumpsTokenVersionOfCaller() {
+        String token = "eyJhbGciOiJIUzUxMiJ9.token";
+        VerifiedClaims claims = verifiedClaims("user@example.com", "ROLE_USER");
+
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims));
+        when(tokenVersionService.isCurrent(claims)).thenReturn(true);
+        when(tokenVersionService.revokeTokens("user@example.com")).thenReturn(true);
+
+        ResponseEntity<?> result = userServicesController.revokeTokens("Bearer " + token);
+
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals("user@example.com", result.getBody());
+        verify(tokenVersionService).revokeTokens("user@example.com");
+    }
+
+    @Test
+    void revokeTokensRejectsAlreadyRevokedToken() {
+        String token = "eyJhbGciOiJIUzUxMiJ9.token";
+        VerifiedClaims claims = verifiedClaims("user@example.com", "ROLE_USER");
+
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims));
+        when(tokenVersionService.isCurrent(claims)).thenReturn(false);
+
+        assertThrows(com.taskmanager.exception.Unauthorized.class,
+                () -> userServicesController.revokeTokens("Bearer " + token));
+
+        verify(tokenVersionService, never()).revokeTokens(anyString());
+    }
+
+    @Test
+    void revokeTokensThrowsUnauthorizedWhenHeaderDoesNotStartWithBearer() {
+        assertThrows(com.taskmanager.exception.Unauthorized.class,
+                () -> userServicesController.revokeTokens("Basic abc123"));
+
+        verifyNoInteractions(jwtService, tokenVersionService);
+    }
 }
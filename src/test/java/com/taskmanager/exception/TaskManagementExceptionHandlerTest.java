@@ -1,6 +1,7 @@
 package com.taskmanager.exception;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -123,6 +124,17 @@ class TaskManagementExceptionHandlerTest {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, resp.getStatusCode());
     }
 
+    // ── OptimisticLockingFailureException ────────────────────────────────────
+
+    @Test
+    void optimisticLockingFailureReturnsConflict() {
+        ResponseEntity<ErrorResponse> resp = handler.conflict(new OptimisticLockingFailureException("stale"));
+
+        assertEquals(HttpStatus.CONFLICT, resp.getStatusCode());
+        assertNotNull(resp.getBody());
+        assertEquals(409, resp.getBody().getCode());
+    }
+
     // ── Unauthorized ─────────────────────────────────────────────────────────
 
     @Test
@@ -159,6 +171,30 @@ class TaskManagementExceptionHandlerTest {
         assertEquals(HttpStatus.UNAUTHORIZED, resp.getStatusCode());
     }
 
+    // ── ServiceUnavailable ───────────────────────────────────────────────────
+
+    @Test
+    void serviceUnavailableProduces503WithRetryAfter() {
+        ResponseEntity<ErrorResponse> resp = handler.serviceUnavailable(new ServiceUnavailable("busy"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, resp.getStatusCode());
+        assertEquals(503, resp.getBody().getCode());
+        assertEquals("busy", resp.getBody().getMessage());
+        assertEquals("1", resp.getHeaders().getFirst("Retry-After"));
+    }
+
+    // ── TooManyRequests ──────────────────────────────────────────────────────
+
+    @Test
+    void tooManyRequestsProduces429WithRetryAfter() {
+        ResponseEntity<ErrorResponse> resp = handler.tooManyRequests(new TooManyRequests("slow down"));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, resp.getStatusCode());
+        assertEquals(429, resp.getBody().getCode());
+        assertEquals("slow down", resp.getBody().getMessage());
+        assertEquals("1", resp.getHeaders().getFirst("Retry-After"));
+    }
+
     // ── AuthorizationDeniedException ─────────────────────────────────────────
 
     @Test
@@ -0,0 +1,89 @@
+package com.taskmanager.filter;
+
+import com.taskmanager.exception.ServiceUnavailable;
+import com.taskmanager.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PasswordEncoder delegate = mock(PasswordEncoder.class);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.close();
+    }
+
+    @Test
+    void delegatesHashingOffTheCallingThread() {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 5000, meterRegistry);
+        Thread caller = Thread.currentThread();
+        when(delegate.encode("secret")).thenAnswer(invocation -> {
+            assertNotSame(caller, Thread.currentThread());
+            return "hash";
+        });
+        when(delegate.matches("secret", "hash")).thenReturn(true);
+
+        assertEquals("hash", encoder.encode("secret"));
+        assertTrue(encoder.matches("secret", "hash"));
+        assertEquals(2, meterRegistry.get("password.hashing.duration").timer().count());
+    }
+
+    @Test
+    void rejectsWith503WhenQueueIsFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 5000, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        when(delegate.encode(anyString())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (meterRegistry.get("password.hashing.queued").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(ServiceUnavailable.class, () -> encoder.encode("c"));
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rejectsWith503WhenHashDoesNotFinishInTime() {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 50, meterRegistry);
+        when(delegate.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            Thread.sleep(5000);
+            return true;
+        });
+
+        assertThrows(ServiceUnavailable.class, () -> encoder.matches("secret", "hash"));
+        assertEquals(1.0, meterRegistry.get("password.hashing.rejected").counter().count());
+    }
+
+    @Test
+    void upgradeEncodingStaysOnCallingThread() {
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, 5000, meterRegistry);
+        when(delegate.upgradeEncoding("hash")).thenReturn(true);
+
+        assertTrue(encoder.upgradeEncoding("hash"));
+        assertEquals(0, meterRegistry.get("password.hashing.duration").timer().count());
+    }
+}
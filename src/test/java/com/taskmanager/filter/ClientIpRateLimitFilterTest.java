@@ -0,0 +1,76 @@
+package com.taskmanager.filter;
+
+import com.taskmanager.security.ClientIpRateLimitFilter;
+import com.taskmanager.service.ClientIpRateLimiter;
+import com.taskmanager.service.ClientIpRateLimiter.Tier;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClientIpRateLimitFilterTest {
+
+    @Mock
+    private ClientIpRateLimiter rateLimiter;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private FilterChain filterChain;
+
+    @InjectMocks
+    private ClientIpRateLimitFilter filter;
+
+    private void requestTo(String path) {
+        when(request.getRequestURI()).thenReturn(path);
+        when(request.getContextPath()).thenReturn("");
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        when(request.getHeader("X-Forwarded-For")).thenReturn(null);
+        when(rateLimiter.clientIp("10.0.0.1", null)).thenReturn("10.0.0.1");
+        when(rateLimiter.tierFor(path)).thenReturn(Tier.LOGIN);
+    }
+
+    @Test
+    void passesRequestWithinLimit() throws ServletException, IOException {
+        requestTo("/user/authenticate");
+        when(rateLimiter.tryConsume(Tier.LOGIN, "10.0.0.1")).thenReturn(ConsumptionProbe.consumed(1, 0));
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verify(response, never()).setStatus(429);
+    }
+
+    @Test
+    void rejectsWith429AndRetryAfterBeforeAuthentication() throws ServletException, IOException {
+        PrintWriter writer = mock(PrintWriter.class);
+        requestTo("/user/authenticate");
+        when(rateLimiter.tryConsume(Tier.LOGIN, "10.0.0.1"))
+                .thenReturn(ConsumptionProbe.rejected(0, TimeUnit.MILLISECONDS.toNanos(2500), TimeUnit.MILLISECONDS.toNanos(2500)));
+        when(response.getWriter()).thenReturn(writer);
+
+        filter.doFilterInternal(request, response, filterChain);
+
+        verify(response).setStatus(429);
+        verify(response).setHeader("Retry-After", "3");
+        verify(writer).write("{\"error\":\"Too many requests. Please try again later.\"}");
+        verify(filterChain, never()).doFilter(request, response);
+    }
+}
@@ -1,13 +1,19 @@
 package com.taskmanager.filter;
 
+import com.taskmanager.security.UserInfoUserDetails;
 import com.taskmanager.security.jwt.JWTFilter;
+import com.taskmanager.security.jwt.JWTVerificationCache;
+import com.taskmanager.security.jwt.VerifiedClaims;
 import com.taskmanager.service.JWTService;
 import com.taskmanager.service.RateLimiterService;
+import com.taskmanager.service.TokenVersionService;
 import com.taskmanager.service.UserDetailsServiceImpl;
+import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -19,14 +25,18 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.Collections;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +51,12 @@ class JWTFilterTest {
     @Mock
     private RateLimiterService rateLimiterService;
 
+    @Mock
+    private JWTVerificationCache verificationCache;
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+
     @Mock
     private HttpServletRequest request;
 
@@ -56,28 +72,90 @@ class JWTFilterTest {
     @InjectMocks
     private JWTFilter jwtFilter;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(tokenVersionService.isCurrent(any())).thenReturn(true);
+        lenient().when(request.getMethod()).thenReturn("GET");
+        lenient().when(request.getRequestURI()).thenReturn("/task/1");
+        lenient().when(request.getContextPath()).thenReturn("");
+    }
+
+    private static ConsumptionProbe consumed() {
+        return ConsumptionProbe.consumed(9, 0);
+    }
+
+    private static ConsumptionProbe rejected() {
+        return ConsumptionProbe.rejected(0, 1_500_000_000L, 1_500_000_000L);
+    }
+
+    private VerifiedClaims claims(String email) {
+        return new VerifiedClaims(email, "ROLE_USER", Instant.now().plusSeconds(900), 0L);
+    }
+
+    private UserDetails user(String email, String... roles) {
+        return User.builder()
+                .username(email)
+                .password("password")
+                .authorities(Arrays.stream(roles).map(SimpleGrantedAuthority::new).toList())
+                .build();
+    }
+
     @Test
     void authenticatesUserWhenValidTokenIsProvided() throws ServletException, IOException {
         String token = "valid.jwt.token";
         String email = "user@example.com";
-        UserDetails userDetails = User.builder()
-                .username(email)
-                .password("password")
-                .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")))
-                .build();
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractEmail(token)).thenReturn(email);
-        when(rateLimiterService.tryConsume(email)).thenReturn(true); // Rate limit not exceeded
-        when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
-        when(jwtService.validateToken(email, email, token)).thenReturn(true);
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims(email)));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(consumed()); // Rate limit not exceeded
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(user(email, "ROLE_USER"));
+
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(null);
+
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        verify(securityContext).setAuthentication(any());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void verifiesTokenExactlyOnceAndCachesClaims() throws ServletException, IOException {
+        String token = "valid.jwt.token";
+        String email = "user@example.com";
+        VerifiedClaims claims = claims(email);
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(consumed());
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(user(email, "ROLE_USER"));
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(null);
+
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        verify(jwtService, times(1)).verify(token);
+        verifyNoMoreInteractions(jwtService);
+        verify(verificationCache).put(token, claims);
+    }
+
+    @Test
+    void skipsVerificationForCachedToken() throws ServletException, IOException {
+        String token = "valid.jwt.token";
+        String email = "user@example.com";
 
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(verificationCache.get(token)).thenReturn(claims(email));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(consumed());
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(user(email, "ROLE_USER"));
         SecurityContextHolder.setContext(securityContext);
         when(securityContext.getAuthentication()).thenReturn(null);
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
         verify(securityContext).setAuthentication(any());
+        verifyNoInteractions(jwtService);
+        verify(verificationCache, never()).put(anyString(), any());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -87,7 +165,7 @@ class JWTFilterTest {
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService, never()).extractEmail(anyString());
+        verify(jwtService, never()).verify(anyString());
         verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(filterChain).doFilter(request, response);
     }
@@ -98,21 +176,22 @@ class JWTFilterTest {
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService, never()).extractEmail(anyString());
+        verify(jwtService, never()).verify(anyString());
         verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
     @Test
-    void continuesFilterChainWhenEmailCannotBeExtractedFromToken() throws ServletException, IOException {
+    void continuesFilterChainWhenTokenFailsVerification() throws ServletException, IOException {
         String token = "invalid.token";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractEmail(token)).thenReturn(null);
+        when(jwtService.verify(token)).thenReturn(Optional.empty());
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
         verify(userDetailsService, never()).loadUserByUsername(anyString());
+        verify(verificationCache, never()).put(anyString(), any());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -123,8 +202,8 @@ class JWTFilterTest {
         Authentication existingAuth = mock(Authentication.class);
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractEmail(token)).thenReturn(email);
-        when(rateLimiterService.tryConsume(email)).thenReturn(true); // Rate limit not exceeded
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims(email)));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(consumed()); // Rate limit not exceeded
 
         SecurityContextHolder.setContext(securityContext);
         when(securityContext.getAuthentication()).thenReturn(existingAuth);
@@ -137,20 +216,14 @@ class JWTFilterTest {
     }
 
     @Test
-    void doesNotAuthenticateWhenTokenValidationFails() throws ServletException, IOException {
-        String token = "invalid.jwt.token";
+    void doesNotAuthenticateWhenUserRecordDoesNotMatchSubject() throws ServletException, IOException {
+        String token = "valid.jwt.token";
         String email = "user@example.com";
-        UserDetails userDetails = User.builder()
-                .username(email)
-                .password("password")
-                .authorities(Collections.emptyList())
-                .build();
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractEmail(token)).thenReturn(email);
-        when(rateLimiterService.tryConsume(email)).thenReturn(true); // Rate limit not exceeded
-        when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
-        when(jwtService.validateToken(email, email, token)).thenReturn(false);
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims(email)));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(consumed()); // Rate limit not exceeded
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(user("other@example.com"));
 
         SecurityContextHolder.setContext(securityContext);
         when(securityContext.getAuthentication()).thenReturn(null);
@@ -164,10 +237,11 @@ class JWTFilterTest {
     @Test
     void handlesEmptyBearerToken() throws ServletException, IOException {
         when(request.getHeader("Authorization")).thenReturn("Bearer ");
+        when(jwtService.verify("")).thenReturn(Optional.empty());
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService).extractEmail("");
+        verify(jwtService).verify("");
         verify(filterChain).doFilter(request, response);
     }
 
@@ -177,24 +251,16 @@ class JWTFilterTest {
         String email = "test@example.com";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractEmail(token)).thenReturn(email);
-        when(rateLimiterService.tryConsume(email)).thenReturn(true); // Rate limit not exceeded
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims(email)));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(consumed()); // Rate limit not exceeded
 
         SecurityContextHolder.setContext(securityContext);
         when(securityContext.getAuthentication()).thenReturn(null);
-
-        UserDetails userDetails = User.builder()
-                .username(email)
-                .password("password")
-                .authorities(Collections.emptyList())
-                .build();
-
-        when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
-        when(jwtService.validateToken(email, email, token)).thenReturn(true);
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(user(email));
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService).extractEmail(token);
+        verify(jwtService).verify(token);
         verify(filterChain).doFilter(request, response);
     }
 
@@ -202,17 +268,11 @@ class JWTFilterTest {
     void setsAuthenticationWithCorrectAuthorities() throws ServletException, IOException {
         String token = "valid.jwt.token";
         String email = "admin@example.com";
-        UserDetails userDetails = User.builder()
-                .username(email)
-                .password("password")
-                .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN")))
-                .build();
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractEmail(token)).thenReturn(email);
-        when(rateLimiterService.tryConsume(email)).thenReturn(true); // Rate limit not exceeded
-        when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
-        when(jwtService.validateToken(email, email, token)).thenReturn(true);
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims(email)));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(consumed()); // Rate limit not exceeded
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(user(email, "ROLE_ADMIN"));
 
         SecurityContextHolder.setContext(securityContext);
         when(securityContext.getAuthentication()).thenReturn(null);
@@ -232,7 +292,7 @@ class JWTFilterTest {
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService, never()).extractEmail(anyString());
+        verify(jwtService, never()).verify(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -242,8 +302,8 @@ class JWTFilterTest {
         String email = "user@example.com";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractEmail(token)).thenReturn(email);
-        when(rateLimiterService.tryConsume(email)).thenReturn(true); // Rate limit not exceeded
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims(email)));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(consumed()); // Rate limit not exceeded
         when(userDetailsService.loadUserByUsername(email)).thenThrow(new RuntimeException("User not found"));
 
         SecurityContextHolder.setContext(securityContext);
@@ -258,25 +318,19 @@ class JWTFilterTest {
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
-        verify(jwtService, never()).extractEmail(anyString());
+        verify(jwtService, never()).verify(anyString());
         verify(filterChain).doFilter(request, response);
     }
 
     @Test
-    void extractsEmailAndValidatesTokenWithDifferentEmailFormats() throws ServletException, IOException {
+    void authenticatesWithDifferentEmailFormats() throws ServletException, IOException {
         String token = "valid.jwt.token";
         String email = "user+test@example.co.uk";
-        UserDetails userDetails = User.builder()
-                .username(email)
-                .password("password")
-                .authorities(Collections.emptyList())
-                .build();
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractEmail(token)).thenReturn(email);
-        when(rateLimiterService.tryConsume(email)).thenReturn(true); // Rate limit not exceeded
-        when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
-        when(jwtService.validateToken(email, email, token)).thenReturn(true);
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims(email)));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(consumed()); // Rate limit not exceeded
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(user(email));
 
         SecurityContextHolder.setContext(securityContext);
         when(securityContext.getAuthentication()).thenReturn(null);
@@ -284,7 +338,7 @@ class JWTFilterTest {
         jwtFilter.doFilterInternal(request, response, filterChain);
 
         verify(userDetailsService).loadUserByUsername(email);
-        verify(jwtService).validateToken(email, email, token);
+        verify(securityContext).setAuthentication(any());
         verify(filterChain).doFilter(request, response);
     }
 
@@ -301,17 +355,11 @@ class JWTFilterTest {
     void setsAuthenticationDetailsFromRequest() throws ServletException, IOException {
         String token = "valid.jwt.token";
         String email = "user@example.com";
-        UserDetails userDetails = User.builder()
-                .username(email)
-                .password("password")
-                .authorities(Collections.emptyList())
-                .build();
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractEmail(token)).thenReturn(email);
-        when(rateLimiterService.tryConsume(email)).thenReturn(true); // Rate limit not exceeded
-        when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
-        when(jwtService.validateToken(email, email, token)).thenReturn(true);
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims(email)));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(consumed()); // Rate limit not exceeded
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(user(email));
 
         SecurityContextHolder.setContext(securityContext);
         when(securityContext.getAuthentication()).thenReturn(null);
@@ -329,13 +377,15 @@ class JWTFilterTest {
         PrintWriter writer = mock(PrintWriter.class);
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractEmail(token)).thenReturn(email);
-        when(rateLimiterService.tryConsume(email)).thenReturn(false); // Rate limit exceeded
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims(email)));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(rejected()); // Rate limit exceeded
         when(response.getWriter()).thenReturn(writer);
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
         verify(response).setStatus(429);
+        verify(response).setHeader("Retry-After", "2");
+        verify(response).setHeader("X-RateLimit-Remaining", "0");
         verify(response).setContentType("application/json");
         verify(writer).write("{\"error\":\"Too many requests. Please try again later.\"}");
         verify(filterChain, never()).doFilter(request, response);
@@ -343,34 +393,32 @@ class JWTFilterTest {
     }
 
     @Test
-    void doesNotCheckRateLimitWhenNoEmailExtracted() throws ServletException, IOException {
-        String token = "invalid.token";
+    void doesNotCheckRateLimitForUnverifiedToken() throws ServletException, IOException {
+        String token = "forged.token";
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractEmail(token)).thenReturn(null);
+        when(jwtService.verify(token)).thenReturn(Optional.empty());
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
-        verify(rateLimiterService, never()).tryConsume(anyString());
+        verify(rateLimiterService, never()).tryConsume(anyString(), any(), any());
         verify(filterChain).doFilter(request, response);
     }
 
     @Test
-    void checksRateLimitBeforeJWTValidation() throws ServletException, IOException {
+    void checksRateLimitBeforeUserLookup() throws ServletException, IOException {
         String token = "valid.jwt.token";
         String email = "user@example.com";
         PrintWriter writer = mock(PrintWriter.class);
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractEmail(token)).thenReturn(email);
-        when(rateLimiterService.tryConsume(email)).thenReturn(false); // Rate limit exceeded
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims(email)));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(rejected()); // Rate limit exceeded
         when(response.getWriter()).thenReturn(writer);
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
-        // Verify rate limit is checked before JWT validation
-        verify(rateLimiterService).tryConsume(email);
-        verify(jwtService, never()).validateToken(anyString(), anyString(), anyString());
+        verify(rateLimiterService).tryConsume(email, "GET", "/task/1");
         verify(userDetailsService, never()).loadUserByUsername(anyString());
         verify(response).setStatus(429);
     }
@@ -379,29 +427,91 @@ class JWTFilterTest {
     void allowsRequestWhenRateLimitNotExceeded() throws ServletException, IOException {
         String token = "valid.jwt.token";
         String email = "user@example.com";
-        UserDetails userDetails = User.builder()
-                .username(email)
-                .password("password")
-                .authorities(Collections.emptyList())
-                .build();
 
         when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
-        when(jwtService.extractEmail(token)).thenReturn(email);
-        when(rateLimiterService.tryConsume(email)).thenReturn(true); // Rate limit NOT exceeded
-        when(userDetailsService.loadUserByUsername(email)).thenReturn(userDetails);
-        when(jwtService.validateToken(email, email, token)).thenReturn(true);
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims(email)));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(consumed()); // Rate limit NOT exceeded
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(user(email));
 
         SecurityContextHolder.setContext(securityContext);
         when(securityContext.getAuthentication()).thenReturn(null);
 
         jwtFilter.doFilterInternal(request, response, filterChain);
 
-        verify(rateLimiterService).tryConsume(email);
-        verify(jwtService).validateToken(email, email, token);
+        verify(rateLimiterService).tryConsume(email, "GET", "/task/1");
+        verify(jwtService).verify(token);
         verify(userDetailsService).loadUserByUsername(email);
         verify(filterChain).doFilter(request, response);
         verify(response, never()).setStatus(429);
+        verify(response).setHeader("X-RateLimit-Remaining", "9");
     }
-}
 
+    @Test
+    void chargesRateLimitForRouteWithoutContextPath() throws ServletException, IOException {
+        String token = "valid.jwt.token";
+        String email = "user@example.com";
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getContextPath()).thenReturn("/api");
+        when(request.getRequestURI()).thenReturn("/api/ai/task/import-document");
+        when(jwtService.verify(token)).thenReturn(Optional.of(claims(email)));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(consumed());
+        when(userDetailsService.loadUserByUsername(email)).thenReturn(user(email));
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(null);
 
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        verify(rateLimiterService).tryConsume(email, "POST", "/ai/task/import-document");
+        verify(filterChain).doFilter(request, response);
+    }
+
+    // ── stateless mode ───────────────────────────────────────────────────────
+
+    @Test
+    void statelessModeBuildsPrincipalFromClaimsWithoutUserLookup() throws ServletException, IOException {
+        String token = "valid.jwt.token";
+        String email = "admin@example.com";
+        ReflectionTestUtils.setField(jwtFilter, "stateless", true);
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(verificationCache.get(token)).thenReturn(
+                new VerifiedClaims(email, "ROLE_ADMIN,ROLE_USER", Instant.now().plusSeconds(900), 2L));
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(consumed());
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(null);
+
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        verify(securityContext).setAuthentication(argThat(auth ->
+                auth.getPrincipal() instanceof UserInfoUserDetails user
+                        && email.equals(user.getUsername())
+                        && user.getPassword() == null
+                        && auth.getAuthorities().stream().map(a -> a.getAuthority()).toList()
+                                .equals(java.util.List.of("ROLE_ADMIN", "ROLE_USER"))));
+        verifyNoInteractions(userDetailsService, jwtService);
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doesNotAuthenticateRevokedToken() throws ServletException, IOException {
+        String token = "valid.jwt.token";
+        String email = "user@example.com";
+        VerifiedClaims claims = claims(email);
+        ReflectionTestUtils.setField(jwtFilter, "stateless", true);
+
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(verificationCache.get(token)).thenReturn(claims);
+        when(rateLimiterService.tryConsume(eq(email), any(), any())).thenReturn(consumed());
+        when(tokenVersionService.isCurrent(claims)).thenReturn(false);
+        SecurityContextHolder.setContext(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(null);
+
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        verify(securityContext, never()).setAuthentication(any());
+        verifyNoInteractions(userDetailsService);
+        verify(filterChain).doFilter(request, response);
+    }
+}
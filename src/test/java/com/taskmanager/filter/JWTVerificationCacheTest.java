@@ -0,0 +1,71 @@
+package com.taskmanager.filter;
+
+import com.taskmanager.security.jwt.JWTVerificationCache;
+import com.taskmanager.security.jwt.VerifiedClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JWTVerificationCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private JWTVerificationCache verificationCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        verificationCache = new JWTVerificationCache(meterRegistry);
+        ReflectionTestUtils.setField(verificationCache, "maxSize", 100L);
+        ReflectionTestUtils.invokeMethod(verificationCache, "init");
+    }
+
+    private VerifiedClaims claims(long expiresInMinutes) {
+        return new VerifiedClaims("user@example.com", "ROLE_USER", Instant.now().plusSeconds(expiresInMinutes * 60), 0L);
+    }
+
+    @Test
+    void returnsNullForUnknownToken() {
+        assertNull(verificationCache.get("unknown.token"));
+    }
+
+    @Test
+    void returnsClaimsForVerifiedToken() {
+        VerifiedClaims claims = claims(15);
+        verificationCache.put("a.b.c", claims);
+
+        assertEquals(claims, verificationCache.get("a.b.c"));
+        assertNull(verificationCache.get("a.b.d"));
+    }
+
+    @Test
+    void doesNotCacheExpiredTokens() {
+        verificationCache.put("expired", claims(-1));
+
+        assertNull(verificationCache.get("expired"));
+    }
+
+    @Test
+    void clearForgetsVerifiedTokens() {
+        verificationCache.put("a.b.c", claims(15));
+        verificationCache.clear();
+
+        assertNull(verificationCache.get("a.b.c"));
+    }
+
+    @Test
+    void hitAndMissCountsAreExportedToMicrometer() {
+        verificationCache.put("a.b.c", claims(15));
+        verificationCache.get("a.b.c");
+        verificationCache.get("x.y.z");
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "miss")
+                .functionCounter().count());
+    }
+}
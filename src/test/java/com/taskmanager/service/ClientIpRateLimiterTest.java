@@ -0,0 +1,76 @@
+package com.taskmanager.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static com.taskmanager.service.ClientIpRateLimiter.Tier;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientIpRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ClientIpRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new ClientIpRateLimiter(meterRegistry);
+        ReflectionTestUtils.setField(rateLimiter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimiter, "loginPerMinute", 2L);
+        ReflectionTestUtils.setField(rateLimiter, "registrationPerMinute", 1L);
+        ReflectionTestUtils.setField(rateLimiter, "aiPerMinute", 3L);
+        ReflectionTestUtils.setField(rateLimiter, "defaultPerMinute", 100L);
+        ReflectionTestUtils.setField(rateLimiter, "maxBuckets", 1000L);
+        ReflectionTestUtils.setField(rateLimiter, "forwardedHops", 0);
+        ReflectionTestUtils.invokeMethod(rateLimiter, "init");
+    }
+
+    @Test
+    void tierForMapsSensitiveEndpoints() {
+        assertEquals(Tier.LOGIN, rateLimiter.tierFor("/user/authenticate"));
+        assertEquals(Tier.LOGIN, rateLimiter.tierFor("/user/refresh-token"));
+        assertEquals(Tier.REGISTRATION, rateLimiter.tierFor("/user/new-registration"));
+        assertEquals(Tier.AI, rateLimiter.tierFor("/ai/task/import-document"));
+        assertEquals(Tier.AI, rateLimiter.tierFor("/ai/task/import-jobs"));
+        assertEquals(Tier.DEFAULT, rateLimiter.tierFor("/ai/task/import-jobs/0b6a7c1e-2f7d-4c38-9a52-5d0e4f1b7a93"));
+        assertEquals(Tier.DEFAULT, rateLimiter.tierFor("/task/1"));
+    }
+
+    @Test
+    void tiersHaveSeparateLimitsPerIp() {
+        assertTrue(rateLimiter.tryConsume(Tier.LOGIN, "10.0.0.1").isConsumed());
+        assertTrue(rateLimiter.tryConsume(Tier.LOGIN, "10.0.0.1").isConsumed());
+        assertFalse(rateLimiter.tryConsume(Tier.LOGIN, "10.0.0.1").isConsumed());
+
+        // Same IP, other tier; same tier, other IP
+        assertTrue(rateLimiter.tryConsume(Tier.REGISTRATION, "10.0.0.1").isConsumed());
+        assertTrue(rateLimiter.tryConsume(Tier.LOGIN, "10.0.0.2").isConsumed());
+        assertEquals(1.0, meterRegistry.get("rate.limit.ip.rejected").tag("tier", "login").counter().count());
+    }
+
+    @Test
+    void rejectedProbeReportsWaitUntilRefill() {
+        rateLimiter.tryConsume(Tier.REGISTRATION, "10.0.0.1");
+
+        long nanosToWait = rateLimiter.tryConsume(Tier.REGISTRATION, "10.0.0.1").getNanosToWaitForRefill();
+
+        assertTrue(nanosToWait > 0);
+    }
+
+    @Test
+    void clientIpIgnoresForwardedForWithoutTrustedProxies() {
+        assertEquals("10.0.0.9", rateLimiter.clientIp("10.0.0.9", "1.2.3.4"));
+    }
+
+    @Test
+    void clientIpTakesEntryAppendedByTrustedProxy() {
+        ReflectionTestUtils.setField(rateLimiter, "forwardedHops", 1);
+
+        // A client-supplied (spoofed) entry on the left is ignored
+        assertEquals("203.0.113.7", rateLimiter.clientIp("10.0.0.9", "6.6.6.6, 203.0.113.7"));
+        assertEquals("203.0.113.7", rateLimiter.clientIp("10.0.0.9", "203.0.113.7"));
+        assertEquals("10.0.0.9", rateLimiter.clientIp("10.0.0.9", null));
+    }
+}
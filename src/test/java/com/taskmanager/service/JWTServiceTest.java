@@ -1,12 +1,16 @@
 package com.taskmanager.service;
 
+import com.nimbusds.jwt.SignedJWT;
+import com.taskmanager.security.jwt.VerifiedClaims;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 
-import java.util.Date;
+import java.text.ParseException;
+import java.time.Instant;
 import java.util.HashMap;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -53,89 +57,70 @@ class JWTServiceTest {
         String token = jwtService.generateToken(null, new HashMap<>());
 
         assertNotNull(token);
-        assertNull(jwtService.extractEmail(token));
+        // A token without a subject never verifies
+        assertTrue(jwtService.verify(token).isEmpty());
     }
 
-    // ── extractEmail ─────────────────────────────────────────────────────────
+    // ── verify: email ────────────────────────────────────────────────────────
 
     @Test
-    void extractEmailReturnsCorrectEmailFromToken() {
+    void verifyReturnsCorrectEmailFromToken() {
         String email = "user@example.com";
         String token = jwtService.generateToken(email, new HashMap<>());
 
-        assertEquals(email, jwtService.extractEmail(token));
+        assertEquals(email, jwtService.verify(token).orElseThrow().email());
     }
 
     @Test
-    void extractEmailReturnsCorrectEmailForDifferentEmails() {
+    void verifyReturnsCorrectEmailForDifferentEmails() {
         String email1 = "admin@example.com";
         String email2 = "user@test.com";
         String token1 = jwtService.generateToken(email1, new HashMap<>());
         String token2 = jwtService.generateToken(email2, new HashMap<>());
 
-        assertEquals(email1, jwtService.extractEmail(token1));
-        assertEquals(email2, jwtService.extractEmail(token2));
+        assertEquals(email1, jwtService.verify(token1).orElseThrow().email());
+        assertEquals(email2, jwtService.verify(token2).orElseThrow().email());
     }
 
     @Test
-    void extractEmailHandlesEmailWithSpecialCharacters() {
+    void verifyHandlesEmailWithSpecialCharacters() {
         String email = "user+test@example.co.uk";
         String token = jwtService.generateToken(email, new HashMap<>());
 
-        assertEquals(email, jwtService.extractEmail(token));
+        assertEquals(email, jwtService.verify(token).orElseThrow().email());
     }
 
     @Test
-    void extractEmailThrowsExceptionForInvalidToken() {
-        // Nimbus wraps ParseException in RuntimeException for malformed tokens
-        assertThrows(RuntimeException.class, () ->
-            jwtService.extractEmail("invalid.token.here")
-        );
+    void verifyReturnsEmptyForInvalidToken() {
+        assertTrue(jwtService.verify("invalid.token.here").isEmpty());
     }
 
     @Test
-    void extractEmailThrowsExceptionForNullToken() {
-        assertThrows(Exception.class, () ->
-            jwtService.extractEmail(null)
-        );
+    void verifyReturnsEmptyForEmptyToken() {
+        assertTrue(jwtService.verify("").isEmpty());
     }
 
-    @Test
-    void extractEmailThrowsExceptionForEmptyToken() {
-        assertThrows(Exception.class, () ->
-            jwtService.extractEmail("")
-        );
-    }
-
-    // ── extractExpiration ────────────────────────────────────────────────────
+    // ── verify: expiry ───────────────────────────────────────────────────────
 
     @Test
-    void extractExpirationReturnsDateInFuture() {
+    void verifyReturnsExpiryInFuture() {
         String token = jwtService.generateToken("user@example.com", new HashMap<>());
 
-        Date expiration = jwtService.extractExpiration(token);
+        Instant expiration = jwtService.verify(token).orElseThrow().expiresAt();
 
         assertNotNull(expiration);
-        assertTrue(expiration.after(new Date()));
+        assertTrue(expiration.isAfter(Instant.now()));
     }
 
     @Test
-    void extractExpirationReturnsDateWithinConfiguredValidity() {
+    void verifyReturnsExpiryWithinConfiguredValidity() {
         long before = System.currentTimeMillis();
         String token = jwtService.generateToken("user@example.com", new HashMap<>());
 
-        Date expiration = jwtService.extractExpiration(token);
+        Instant expiration = jwtService.verify(token).orElseThrow().expiresAt();
 
         assertNotNull(expiration);
-        assertTrue(expiration.getTime() <= before + 3600000 + 1000); // within 1hr + 1s tolerance
-    }
-
-    @Test
-    void extractExpirationThrowsExceptionForInvalidToken() {
-        // Nimbus wraps ParseException in RuntimeException for malformed tokens
-        assertThrows(RuntimeException.class, () ->
-            jwtService.extractExpiration("invalid.token.here")
-        );
+        assertTrue(expiration.toEpochMilli() <= before + 3600000 + 1000); // within 1hr + 1s tolerance
     }
 
     // ── validateToken ────────────────────────────────────────────────────────
@@ -145,7 +130,7 @@ class JWTServiceTest {
         String email = "user@example.com";
         String token = jwtService.generateToken(email, new HashMap<>());
 
-        assertTrue(jwtService.validateToken(jwtService.extractEmail(token), email, token));
+        assertTrue(jwtService.validateToken(email, email, token));
     }
 
     @Test
@@ -161,7 +146,7 @@ class JWTServiceTest {
         String email = "user@example.com";
         String token = jwtService.generateToken(email, new HashMap<>());
 
-        assertFalse(jwtService.validateToken(jwtService.extractEmail(token), "different@example.com", token));
+        assertFalse(jwtService.validateToken(email, "different@example.com", token));
     }
 
     @Test
@@ -178,7 +163,7 @@ class JWTServiceTest {
         String token = jwtService.generateToken(email, new HashMap<>());
 
         // Case-sensitive: "User@Example.com" != "user@example.com"
-        assertFalse(jwtService.validateToken(jwtService.extractEmail(token), "user@example.com", token));
+        assertFalse(jwtService.validateToken(email, "user@example.com", token));
     }
 
     @Test
@@ -195,4 +180,63 @@ class JWTServiceTest {
     void validateTokenReturnsFalseForMalformedToken() {
         assertFalse(jwtService.validateToken("user@example.com", "user@example.com", "not.a.jwt"));
     }
+
+    // ── verify ───────────────────────────────────────────────────────────────
+
+    @Test
+    void verifyReturnsEmailRoleAndExpiryFromOneParse() throws ParseException {
+        String token = jwtService.generateToken("user@example.com", Map.of("role", "ROLE_ADMIN"));
+
+        VerifiedClaims claims = jwtService.verify(token).orElseThrow();
+
+        assertEquals("user@example.com", claims.email());
+        assertEquals("ROLE_ADMIN", claims.role());
+        assertEquals(SignedJWT.parse(token).getJWTClaimsSet().getExpirationTime().toInstant(), claims.expiresAt());
+    }
+
+    @Test
+    void verifyReturnsTokenVersionClaim() {
+        String token = jwtService.generateToken("user@example.com",
+                Map.of("role", "ROLE_USER", JWTService.TOKEN_VERSION_CLAIM, "3"));
+
+        assertEquals(3L, jwtService.verify(token).orElseThrow().tokenVersion());
+    }
+
+    @Test
+    void verifyTreatsMissingTokenVersionAsZero() {
+        String token = jwtService.generateToken("user@example.com", Map.of("role", "ROLE_USER"));
+
+        assertEquals(0L, jwtService.verify(token).orElseThrow().tokenVersion());
+    }
+
+    @Test
+    void verifyReturnsEmptyForTokenWithWrongSignature() {
+        String tampered = "eyJhbGciOiJIUzUxMiJ9" +
+                ".eyJzdWIiOiJ1c2VyQGV4YW1wbGUuY29tIiwiaXNzIjoidGVzdC1pc3N1ZXIiLCJleHAiOjk5OTk5OTk5OTl9" +
+                ".AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA";
+
+        assertTrue(jwtService.verify(tampered).isEmpty());
+    }
+
+    @Test
+    void verifyReturnsEmptyForNonHs512Token() {
+        // {"alg":"HS256"} header with a valid-looking payload
+        String hs256 = "eyJhbGciOiJIUzI1NiJ9" +
+                ".eyJzdWIiOiJ1c2VyQGV4YW1wbGUuY29tIiwiaXNzIjoidGVzdC1pc3N1ZXIiLCJleHAiOjk5OTk5OTk5OTl9" +
+                ".AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA";
+
+        assertTrue(jwtService.verify(hs256).isEmpty());
+    }
+
+    @Test
+    void verifyReturnsEmptyForTokenWithoutSubject() {
+        String token = jwtService.generateToken(null, new HashMap<>());
+
+        assertTrue(jwtService.verify(token).isEmpty());
+    }
+
+    @Test
+    void verifyReturnsEmptyForMalformedToken() {
+        assertTrue(jwtService.verify("not.a.jwt").isEmpty());
+    }
 }
@@ -0,0 +1,31 @@
+package com.taskmanager.service;
+
+import io.github.bucket4j.postgresql.PostgreSQLSelectForUpdateBasedProxyManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitBucketPurgerTest {
+
+    @Mock
+    private PostgreSQLSelectForUpdateBasedProxyManager<String> proxyManager;
+
+    @InjectMocks
+    private RateLimitBucketPurger purger;
+
+    @Test
+    void purgesInBatchesUntilABatchComesBackShort() {
+        ReflectionTestUtils.setField(purger, "batchSize", 100);
+        when(proxyManager.removeExpired(100)).thenReturn(100, 100, 7);
+
+        purger.purgeExpiredBuckets();
+
+        verify(proxyManager, times(3)).removeExpired(100);
+    }
+}
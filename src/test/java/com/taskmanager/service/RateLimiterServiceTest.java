@@ -1,24 +1,42 @@
 package com.taskmanager.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.taskmanager.config.RateLimitRouteProperties;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.github.bucket4j.distributed.proxy.RemoteBucketBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.Duration;
+import java.util.Optional;
+
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
 
 class RateLimiterServiceTest {
 
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitRouteProperties routeProperties;
     private RateLimiterService rateLimiterService;
 
     @BeforeEach
     void setUp() {
-        rateLimiterService = new RateLimiterService();
+        meterRegistry = new SimpleMeterRegistry();
+        routeProperties = new RateLimitRouteProperties();
+        rateLimiterService = new RateLimiterService(meterRegistry, Optional.empty(), routeProperties);
         ReflectionTestUtils.setField(rateLimiterService, "capacity", 10L);
         ReflectionTestUtils.setField(rateLimiterService, "refillTokens", 1L);
         ReflectionTestUtils.setField(rateLimiterService, "refillDurationSeconds", 10L);
         ReflectionTestUtils.setField(rateLimiterService, "greedyRefill", true);
         ReflectionTestUtils.setField(rateLimiterService, "tokensPerRequest", 1L);
+        ReflectionTestUtils.setField(rateLimiterService, "maxBuckets", 1000L);
+        ReflectionTestUtils.invokeMethod(rateLimiterService, "init");
     }
 
     @Test
@@ -351,5 +369,156 @@ class RateLimiterServiceTest {
 
         assertFalse(rateLimiterService.tryConsume(key));
     }
-}
 
+    @Test
+    void idleBucketsExpireOnceTheyWouldHaveFullyRefilled() {
+        // capacity 10, 1 token per 10 s: an emptied bucket is full again after 100 s
+        assertEquals(Duration.ofSeconds(100), ReflectionTestUtils.invokeMethod(rateLimiterService, "timeToFullRefill"));
+
+        ReflectionTestUtils.setField(rateLimiterService, "refillTokens", 3L);
+        assertEquals(Duration.ofSeconds(40), ReflectionTestUtils.invokeMethod(rateLimiterService, "timeToFullRefill"));
+    }
+
+    @Test
+    void bucketStoreIsBoundedByMaxBuckets() {
+        ReflectionTestUtils.setField(rateLimiterService, "maxBuckets", 2L);
+        ReflectionTestUtils.invokeMethod(rateLimiterService, "init");
+
+        for (int i = 0; i < 10; i++) {
+            rateLimiterService.tryConsume("user" + i + "@example.com");
+        }
+        Cache<?, ?> cache = (Cache<?, ?>) ReflectionTestUtils.getField(rateLimiterService, "cache");
+        cache.cleanUp();
+
+        assertTrue(rateLimiterService.getBucketCount() <= 2);
+    }
+
+    @Test
+    void bucketCountAndMemoryAreExportedAsGauges() {
+        rateLimiterService.tryConsume("user1@example.com");
+        rateLimiterService.tryConsume("user2@example.com");
+
+        assertEquals(2.0, meterRegistry.get("rate.limit.buckets").gauge().value());
+        assertEquals(2.0 * RateLimiterService.ESTIMATED_BYTES_PER_BUCKET,
+                meterRegistry.get("rate.limit.buckets.memory").gauge().value());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void distributedBackendBuildsPrefetchingProxyOncePerKey() {
+        ProxyManager<String> proxyManager = mock(ProxyManager.class);
+        RemoteBucketBuilder<String> builder = mock(RemoteBucketBuilder.class);
+        BucketProxy proxy = mock(BucketProxy.class);
+        when(proxyManager.builder()).thenReturn(builder);
+        when(builder.withOptimization(any())).thenReturn(builder);
+        when(builder.build(eq("user@example.com"), any())).thenReturn(proxy);
+        when(proxy.tryConsume(1L)).thenReturn(true, false);
+
+        rateLimiterService = new RateLimiterService(meterRegistry, Optional.of(proxyManager), routeProperties);
+        ReflectionTestUtils.setField(rateLimiterService, "capacity", 10L);
+        ReflectionTestUtils.setField(rateLimiterService, "refillTokens", 1L);
+        ReflectionTestUtils.setField(rateLimiterService, "refillDurationSeconds", 10L);
+        ReflectionTestUtils.setField(rateLimiterService, "tokensPerRequest", 1L);
+        ReflectionTestUtils.setField(rateLimiterService, "maxBuckets", 1000L);
+        ReflectionTestUtils.setField(rateLimiterService, "prefetchTokens", 5L);
+        ReflectionTestUtils.setField(rateLimiterService, "prefetchMaxDelayMs", 500L);
+        ReflectionTestUtils.invokeMethod(rateLimiterService, "init");
+
+        assertTrue(rateLimiterService.tryConsume("user@example.com"));
+        assertFalse(rateLimiterService.tryConsume("user@example.com"));
+
+        verify(proxyManager, times(1)).builder();
+        verify(builder).withOptimization(any());
+    }
+
+    // ── per-route costs ──────────────────────────────────────────────────────
+
+    private static RateLimitRouteProperties.Route route(String method, String path, long cost, String group) {
+        RateLimitRouteProperties.Route route = new RateLimitRouteProperties.Route();
+        route.setMethod(method);
+        route.setPath(path);
+        route.setCost(cost);
+        route.setGroup(group);
+        return route;
+    }
+
+    private void configureAiGroup(long capacity) {
+        RateLimitRouteProperties.Group ai = new RateLimitRouteProperties.Group();
+        ai.setCapacity(capacity);
+        ai.setRefillTokens(1);
+        ai.setRefillSeconds(60);
+        routeProperties.getGroups().put("ai", ai);
+        routeProperties.getRoutes().add(route("POST", "/ai/task/import-document", 3, "ai"));
+        routeProperties.getRoutes().add(route(null, "/ai/**", 1, "ai"));
+        routeProperties.getRoutes().add(route("GET", "/task/**", 2, "default"));
+        ReflectionTestUtils.invokeMethod(rateLimiterService, "init");
+    }
+
+    @Test
+    void unmatchedRouteCostsTokensPerRequestAndReportsRemaining() {
+        ConsumptionProbe probe = rateLimiterService.tryConsume("user@example.com", "DELETE", "/task/1");
+
+        assertTrue(probe.isConsumed());
+        assertEquals(9, probe.getRemainingTokens());
+    }
+
+    @Test
+    void matchedRouteChargesItsCost() {
+        configureAiGroup(5);
+
+        ConsumptionProbe probe = rateLimiterService.tryConsume("user@example.com", "GET", "/task/1");
+
+        assertTrue(probe.isConsumed());
+        assertEquals(8, probe.getRemainingTokens());
+    }
+
+    @Test
+    void firstMatchingRouteWinsAndMethodIsRespected() {
+        configureAiGroup(5);
+
+        assertEquals(2, rateLimiterService.tryConsume("user@example.com", "POST", "/ai/task/import-document").getRemainingTokens());
+        // GET does not match the POST-only entry and falls through to /ai/**
+        assertEquals(1, rateLimiterService.tryConsume("user@example.com", "GET", "/ai/task/import-document").getRemainingTokens());
+    }
+
+    @Test
+    void groupsHaveSeparateBucketsPerUser() {
+        configureAiGroup(3);
+
+        assertTrue(rateLimiterService.tryConsume("user@example.com", "POST", "/ai/task/import-document").isConsumed());
+        ConsumptionProbe rejected = rateLimiterService.tryConsume("user@example.com", "POST", "/ai/task/import-document");
+
+        assertFalse(rejected.isConsumed());
+        assertTrue(rejected.getNanosToWaitForRefill() > 0);
+        // The exhausted AI budget leaves the default bucket untouched
+        assertEquals(9, rateLimiterService.tryConsume("user@example.com", "DELETE", "/task/1").getRemainingTokens());
+    }
+
+    @Test
+    void clearBucketResetsEveryGroup() {
+        configureAiGroup(3);
+        rateLimiterService.tryConsume("user@example.com", "POST", "/ai/task/import-document");
+        rateLimiterService.tryConsume("user@example.com", "DELETE", "/task/1");
+
+        rateLimiterService.clearBucket("user@example.com");
+
+        assertEquals(0, rateLimiterService.getBucketCount());
+        assertTrue(rateLimiterService.tryConsume("user@example.com", "POST", "/ai/task/import-document").isConsumed());
+        assertEquals(10L, rateLimiterService.getAvailableTokens("user@example.com"));
+    }
+
+    @Test
+    void idleExpiryCoversTheSlowestGroup() {
+        configureAiGroup(5);
+
+        // ai: 5 tokens at 1 per 60 s outlasts the default 100 s
+        assertEquals(Duration.ofSeconds(300), ReflectionTestUtils.invokeMethod(rateLimiterService, "timeToFullRefill"));
+    }
+
+    @Test
+    void unknownGroupFailsAtStartup() {
+        routeProperties.getRoutes().add(route(null, "/ai/**", 1, "missing"));
+
+        assertThrows(IllegalStateException.class, () -> ReflectionTestUtils.invokeMethod(rateLimiterService, "init"));
+    }
+}
@@ -4,13 +4,17 @@ package com.taskmanager.service;
 
 import com.taskmanager.domain.model.UserInfo;
 import com.taskmanager.domain.repository.UserInfoRepository;
+import com.taskmanager.exception.BadRequest;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLException;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,6 +31,9 @@ class RegistrationServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
     @InjectMocks
     private RegistrationService registrationService;
 
@@ -243,5 +250,31 @@ class RegistrationServiceTest {
         assertEquals(expectedUser.getId(), result.get().getId());
         assertEquals(expectedUser.getFirstname(), result.get().getFirstname());
     }
-}
 
+    @Test
+    void addUserEvictsCachedUserDetails() {
+        UserInfo userInfo = new UserInfo();
+        userInfo.setEmail("newuser@example.com");
+        userInfo.setPassword("plainPassword");
+
+        when(passwordEncoder.encode("plainPassword")).thenReturn("encodedPassword");
+
+        registrationService.addUser(userInfo);
+
+        verify(userDetailsService).evict("newuser@example.com");
+    }
+
+    @Test
+    void addUserRejectsDuplicateEmailReportedByUniqueIndex() {
+        UserInfo userInfo = new UserInfo();
+        userInfo.setEmail("dup@example.com");
+        userInfo.setPassword("plainPassword");
+
+        when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(repository.save(any(UserInfo.class))).thenThrow(new DataIntegrityViolationException("duplicate",
+                new ConstraintViolationException("duplicate key", new SQLException("23505"), RegistrationService.EMAIL_UNIQUE_INDEX)));
+
+        assertThrows(BadRequest.class, () -> registrationService.addUser(userInfo));
+        verify(userDetailsService, never()).evict(anyString());
+    }
+}
@@ -0,0 +1,95 @@
+package com.taskmanager.service;
+
+import com.taskmanager.api.dto.GetTaskResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TaskCache taskCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        taskCache = new TaskCache(meterRegistry);
+        ReflectionTestUtils.setField(taskCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(taskCache, "ttlSeconds", 60L);
+        ReflectionTestUtils.invokeMethod(taskCache, "init");
+    }
+
+    private GetTaskResponse task(long id, String title) {
+        return GetTaskResponse.builder().id(id).title(title).build();
+    }
+
+    @Test
+    void getReturnsNullOnMiss() {
+        assertNull(taskCache.get(1L));
+    }
+
+    @Test
+    void putOutsideTransactionIsVisibleImmediately() {
+        taskCache.put(task(1L, "A"));
+
+        assertEquals("A", taskCache.get(1L).getTitle());
+    }
+
+    @Test
+    void putIfAbsentDoesNotOverwriteNewerValue() {
+        taskCache.put(task(1L, "New"));
+        taskCache.putIfAbsent(task(1L, "Stale"), taskCache.generation(1L));
+
+        assertEquals("New", taskCache.get(1L).getTitle());
+    }
+
+    @Test
+    void putIfAbsentCachesRowWhenNothingWasWritten() {
+        taskCache.putIfAbsent(task(1L, "Loaded"), taskCache.generation(1L));
+
+        assertEquals("Loaded", taskCache.get(1L).getTitle());
+    }
+
+    @Test
+    void rowLoadedBeforeADeleteIsNotCachedAfterIt() {
+        long generation = taskCache.generation(1L);
+        // The reader loaded the row, then the delete committed before it reached the cache
+        taskCache.evict(1L);
+        taskCache.putIfAbsent(task(1L, "Deleted"), generation);
+
+        assertNull(taskCache.get(1L));
+    }
+
+    @Test
+    void evictRemovesEntry() {
+        taskCache.put(task(1L, "A"));
+        taskCache.evict(1L);
+
+        assertNull(taskCache.get(1L));
+    }
+
+    @Test
+    void clearRemovesAllEntries() {
+        taskCache.put(task(1L, "A"));
+        taskCache.put(task(2L, "B"));
+        taskCache.clear();
+
+        assertNull(taskCache.get(1L));
+        assertNull(taskCache.get(2L));
+    }
+
+    @Test
+    void hitAndMissCountsAreExportedToMicrometer() {
+        taskCache.put(task(1L, "A"));
+        taskCache.get(1L);
+        taskCache.get(2L);
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "tasks").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "tasks").tag("result", "miss")
+                .functionCounter().count());
+    }
+}
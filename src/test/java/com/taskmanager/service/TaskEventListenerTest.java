@@ -0,0 +1,100 @@
+package com.taskmanager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.api.dto.GetTaskResponse;
+import com.taskmanager.api.dto.TaskEvent;
+import com.taskmanager.api.enums.TaskEventType;
+import com.taskmanager.domain.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskEventListenerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private TaskEventPublisher taskEventPublisher;
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskCache taskCache;
+
+    private TaskEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new TaskEventListener(dataSource, taskEventPublisher, taskRepository, taskCache, objectMapper);
+    }
+
+    private TaskEvent dispatched() {
+        ArgumentCaptor<TaskEvent> event = ArgumentCaptor.forClass(TaskEvent.class);
+        verify(taskEventPublisher).dispatch(event.capture());
+        return event.getValue();
+    }
+
+    @Test
+    void eventWithTaskIsDispatchedAsSent() throws Exception {
+        GetTaskResponse task = GetTaskResponse.builder().id(3L).title("T").status("PENDING").build();
+        listener.deliver(objectMapper.writeValueAsString(
+                TaskEvent.builder().type(TaskEventType.UPDATED).id(3L).task(task).build()));
+
+        TaskEvent event = dispatched();
+        assertEquals(TaskEventType.UPDATED, event.getType());
+        assertEquals("T", event.getTask().getTitle());
+        verify(taskCache).evict(3L);
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void eventSentByIdLoadsTheTask() {
+        when(taskRepository.findResponseById(4L))
+                .thenReturn(Optional.of(GetTaskResponse.builder().id(4L).title("Big").build()));
+
+        listener.deliver("{\"type\":\"CREATED\",\"id\":4,\"task\":null}");
+
+        assertEquals("Big", dispatched().getTask().getTitle());
+        verify(taskCache, never()).evict(any());
+    }
+
+    @Test
+    void eventSentByIdForTaskDeletedSinceIsSkipped() {
+        when(taskRepository.findResponseById(4L)).thenReturn(Optional.empty());
+
+        listener.deliver("{\"type\":\"UPDATED\",\"id\":4}");
+
+        verify(taskEventPublisher, never()).dispatch(any());
+    }
+
+    @Test
+    void deletedEventIsDispatchedWithoutLoading() {
+        listener.deliver("{\"type\":\"DELETED\",\"id\":5,\"task\":null}");
+
+        assertEquals(5L, dispatched().getId());
+        verify(taskCache).evict(5L);
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void malformedPayloadIsIgnored() {
+        listener.deliver("not json");
+
+        verify(taskEventPublisher, never()).dispatch(any());
+    }
+}
@@ -0,0 +1,174 @@
+package com.taskmanager.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskmanager.api.dto.GetTaskResponse;
+import com.taskmanager.api.dto.TaskEvent;
+import com.taskmanager.api.enums.TaskEventType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class TaskEventPublisherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private JdbcTemplate jdbcTemplate;
+    private TaskEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        jdbcTemplate = mock(JdbcTemplate.class);
+        publisher = new TaskEventPublisher(meterRegistry, jdbcTemplate, objectMapper);
+        ReflectionTestUtils.setField(publisher, "bufferSize", 2);
+        ReflectionTestUtils.setField(publisher, "heartbeatSeconds", 15L);
+        ReflectionTestUtils.setField(publisher, "timeoutMinutes", 1L);
+        // Never drain, so buffers fill deterministically
+        ReflectionTestUtils.setField(publisher, "drainExecutor", (Executor) runnable -> { });
+        ReflectionTestUtils.invokeMethod(publisher, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(publisher);
+    }
+
+    private double subscribers() {
+        return meterRegistry.get("task.events.subscribers").gauge().value();
+    }
+
+    private double dropped() {
+        return meterRegistry.get("task.events.dropped").counter().count();
+    }
+
+    private GetTaskResponse task(long id) {
+        return GetTaskResponse.builder().id(id).title("Task " + id).build();
+    }
+
+    private TaskEvent event(TaskEventType type, long id) {
+        return TaskEvent.builder().type(type).id(id).task(type == TaskEventType.DELETED ? null : task(id)).build();
+    }
+
+    private String[] sentPayloads() {
+        ArgumentCaptor<String[]> payloads = ArgumentCaptor.forClass(String[].class);
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), eq(TaskEventPublisher.CHANNEL), payloads.capture());
+        return payloads.getValue();
+    }
+
+    @Test
+    void subscribeReturnsEmitterAndRegistersSubscriber() {
+        SseEmitter emitter = publisher.subscribe();
+
+        assertNotNull(emitter);
+        assertEquals(1.0, subscribers());
+    }
+
+    @Test
+    void subscriberWithinBufferIsKept() {
+        publisher.subscribe();
+
+        publisher.dispatch(event(TaskEventType.CREATED, 1));
+        publisher.dispatch(event(TaskEventType.DELETED, 1));
+
+        assertEquals(1.0, subscribers());
+        assertEquals(0.0, dropped());
+    }
+
+    @Test
+    void slowSubscriberIsDroppedWhenBufferIsFull() {
+        publisher.subscribe();
+
+        publisher.dispatch(event(TaskEventType.CREATED, 1));
+        publisher.dispatch(event(TaskEventType.UPDATED, 1));
+        publisher.dispatch(event(TaskEventType.DELETED, 1));
+
+        assertEquals(0.0, subscribers());
+        assertEquals(1.0, dropped());
+    }
+
+    @Test
+    void disconnectAllRemovesEverySubscriber() {
+        publisher.subscribe();
+        publisher.subscribe();
+
+        publisher.disconnectAll();
+
+        assertEquals(0.0, subscribers());
+    }
+
+    @Test
+    void publishOutsideTransactionNotifiesImmediatelyWithoutLocalDispatch() throws Exception {
+        publisher.subscribe();
+
+        publisher.publishCreated(task(1));
+
+        String[] payloads = sentPayloads();
+        assertEquals(1, payloads.length);
+        JsonNode sent = objectMapper.readTree(payloads[0]);
+        assertEquals("CREATED", sent.get("type").asText());
+        assertEquals("Task 1", sent.get("task").get("title").asText());
+        // Delivered back through TaskEventListener like every other pod's events
+        assertEquals(1.0, subscribers());
+    }
+
+    @Test
+    void eventsInsideTransactionAreSentTogetherBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        publisher.publishCreated(task(1));
+        publisher.publishUpdated(task(1));
+        publisher.publishDeleted(1L);
+        verifyNoInteractions(jdbcTemplate);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+
+        assertEquals(3, sentPayloads().length);
+    }
+
+    @Test
+    void rolledBackTransactionSendsNothingAndReleasesItsBuffer() {
+        TransactionSynchronizationManager.initSynchronization();
+        publisher.publishCreated(task(1));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verifyNoInteractions(jdbcTemplate);
+        assertNull(TransactionSynchronizationManager.getResource(publisher));
+    }
+
+    @Test
+    void taskTooLargeForNotifyIsSentById() throws Exception {
+        GetTaskResponse big = GetTaskResponse.builder().id(7L).title("Big").description("x".repeat(9000)).build();
+
+        publisher.publishUpdated(big);
+
+        String payload = sentPayloads()[0];
+        assertTrue(payload.length() < TaskEventPublisher.MAX_PAYLOAD_BYTES);
+        JsonNode sent = objectMapper.readTree(payload);
+        assertEquals(7L, sent.get("id").asLong());
+        assertFalse(sent.path("task").isObject());
+    }
+}
@@ -1,22 +1,44 @@
 package com.taskmanager.service;
 
 import com.taskmanager.api.dto.*;
+import com.taskmanager.api.enums.BatchItemStatus;
 import com.taskmanager.domain.model.Tasks;
 import com.taskmanager.domain.repository.*;
+import com.taskmanager.exception.BadRequest;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +47,15 @@ class TaskServiceImplTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private TaskCache taskCache;
+
+    @Mock
+    private TaskEventPublisher taskEventPublisher;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private TaskServiceImpl taskService;
 
@@ -74,13 +105,9 @@ class TaskServiceImplTest {
 
     @Test
     void getTaskReturnsTaskResponseWhenTaskExists() {
-        Tasks task = new Tasks();
-        task.setTaskId(1L);
-        task.setTitle("Existing Task");
-        task.setDescription("Existing Description");
-        task.setStatus("Done");
+        GetTaskResponse task = new GetTaskResponse(1L, "Existing Task", "Existing Description", "Done");
 
-        when(taskRepository.findById(1L)).thenReturn(Optional.of(task));
+        when(taskRepository.findResponseById(1L)).thenReturn(Optional.of(task));
 
         GetTaskResponse result = taskService.getTask(1);
 
@@ -89,45 +116,56 @@ class TaskServiceImplTest {
         assertEquals("Existing Task", result.getTitle());
         assertEquals("Existing Description", result.getDescription());
         assertEquals("Done", result.getStatus());
-        verify(taskRepository, times(1)).findById(1L);
+        verify(taskRepository, times(1)).findResponseById(1L);
+        verify(taskRepository, never()).findById(anyLong());
     }
 
     @Test
     void getTaskReturnsNullWhenTaskDoesNotExist() {
-        when(taskRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(taskRepository.findResponseById(anyLong())).thenReturn(Optional.empty());
 
         GetTaskResponse result = taskService.getTask(99);
 
         assertNull(result);
-        verify(taskRepository, times(1)).findById(99L);
+        verify(taskRepository, times(1)).findResponseById(99L);
     }
 
     @Test
     void getTaskConvertsIntegerIdToLong() {
-        when(taskRepository.findById(100L)).thenReturn(Optional.empty());
+        when(taskRepository.findResponseById(100L)).thenReturn(Optional.empty());
 
         taskService.getTask(100);
 
-        verify(taskRepository, times(1)).findById(100L);
+        verify(taskRepository, times(1)).findResponseById(100L);
     }
 
     @Test
     void deleteTaskReturnsTrueWhenTaskIsDeleted() {
-        doNothing().when(taskRepository).deleteById(anyLong());
+        when(taskRepository.deleteRowById(anyLong())).thenReturn(1);
 
         boolean result = taskService.deleteTask(1);
 
         assertTrue(result);
-        verify(taskRepository, times(1)).deleteById(1L);
+        verify(taskRepository, times(1)).deleteRowById(1L);
     }
 
     @Test
     void deleteTaskConvertsIntegerIdToLong() {
-        doNothing().when(taskRepository).deleteById(50L);
+        when(taskRepository.deleteRowById(50L)).thenReturn(1);
 
         taskService.deleteTask(50);
 
-        verify(taskRepository, times(1)).deleteById(50L);
+        verify(taskRepository, times(1)).deleteRowById(50L);
+    }
+
+    @Test
+    void deleteTaskOfMissingIdReturnsFalseWithoutEvents() {
+        when(taskRepository.deleteRowById(60L)).thenReturn(0);
+
+        assertFalse(taskService.deleteTask(60));
+
+        verify(taskCache, never()).evict(anyLong());
+        verify(taskEventPublisher, never()).publishDeleted(anyLong());
     }
 
     @Test
@@ -201,25 +239,11 @@ class TaskServiceImplTest {
 
     @Test
     void getAllTasksReturnsListOfTaskResponsesWhenTasksExist() {
-        Tasks task1 = new Tasks();
-        task1.setTaskId(1L);
-        task1.setTitle("Task 1");
-        task1.setDescription("Description 1");
-        task1.setStatus("To Do");
-
-        Tasks task2 = new Tasks();
-        task2.setTaskId(2L);
-        task2.setTitle("Task 2");
-        task2.setDescription("Description 2");
-        task2.setStatus("In Progress");
-
-        Tasks task3 = new Tasks();
-        task3.setTaskId(3L);
-        task3.setTitle("Task 3");
-        task3.setDescription("Description 3");
-        task3.setStatus("Done");
+        GetTaskResponse task1 = new GetTaskResponse(1L, "Task 1", "Description 1", "To Do");
+        GetTaskResponse task2 = new GetTaskResponse(2L, "Task 2", "Description 2", "In Progress");
+        GetTaskResponse task3 = new GetTaskResponse(3L, "Task 3", "Description 3", "Done");
 
-        when(taskRepository.findAll()).thenReturn(Arrays.asList(task1, task2, task3));
+        when(taskRepository.findAllResponses()).thenReturn(Arrays.asList(task1, task2, task3));
 
         List<GetTaskResponse> result = taskService.getAllTasks();
 
@@ -231,38 +255,19 @@ class TaskServiceImplTest {
         assertEquals("Task 2", result.get(1).getTitle());
         assertEquals(3, result.get(2).getId());
         assertEquals("Task 3", result.get(2).getTitle());
-        verify(taskRepository, times(1)).findAll();
+        verify(taskRepository, times(1)).findAllResponses();
+        verify(taskRepository, never()).findAll();
     }
 
     @Test
     void getAllTasksReturnsEmptyListWhenNoTasksExist() {
-        when(taskRepository.findAll()).thenReturn(Collections.emptyList());
+        when(taskRepository.findAllResponses()).thenReturn(Collections.emptyList());
 
         List<GetTaskResponse> result = taskService.getAllTasks();
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
-        verify(taskRepository, times(1)).findAll();
-    }
-
-    @Test
-    void getAllTasksMapsAllFieldsCorrectly() {
-        Tasks task = new Tasks();
-        task.setTaskId(10L);
-        task.setTitle("Complete Task");
-        task.setDescription("Full Description");
-        task.setStatus("Done");
-
-        when(taskRepository.findAll()).thenReturn(Collections.singletonList(task));
-
-        List<GetTaskResponse> result = taskService.getAllTasks();
-
-        assertEquals(1, result.size());
-        GetTaskResponse response = result.getFirst();
-        assertEquals(10, response.getId());
-        assertEquals("Complete Task", response.getTitle());
-        assertEquals("Full Description", response.getDescription());
-        assertEquals("Done", response.getStatus());
+        verify(taskRepository, times(1)).findAllResponses();
     }
 
     @Test
@@ -312,5 +317,468 @@ class TaskServiceImplTest {
         assertNull(result);
         verify(taskRepository, times(1)).findByTitle("");
     }
-}
 
+    @Test
+    void getTasksPageUsesKeysetCursorAndLimit() {
+        GetTaskResponse task = new GetTaskResponse(11L, "Task 11", null, null);
+
+        when(taskRepository.findResponsePage(10L, PageRequest.of(0, 5))).thenReturn(List.of(task));
+
+        List<GetTaskResponse> result = taskService.getTasksPage(10L, 5);
+
+        assertEquals(1, result.size());
+        assertEquals(11L, result.getFirst().getId());
+        assertEquals("Task 11", result.getFirst().getTitle());
+    }
+
+    @Test
+    void getTasksPageStartsFromBeginningWhenCursorIsNull() {
+        when(taskRepository.findResponsePage(0L, PageRequest.of(0, 100))).thenReturn(Collections.emptyList());
+
+        List<GetTaskResponse> result = taskService.getTasksPage(null, 100);
+
+        assertTrue(result.isEmpty());
+        verify(taskRepository, times(1)).findResponsePage(0L, PageRequest.of(0, 100));
+    }
+
+    @Test
+    void searchTasksDelegatesCriteriaWithKeysetCursor() {
+        TaskSearchCriteria criteria = TaskSearchCriteria.builder().status("Done").createdBy("admin@test.com").build();
+        GetTaskResponse task = new GetTaskResponse(4L, "Task 4", null, "Done");
+
+        when(taskRepository.search(criteria, 0L, 50)).thenReturn(List.of(task));
+
+        List<GetTaskResponse> result = taskService.searchTasks(criteria, null, 50);
+
+        assertEquals(List.of(task), result);
+        verify(taskRepository, times(1)).search(criteria, 0L, 50);
+    }
+
+    @Test
+    void searchTasksWithQueryUsesFullTextSearch() {
+        TaskSearchCriteria criteria = TaskSearchCriteria.builder().query("report").status("Done").build();
+        GetTaskResponse task = new GetTaskResponse(8L, "Weekly report", null, "Done");
+
+        when(taskRepository.fullTextSearch(criteria, 20)).thenReturn(List.of(task));
+
+        List<GetTaskResponse> result = taskService.searchTasks(criteria, null, 20);
+
+        assertEquals(List.of(task), result);
+        verify(taskRepository, never()).search(any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void streamAllTasksPassesEveryRowToConsumer() {
+        GetTaskResponse task1 = new GetTaskResponse(1L, "Task 1", null, null);
+        GetTaskResponse task2 = new GetTaskResponse(2L, "Task 2", null, null);
+
+        when(taskRepository.streamAllResponses()).thenReturn(Stream.of(task1, task2));
+
+        List<GetTaskResponse> received = new ArrayList<>();
+        taskService.streamAllTasks(received::add);
+
+        assertEquals(List.of(task1, task2), received);
+    }
+
+    @Test
+    void getTaskReturnsCachedResponseWithoutHittingRepository() {
+        GetTaskResponse cached = GetTaskResponse.builder().id(7L).title("Cached").version(2L).build();
+        when(taskCache.get(7L)).thenReturn(cached);
+
+        GetTaskResponse result = taskService.getTask(7);
+
+        assertSame(cached, result);
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void getTaskPopulatesCacheOnMiss() {
+        GetTaskResponse task = new GetTaskResponse(8L, "Loaded", null, null);
+        when(taskRepository.findResponseById(8L)).thenReturn(Optional.of(task));
+
+        GetTaskResponse result = taskService.getTask(8);
+
+        verify(taskCache, times(1)).putIfAbsent(result, 0L);
+    }
+
+    @Test
+    void writesKeepCacheInSync() {
+        Tasks saved = new Tasks();
+        saved.setTaskId(9L);
+        when(taskRepository.save(any(Tasks.class))).thenReturn(saved);
+
+        SaveTaskRequest saveRequest = new SaveTaskRequest();
+        saveRequest.setTitle("T");
+        taskService.saveTask(saveRequest);
+
+        UpdateTaskRequest updateRequest = new UpdateTaskRequest();
+        updateRequest.setId(9L);
+        updateRequest.setTitle("T2");
+        when(taskRepository.findById(9L)).thenReturn(Optional.of(saved));
+        taskService.updateTask(updateRequest);
+
+        when(taskRepository.deleteRowById(9L)).thenReturn(1);
+        taskService.deleteTask(9);
+
+        verify(taskCache, times(2)).put(any(GetTaskResponse.class));
+        verify(taskCache, times(1)).evict(9L);
+    }
+
+    @Test
+    void writesPublishTaskEvents() {
+        Tasks saved = new Tasks();
+        saved.setTaskId(9L);
+        when(taskRepository.save(any(Tasks.class))).thenReturn(saved);
+        when(taskRepository.findById(9L)).thenReturn(Optional.of(saved));
+        when(taskRepository.deleteRowById(9L)).thenReturn(1);
+
+        taskService.saveTask(saveRequest("T"));
+        taskService.updateTask(updateRequest(9L, "T2"));
+        taskService.deleteTask(9);
+
+        verify(taskEventPublisher).publishCreated(argThat(task -> task.getId() == 9L));
+        verify(taskEventPublisher).publishUpdated(argThat(task -> "T2".equals(task.getTitle())));
+        verify(taskEventPublisher).publishDeleted(9L);
+    }
+
+    @Test
+    void updateTaskRetriesOnOptimisticLockConflict() {
+        ReflectionTestUtils.setField(taskService, "maxUpdateAttempts", 3);
+        UpdateTaskRequest request = new UpdateTaskRequest();
+        request.setId(3L);
+        request.setTitle("Title");
+
+        Tasks existing = new Tasks();
+        existing.setTaskId(3L);
+        when(taskRepository.findById(3L)).thenReturn(Optional.of(existing));
+        when(taskRepository.save(any(Tasks.class)))
+                .thenThrow(new OptimisticLockingFailureException("stale"))
+                .thenReturn(existing);
+
+        assertTrue(taskService.updateTask(request));
+        verify(taskRepository, times(2)).findById(3L);
+    }
+
+    @Test
+    void updateTaskRethrowsWhenConflictsExhaustRetries() {
+        ReflectionTestUtils.setField(taskService, "maxUpdateAttempts", 2);
+        UpdateTaskRequest request = new UpdateTaskRequest();
+        request.setId(3L);
+
+        when(taskRepository.findById(3L)).thenReturn(Optional.of(new Tasks()));
+        when(taskRepository.save(any(Tasks.class))).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> taskService.updateTask(request));
+        verify(taskRepository, times(2)).save(any(Tasks.class));
+    }
+
+    private SaveTaskRequest saveRequest(String title) {
+        SaveTaskRequest request = new SaveTaskRequest();
+        request.setTitle(title);
+        request.setDescription("Description");
+        request.setStatus("TODO");
+        return request;
+    }
+
+    private UpdateTaskRequest updateRequest(Long id, String title) {
+        UpdateTaskRequest request = new UpdateTaskRequest();
+        request.setId(id);
+        request.setTitle(title);
+        request.setDescription("Description");
+        request.setStatus("DONE");
+        return request;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void saveTasksSkipsExistingAndRepeatedTitles() {
+        Tasks existing = new Tasks();
+        existing.setTaskId(1L);
+        existing.setTitle("Existing");
+        when(taskRepository.findByTitleIn(any())).thenReturn(List.of(existing));
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Tasks> toSave = invocation.getArgument(0);
+            long id = 100;
+            for (Tasks task : toSave) {
+                task.setTaskId(id++);
+            }
+            return toSave;
+        });
+
+        List<BatchItemResult> results = taskService.saveTasks(List.of(
+                saveRequest("New A"), saveRequest("Existing"), saveRequest("New B"), saveRequest("New A")));
+
+        assertEquals(4, results.size());
+        assertEquals(BatchItemStatus.CREATED, results.get(0).getStatus());
+        assertEquals(100L, results.get(0).getId());
+        assertEquals(BatchItemStatus.DUPLICATE_TITLE, results.get(1).getStatus());
+        assertEquals(BatchItemStatus.CREATED, results.get(2).getStatus());
+        assertEquals(101L, results.get(2).getId());
+        assertEquals(BatchItemStatus.DUPLICATE_TITLE, results.get(3).getStatus());
+        verify(taskRepository, times(1)).findByTitleIn(any());
+        verify(taskCache, times(2)).put(any(GetTaskResponse.class));
+    }
+
+    @Test
+    void updateTasksReportsMissingIdsAndTitleConflicts() {
+        Tasks task1 = new Tasks();
+        task1.setTaskId(1L);
+        task1.setTitle("One");
+        Tasks task2 = new Tasks();
+        task2.setTaskId(2L);
+        task2.setTitle("Two");
+        when(taskRepository.findAllById(any())).thenReturn(List.of(task1, task2));
+        when(taskRepository.findByTitleIn(any())).thenReturn(List.of(task2));
+
+        List<BatchItemResult> results = taskService.updateTasks(List.of(
+                updateRequest(1L, "Renamed"), updateRequest(2L, "Two"),
+                updateRequest(3L, "Three"), updateRequest(1L, "Two")));
+
+        assertEquals(BatchItemStatus.UPDATED, results.get(0).getStatus());
+        assertEquals("Renamed", task1.getTitle());
+        assertEquals(BatchItemStatus.UPDATED, results.get(1).getStatus());
+        assertEquals(BatchItemStatus.NOT_FOUND, results.get(2).getStatus());
+        assertEquals(BatchItemStatus.DUPLICATE_TITLE, results.get(3).getStatus());
+        verify(taskRepository, times(1)).saveAll(List.of(task1, task2));
+        // Cached only after the flush, so the responses carry the post-update versions
+        InOrder inOrder = inOrder(taskRepository, taskCache);
+        inOrder.verify(taskRepository).flush();
+        inOrder.verify(taskCache, times(2)).put(any(GetTaskResponse.class));
+    }
+
+    private static final long NOW = 1_760_000_000L;
+
+    private void configureChangeFeed(int maxResults, long horizonXid) {
+        ReflectionTestUtils.setField(taskService, "changesMaxResults", maxResults);
+        ReflectionTestUtils.setField(taskService, "tombstoneRetentionDays", 30);
+        when(taskRepository.currentChangeHorizon()).thenReturn(new TaskRepository.ChangeHorizon() {
+            @Override
+            public long getHorizonXid() {
+                return horizonXid;
+            }
+
+            @Override
+            public long getNowEpochSecond() {
+                return NOW;
+            }
+        });
+    }
+
+    private String changeToken(long xid, long issuedEpochSecond) {
+        return encode(xid + "_" + issuedEpochSecond);
+    }
+
+    private String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void getChangesSinceWithoutTokenRequiresResync() {
+        configureChangeFeed(10, 500L);
+
+        TaskChangesResponse response = taskService.getChangesSince(null);
+
+        assertTrue(response.isResyncRequired());
+        assertEquals(changeToken(500L, NOW), response.getNextToken());
+        verify(taskRepository, never()).findChangedBetween(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void getChangesSinceReturnsUpsertsAndDeletesInWindow() {
+        configureChangeFeed(10, 500L);
+        GetTaskResponse changed = new GetTaskResponse(1L, "Changed", null, "Done", 2L);
+
+        when(taskRepository.findChangedBetween(420L, 500L, PageRequest.of(0, 11))).thenReturn(List.of(changed));
+        when(taskRepository.findDeletedIdsBetween(420L, 500L, PageRequest.of(0, 11))).thenReturn(List.of(7L));
+
+        TaskChangesResponse response = taskService.getChangesSince(changeToken(420L, NOW - 3600));
+
+        assertFalse(response.isResyncRequired());
+        assertEquals(List.of(changed), response.getUpserts());
+        assertEquals(List.of(7L), response.getDeletes());
+        assertEquals(changeToken(500L, NOW), response.getNextToken());
+    }
+
+    @Test
+    void getChangesSinceRequiresResyncWhenWindowOverflows() {
+        configureChangeFeed(1, 500L);
+
+        when(taskRepository.findChangedBetween(anyLong(), anyLong(), any())).thenReturn(List.of(
+                new GetTaskResponse(1L, "A", null, null), new GetTaskResponse(2L, "B", null, null)));
+        when(taskRepository.findDeletedIdsBetween(anyLong(), anyLong(), any())).thenReturn(List.of());
+
+        TaskChangesResponse response = taskService.getChangesSince(changeToken(420L, NOW - 3600));
+
+        assertTrue(response.isResyncRequired());
+        assertTrue(response.getUpserts().isEmpty());
+    }
+
+    @Test
+    void getChangesSinceRequiresResyncWhenTokenIsOlderThanRetention() {
+        configureChangeFeed(10, 500L);
+
+        TaskChangesResponse response = taskService.getChangesSince(changeToken(420L, NOW - Duration.ofDays(31).toSeconds()));
+
+        assertTrue(response.isResyncRequired());
+        verify(taskRepository, never()).findChangedBetween(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void getChangesSinceWithNothingBelowHorizonReissuesToken() {
+        // A writer that started before the last call is still open, so the horizon has not moved
+        configureChangeFeed(10, 500L);
+
+        TaskChangesResponse response = taskService.getChangesSince(changeToken(500L, NOW - 60));
+
+        assertFalse(response.isResyncRequired());
+        assertTrue(response.getUpserts().isEmpty());
+        assertEquals(changeToken(500L, NOW), response.getNextToken());
+        verify(taskRepository, never()).findChangedBetween(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void getChangesSinceRequiresResyncForTimestampToken() {
+        configureChangeFeed(10, 500L);
+
+        TaskChangesResponse response = taskService.getChangesSince(encode(LocalDateTime.now().minusHours(1).toString()));
+
+        assertTrue(response.isResyncRequired());
+        assertEquals(changeToken(500L, NOW), response.getNextToken());
+    }
+
+    @Test
+    void getChangesSinceRejectsMalformedToken() {
+        configureChangeFeed(10, 500L);
+
+        assertThrows(BadRequest.class, () -> taskService.getChangesSince("not-a-token"));
+    }
+
+    @Test
+    void getChangeCountReadsTableCounter() {
+        when(taskRepository.currentChangeCount()).thenReturn(17L);
+
+        assertEquals(17L, taskService.getChangeCount());
+    }
+
+    @Test
+    void deleteTasksReportsOnlyTheIdsTheDeleteReturned() {
+        // 2 existed too but a concurrent request deleted it first
+        when(taskRepository.deleteAllByIdReturningIds(java.util.Set.of(1L, 2L))).thenReturn(List.of(1L));
+
+        List<BatchItemResult> results = taskService.deleteTasks(List.of(1L, 2L));
+
+        assertEquals(BatchItemStatus.DELETED, results.get(0).getStatus());
+        assertEquals(BatchItemStatus.NOT_FOUND, results.get(1).getStatus());
+        verify(taskRepository, never()).findAllById(any());
+        verify(taskCache, times(1)).evict(1L);
+        verify(taskEventPublisher, times(1)).publishDeleted(1L);
+        verify(taskEventPublisher, never()).publishDeleted(2L);
+    }
+
+    private DataIntegrityViolationException violation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("duplicate key", new SQLException("23505"), constraintName));
+    }
+
+    @Test
+    void saveTaskTranslatesTitleIndexViolationToBadRequest() {
+        Tasks saved = new Tasks();
+        saved.setTaskId(1L);
+        when(taskRepository.save(any(Tasks.class))).thenReturn(saved);
+        doThrow(violation(TaskServiceImpl.TITLE_UNIQUE_INDEX)).when(taskRepository).flush();
+
+        BadRequest ex = assertThrows(BadRequest.class, () -> taskService.saveTask(saveRequest("Dup")));
+
+        assertEquals("Title already exists: Dup", ex.getMessage());
+        verify(taskRepository, never()).findByTitle(anyString());
+        verify(taskCache, never()).put(any());
+    }
+
+    @Test
+    void saveTaskRethrowsOtherIntegrityViolations() {
+        when(taskRepository.save(any(Tasks.class))).thenReturn(new Tasks());
+        doThrow(violation("some_other_constraint")).when(taskRepository).flush();
+
+        assertThrows(DataIntegrityViolationException.class, () -> taskService.saveTask(saveRequest("T")));
+    }
+
+    @Test
+    void updateTaskTranslatesTitleIndexViolationToBadRequest() {
+        Tasks existing = new Tasks();
+        existing.setTaskId(4L);
+        when(taskRepository.findById(4L)).thenReturn(Optional.of(existing));
+        doThrow(violation(TaskServiceImpl.TITLE_UNIQUE_INDEX)).when(taskRepository).flush();
+
+        assertThrows(BadRequest.class, () -> taskService.updateTask(updateRequest(4L, "Dup")));
+    }
+
+    @Test
+    void saveTasksRetriesAfterTitleRaceAndMarksOnlyTheRacedTitle() {
+        Tasks raced = Tasks.builder().taskId(9L).title("B").build();
+        // Another request inserted "B" after the first attempt's findByTitleIn check
+        when(taskRepository.findByTitleIn(any())).thenReturn(List.of()).thenReturn(List.of(raced));
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(violation(TaskServiceImpl.TITLE_UNIQUE_INDEX)).doNothing().when(taskRepository).flush();
+
+        List<BatchItemResult> results = taskService.saveTasks(List.of(saveRequest("A"), saveRequest("B")));
+
+        assertEquals(BatchItemStatus.CREATED, results.get(0).getStatus());
+        assertEquals(BatchItemStatus.DUPLICATE_TITLE, results.get(1).getStatus());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(taskEventPublisher, times(1)).publishCreated(argThat(task -> "A".equals(task.getTitle())));
+    }
+
+    @Test
+    void saveTasksGivesUpWithoutListingTitlesAfterLosingTheRaceTwice() {
+        when(taskRepository.findByTitleIn(any())).thenReturn(List.of());
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(violation(TaskServiceImpl.TITLE_UNIQUE_INDEX)).when(taskRepository).flush();
+
+        BadRequest ex = assertThrows(BadRequest.class,
+                () -> taskService.saveTasks(List.of(saveRequest("A"), saveRequest("B"))));
+
+        assertEquals("A title in the batch was created concurrently, please retry", ex.getMessage());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(taskCache, never()).put(any());
+        verify(taskEventPublisher, never()).publishCreated(any());
+    }
+
+    @Test
+    void saveTasksRethrowsOtherIntegrityViolationsWithoutRetrying() {
+        when(taskRepository.findByTitleIn(any())).thenReturn(List.of());
+        when(taskRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(violation("some_other_constraint")).when(taskRepository).flush();
+
+        assertThrows(DataIntegrityViolationException.class, () -> taskService.saveTasks(List.of(saveRequest("A"))));
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    void updateTasksRetriesAfterTitleRaceAndMarksOnlyTheRacedTitle() {
+        Tasks task1 = Tasks.builder().taskId(1L).title("Old 1").build();
+        Tasks task2 = Tasks.builder().taskId(2L).title("Old 2").build();
+        Tasks raced = Tasks.builder().taskId(9L).title("Dup").build();
+        when(taskRepository.findAllById(any())).thenReturn(List.of(task1, task2));
+        when(taskRepository.findByTitleIn(any())).thenReturn(List.of()).thenReturn(List.of(raced));
+        doThrow(violation(TaskServiceImpl.TITLE_UNIQUE_INDEX)).doNothing().when(taskRepository).flush();
+
+        List<BatchItemResult> results = taskService.updateTasks(
+                List.of(updateRequest(1L, "Dup"), updateRequest(2L, "Fine")));
+
+        assertEquals(BatchItemStatus.DUPLICATE_TITLE, results.get(0).getStatus());
+        assertEquals(BatchItemStatus.UPDATED, results.get(1).getStatus());
+        verify(taskEventPublisher, times(1)).publishUpdated(argThat(task -> "Fine".equals(task.getTitle())));
+    }
+
+    @Test
+    void updateTasksGivesUpAfterLosingTheTitleRaceTwice() {
+        Tasks task1 = new Tasks();
+        task1.setTaskId(1L);
+        when(taskRepository.findAllById(any())).thenReturn(List.of(task1));
+        when(taskRepository.findByTitleIn(any())).thenReturn(List.of());
+        doThrow(violation(TaskServiceImpl.TITLE_UNIQUE_INDEX)).when(taskRepository).flush();
+
+        assertThrows(BadRequest.class, () -> taskService.updateTasks(List.of(updateRequest(1L, "Dup"))));
+        verify(taskCache, never()).put(any());
+    }
+}
@@ -0,0 +1,38 @@
+package com.taskmanager.service;
+
+import com.taskmanager.domain.repository.TaskRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskTombstonePurgerTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @InjectMocks
+    private TaskTombstonePurger purger;
+
+    @Test
+    void purgesTombstonesOlderThanRetention() {
+        ReflectionTestUtils.setField(purger, "retentionDays", 30);
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+
+        purger.purgeExpiredTombstones();
+
+        verify(taskRepository).purgeTombstonesBefore(cutoff.capture());
+        LocalDateTime expected = LocalDateTime.now().minusDays(30);
+        assertTrue(cutoff.getValue().isAfter(expected.minusMinutes(1)));
+        assertTrue(cutoff.getValue().isBefore(expected.plusMinutes(1)));
+    }
+}
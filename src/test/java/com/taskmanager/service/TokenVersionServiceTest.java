@@ -0,0 +1,82 @@
+package com.taskmanager.service;
+
+import com.taskmanager.domain.repository.UserInfoRepository;
+import com.taskmanager.security.jwt.VerifiedClaims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TokenVersionServiceTest {
+
+    private UserInfoRepository repository;
+    private UserDetailsServiceImpl userDetailsService;
+    private TokenVersionService tokenVersionService;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(UserInfoRepository.class);
+        userDetailsService = mock(UserDetailsServiceImpl.class);
+        tokenVersionService = new TokenVersionService(repository, userDetailsService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tokenVersionService, "maxSize", 100L);
+        ReflectionTestUtils.setField(tokenVersionService, "ttlSeconds", 60L);
+        ReflectionTestUtils.invokeMethod(tokenVersionService, "init");
+    }
+
+    private VerifiedClaims claims(long tokenVersion) {
+        return new VerifiedClaims("user@example.com", "ROLE_USER", Instant.now().plusSeconds(900), tokenVersion);
+    }
+
+    @Test
+    void currentVersionIsLoadedOnceAndThenServedFromMemory() {
+        when(repository.findTokenVersionByEmail("user@example.com")).thenReturn(Optional.of(2L));
+
+        assertTrue(tokenVersionService.isCurrent(claims(2L)));
+        assertFalse(tokenVersionService.isCurrent(claims(1L)));
+
+        verify(repository, times(1)).findTokenVersionByEmail("user@example.com");
+    }
+
+    @Test
+    void tokensOfUnknownUserAreNeverCurrent() {
+        when(repository.findTokenVersionByEmail("user@example.com")).thenReturn(Optional.empty());
+
+        assertFalse(tokenVersionService.isCurrent(claims(0L)));
+    }
+
+    @Test
+    void revokeTokensBumpsVersionAndDropsCachedValue() {
+        when(repository.findTokenVersionByEmail("user@example.com")).thenReturn(Optional.of(0L), Optional.of(1L));
+        when(repository.incrementTokenVersion("user@example.com")).thenReturn(1);
+        assertTrue(tokenVersionService.isCurrent(claims(0L)));
+
+        assertTrue(tokenVersionService.revokeTokens("user@example.com"));
+
+        assertFalse(tokenVersionService.isCurrent(claims(0L)));
+        assertTrue(tokenVersionService.isCurrent(claims(1L)));
+        verify(userDetailsService).evict("user@example.com");
+    }
+
+    @Test
+    void issueVersionAlwaysReadsTheDatabase() {
+        when(repository.findTokenVersionByEmail("user@example.com")).thenReturn(Optional.of(0L), Optional.of(1L));
+        assertTrue(tokenVersionService.isCurrent(claims(0L)));
+
+        // Bumped by another instance; the cached value is still 0
+        assertEquals(1L, tokenVersionService.issueVersion("user@example.com"));
+        verify(repository, times(2)).findTokenVersionByEmail("user@example.com");
+    }
+
+    @Test
+    void revokeTokensReturnsFalseForUnknownUser() {
+        when(repository.incrementTokenVersion("nobody@example.com")).thenReturn(0);
+
+        assertFalse(tokenVersionService.revokeTokens("nobody@example.com"));
+    }
+}
@@ -3,13 +3,15 @@ package com.taskmanager.service;
 import com.taskmanager.security.UserInfoUserDetails;
 import com.taskmanager.domain.model.UserInfo;
 import com.taskmanager.domain.repository.UserInfoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Optional;
 
@@ -22,9 +24,24 @@ class UserDetailsServiceImplTest {
     @Mock
     private UserInfoRepository repository;
 
-    @InjectMocks
     private UserDetailsServiceImpl userDetailsService;
 
+    @BeforeEach
+    void setUp() {
+        userDetailsService = new UserDetailsServiceImpl(repository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(userDetailsService, "maxSize", 100L);
+        ReflectionTestUtils.setField(userDetailsService, "ttlSeconds", 60L);
+        ReflectionTestUtils.invokeMethod(userDetailsService, "init");
+    }
+
+    private UserInfo user(String email) {
+        UserInfo userInfo = new UserInfo();
+        userInfo.setEmail(email);
+        userInfo.setPassword("password");
+        userInfo.setRole("USER");
+        return userInfo;
+    }
+
     @Test
     void loadUserByUsernameReturnsUserDetailsWhenEmailExists() {
         UserInfo userInfo = new UserInfo();
@@ -151,5 +168,53 @@ class UserDetailsServiceImplTest {
         assertEquals(email, result.getUsername());
         verify(repository, times(1)).findByEmail(email);
     }
-}
 
+    @Test
+    void loadUserByUsernameServesRepeatLookupsFromCache() {
+        when(repository.findByEmail("user@example.com")).thenReturn(Optional.of(user("user@example.com")));
+
+        UserDetails first = userDetailsService.loadUserByUsername("user@example.com");
+        UserDetails second = userDetailsService.loadUserByUsername("user@example.com");
+
+        assertSame(first, second);
+        verify(repository, times(1)).findByEmail("user@example.com");
+    }
+
+    @Test
+    void loadUserByUsernameDoesNotCacheMissingUser() {
+        when(repository.findByEmail("new@example.com"))
+                .thenReturn(Optional.empty(), Optional.of(user("new@example.com")));
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsService.loadUserByUsername("new@example.com"));
+
+        assertEquals("new@example.com", userDetailsService.loadUserByUsername("new@example.com").getUsername());
+    }
+
+    @Test
+    void evictForcesReloadFromRepository() {
+        UserInfo updated = user("user@example.com");
+        updated.setRole("ADMIN");
+        when(repository.findByEmail("user@example.com")).thenReturn(Optional.of(user("user@example.com")), Optional.of(updated));
+        userDetailsService.loadUserByUsername("user@example.com");
+
+        userDetailsService.evict("user@example.com");
+
+        UserDetails result = userDetailsService.loadUserByUsername("user@example.com");
+        assertEquals("ROLE_ADMIN", result.getAuthorities().iterator().next().getAuthority());
+        verify(repository, times(2)).findByEmail("user@example.com");
+    }
+
+    @Test
+    void updatePasswordStoresRehashedPasswordAndEvictsCachedUser() {
+        UserInfo rehashed = user("user@example.com");
+        rehashed.setPassword("{argon2}new-hash");
+        when(repository.findByEmail("user@example.com")).thenReturn(Optional.of(user("user@example.com")), Optional.of(rehashed));
+        UserDetails cached = userDetailsService.loadUserByUsername("user@example.com");
+
+        UserDetails result = userDetailsService.updatePassword(cached, "{argon2}new-hash");
+
+        verify(repository).updatePassword("user@example.com", "{argon2}new-hash");
+        assertEquals("{argon2}new-hash", result.getPassword());
+        assertEquals("{argon2}new-hash", userDetailsService.loadUserByUsername("user@example.com").getPassword());
+    }
+}